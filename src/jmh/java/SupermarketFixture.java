@@ -0,0 +1,145 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import benchmarks.Fixture;
+import utils.XMLParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Implements the fixture of the benchmarks on the classes of the simulation.
+ * Random datasets are drawn on the products of supermarket25.xml with customers arriving
+ * between 08:00 and 22:00, buying 8 items on average.
+ */
+public class SupermarketFixture implements Fixture {
+    private static final long SEED = 20200111L;
+    private static final int AVERAGE_NR_ITEMS = 8;
+
+    private String dataset;
+    private Supermarket template;           // products and opening hours of a random dataset
+    private Supermarket supermarket;
+    private List<Customer> customers;
+    private List<Cashier> cashiers;
+    private int nextCustomer;
+    private Path xmlFile;                   // file written by writeXML for a random dataset
+
+    @Override
+    public void load(String dataset) {
+        this.dataset = dataset;
+        if (dataset.startsWith(RANDOM_PREFIX)) {
+            Supermarket products = Supermarket.importFromXML("supermarket25.xml");
+            this.template = new Supermarket(dataset, LocalTime.of(8, 0), LocalTime.of(22, 0), products.getProducts());
+            this.supermarket = new Supermarket(dataset, this.template.getOpenTime(), this.template.getClosingTime(),
+                    this.template.getProducts());
+            this.supermarket.addRandomCustomers(Integer.parseInt(dataset.substring(RANDOM_PREFIX.length())),
+                    AVERAGE_NR_ITEMS, new SplittableRandom(SEED));
+        } else {
+            this.supermarket = Supermarket.importFromXML(dataset);
+        }
+        if (this.supermarket == null) {
+            throw new IllegalArgumentException("Cannot load dataset '" + dataset + "'");
+        }
+        this.customers = this.supermarket.getCustomers();
+        this.nextCustomer = 0;
+    }
+
+    @Override
+    public void createCashiers(int cashiers, String cashierType) {
+        boolean priority = "PRIO".equals(cashierType);
+        if (!priority && !"FIFO".equals(cashierType)) {
+            throw new IllegalArgumentException("Unknown cashier type '" + cashierType + "'");
+        }
+        this.cashiers = new CashierScenario(priority ? 0 : cashiers, priority ? cashiers : 0, 5).createCashiers();
+        for (Cashier c : this.cashiers) {
+            c.restart(this.supermarket.getOpenTime());
+        }
+    }
+
+    @Override
+    public void fillQueues(int queueLength) {
+        int capacity = queueLength * this.cashiers.size();
+        for (int i = 0; i < Math.min(capacity, this.customers.size()); i++) {
+            Customer customer = this.customers.get(i);
+            customer.selectCashier(this.cashiers).add(customer);
+        }
+    }
+
+    @Override
+    public void writeXML(Path directory) throws IOException {
+        if (this.template == null) {
+            return;     // resources are imported from the class path
+        }
+        this.xmlFile = directory.resolve(this.dataset + ".xml");
+        new DatasetGenerator(this.template, AVERAGE_NR_ITEMS)
+                .generate(SEED, this.customers.size(), this.xmlFile);
+    }
+
+    @Override
+    public void setParallelAnalytics(boolean parallel) {
+        this.supermarket.setParallelAnalytics(parallel);
+    }
+
+    @Override
+    public Object simulateCashiers() {
+        this.supermarket.simulateCashiers(this.cashiers);
+        return this.cashiers;
+    }
+
+    @Override
+    public Object selectCashier() {
+        return this.nextCustomer().selectCashier(this.cashiers);
+    }
+
+    @Override
+    public Object addToCashier(int queueLength) {
+        Cashier cashier = this.cashiers.get(0);
+        if (cashier.getWaitingQueue().size() >= queueLength) {
+            cashier.restart(this.supermarket.getOpenTime());
+        }
+        cashier.add(this.nextCustomer());
+        return cashier;
+    }
+
+    @Override
+    public Object importXML() throws IOException {
+        if (this.xmlFile == null) {
+            return Supermarket.importFromXML(this.dataset);
+        }
+        try (InputStream input = Files.newInputStream(this.xmlFile)) {
+            return Supermarket.importFromXML(new XMLParser(input), this.dataset);
+        }
+    }
+
+    @Override
+    public Path exportXML(Path directory) {
+        Path file = directory.resolve("export.xml");
+        this.supermarket.exportXML(file.toString());
+        return file;
+    }
+
+    @Override
+    public Object revenueByZipCode() {
+        return this.supermarket.revenueByZipCode();
+    }
+
+    @Override
+    public Object mostBoughtProductByZipCode() {
+        return this.supermarket.mostBoughtProductByZipCode();
+    }
+
+    private Customer nextCustomer() {
+        if (this.nextCustomer == this.customers.size()) {
+            this.nextCustomer = 0;
+        }
+        return this.customers.get(this.nextCustomer++);
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the zip code analytics of the supermarket on every dataset, sequentially and in parallel.
+ * Parallel analytics only start from Supermarket.getParallelThreshold customers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class AnalyticsBenchmark {
+    @Param({"jambi5.xml", "jambi50_7.xml", "jambi250_8.xml", "random-10000", "random-1000000"})
+    public String dataset;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Fixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.fixture = Fixture.create();
+        this.fixture.load(this.dataset);
+        this.fixture.setParallelAnalytics(this.parallel);
+    }
+
+    @Benchmark
+    public Object revenueByZipCode() {
+        return this.fixture.revenueByZipCode();
+    }
+
+    @Benchmark
+    public Object mostBoughtProductByZipCode() {
+        return this.fixture.mostBoughtProductByZipCode();
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Gives the benchmarks access to the simulation.
+ * JMH does not accept benchmarks in the default package, and classes in a named package cannot refer to
+ * the classes of the simulation in the default package. The benchmarks therefore drive the simulation through
+ * this interface, which is implemented in the default package by SupermarketFixture.
+ *
+ * A dataset is either an XML resource, e.g. jambi250_8.xml, or random-n for n random customers
+ * that are drawn from a fixed seed on the products of supermarket25.xml.
+ */
+public interface Fixture {
+    String RANDOM_PREFIX = "random-";
+
+    /**
+     * Creates a new fixture
+     * @return fixture Fixture
+     */
+    static Fixture create() {
+        try {
+            return (Fixture) Class.forName("SupermarketFixture").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the supermarket fixture", e);
+        }
+    }
+
+    /**
+     * Loads the customers of a dataset into memory
+     * @param dataset String
+     */
+    void load(String dataset);
+
+    /**
+     * Creates the cashiers that serve the customers of the dataset
+     * @param cashiers int number of cashiers
+     * @param cashierType String FIFO or PRIO
+     */
+    void createCashiers(int cashiers, String cashierType);
+
+    /**
+     * Fills the queues of the cashiers with the first customers of the dataset, as the customers select them
+     * @param queueLength int maximum number of customers per cashier
+     */
+    void fillQueues(int queueLength);
+
+    /**
+     * Writes the dataset as an XML file into the directory, such that it can be imported
+     * @param directory Path
+     * @throws IOException when the file cannot be written
+     */
+    void writeXML(Path directory) throws IOException;
+
+    /**
+     * Enables or disables the parallel analytics of the supermarket
+     * @param parallel boolean
+     */
+    void setParallelAnalytics(boolean parallel);
+
+    Object simulateCashiers();
+
+    /**
+     * Selects a cashier for the next customer of the dataset, without adding the customer
+     * @return cashier Object
+     */
+    Object selectCashier();
+
+    /**
+     * Adds the next customer of the dataset to the first cashier, which is restarted once its queue is full
+     * @param queueLength int maximum number of customers in the queue
+     * @return cashier Object
+     */
+    Object addToCashier(int queueLength);
+
+    /**
+     * Imports the dataset from its XML resource, or from the file written by writeXML
+     * @return supermarket Object
+     * @throws IOException when the file cannot be read
+     */
+    Object importXML() throws IOException;
+
+    /**
+     * Exports the dataset to a file in the directory
+     * @param directory Path
+     * @return path Path of the exported file
+     */
+    Path exportXML(Path directory);
+
+    Object revenueByZipCode();
+
+    Object mostBoughtProductByZipCode();
+}
@@ -0,0 +1,44 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures PriorityCashier.add for the customers of a dataset.
+ * The cashier is restarted whenever its queue holds queueLength customers,
+ * such that the measurement includes the amortized cost of clearing the queue.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class PriorityCashierBenchmark {
+    @Param({"jambi5.xml", "jambi50_7.xml", "jambi250_8.xml", "random-10000", "random-1000000"})
+    public String dataset;
+
+    @Param({"100", "10000"})
+    public int queueLength;
+
+    private Fixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.fixture = Fixture.create();
+        this.fixture.load(this.dataset);
+        this.fixture.createCashiers(1, "PRIO");
+    }
+
+    @Benchmark
+    public Object add() {
+        return this.fixture.addToCashier(this.queueLength);
+    }
+}
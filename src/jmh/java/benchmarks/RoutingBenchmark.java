@@ -0,0 +1,49 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Customer.selectCashier for the customers of a dataset,
+ * with the queues of the cashiers filled up to QUEUE_LENGTH customers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class RoutingBenchmark {
+    private static final int QUEUE_LENGTH = 20;
+
+    @Param({"jambi5.xml", "jambi50_7.xml", "jambi250_8.xml", "random-10000", "random-1000000"})
+    public String dataset;
+
+    @Param({"2", "4", "8"})
+    public int cashiers;
+
+    @Param({"FIFO", "PRIO"})
+    public String cashierType;
+
+    private Fixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.fixture = Fixture.create();
+        this.fixture.load(this.dataset);
+        this.fixture.createCashiers(this.cashiers, this.cashierType);
+        this.fixture.fillQueues(QUEUE_LENGTH);
+    }
+
+    @Benchmark
+    public Object selectCashier() {
+        return this.fixture.selectCashier();
+    }
+}
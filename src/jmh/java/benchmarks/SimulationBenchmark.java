@@ -0,0 +1,45 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Supermarket.simulateCashiers on every dataset for a number of FIFO or priority cashiers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class SimulationBenchmark {
+    @Param({"jambi5.xml", "jambi50_7.xml", "jambi250_8.xml", "random-10000", "random-1000000"})
+    public String dataset;
+
+    @Param({"1", "4", "8"})
+    public int cashiers;
+
+    @Param({"FIFO", "PRIO"})
+    public String cashierType;
+
+    private Fixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.fixture = Fixture.create();
+        this.fixture.load(this.dataset);
+        this.fixture.createCashiers(this.cashiers, this.cashierType);
+    }
+
+    @Benchmark
+    public Object simulateCashiers() {
+        return this.fixture.simulateCashiers();
+    }
+}
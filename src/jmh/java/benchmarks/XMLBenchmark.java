@@ -0,0 +1,61 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures Supermarket.importFromXML and Supermarket.exportXML on every dataset.
+ * Resources are imported from the class path, random datasets from a generated file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class XMLBenchmark {
+    @Param({"jambi5.xml", "jambi50_7.xml", "jambi250_8.xml", "random-10000", "random-1000000"})
+    public String dataset;
+
+    private Fixture fixture;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.fixture = Fixture.create();
+        this.fixture.load(this.dataset);
+        this.directory = Files.createTempDirectory("supermarket-jmh");
+        this.fixture.writeXML(this.directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object importFromXML() throws IOException {
+        return this.fixture.importXML();
+    }
+
+    @Benchmark
+    public Object exportXML() {
+        return this.fixture.exportXML(this.directory);
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * The customers of a supermarket in order of arrival, built in linear time by a counting sort
+ * over the seconds of the day. Customers that arrive in the same second keep their order in the list,
+ * which is the order in which the simulation schedules them.
+ *
+ * The index also holds the position of the first customer of every second, such that the customers
+ * arriving between two times are found without a search. An index is never modified,
+ * a new index is built when the customers have changed, which the version of the customer list tells.
+ */
+public class ArrivalIndex {
+    public static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final CustomerList customers;       // the indexed customers
+    private final CustomerTable table;          // the table holding the customers, null for customer objects
+    private final int version;                  // version of the customer list that has been indexed
+    private final int size;                     // number of indexed customers
+    private final int[] order;                  // position of the customers in order of arrival, null if unchanged
+    private final int[] firstOfSecond;          // index of the first customer of every second, plus the size
+
+    private ArrivalIndex(CustomerList customers, CustomerTable table, int version, int[] order, int[] firstOfSecond) {
+        this.customers = customers;
+        this.table = table;
+        this.version = version;
+        this.size = firstOfSecond[SECONDS_PER_DAY];
+        this.order = order;
+        this.firstOfSecond = firstOfSecond;
+    }
+
+    /**
+     * Indexes the customers of a supermarket
+     * @param customers CustomerList of customers
+     * @param table CustomerTable holding the customers, or null if the customers are objects
+     * @return index ArrivalIndex
+     */
+    public static ArrivalIndex of(CustomerList customers, CustomerTable table) {
+        int version = customers.getVersion();
+        int size = (table != null) ? table.size() : customers.size();
+        int[] seconds = (table != null) ? null : new int[size];
+        int[] firstOfSecond = new int[SECONDS_PER_DAY + 1];
+        for (int i = 0; i < size; i++) {
+            int second;
+            if (table != null) {
+                second = table.getArrivalSecond(i);
+            } else {
+                second = customers.get(i).getQueuedAt().toSecondOfDay();
+                seconds[i] = second;
+            }
+            firstOfSecond[second + 1]++;
+        }
+        for (int second = 0; second < SECONDS_PER_DAY; second++) {
+            firstOfSecond[second + 1] += firstOfSecond[second];
+        }
+
+        // rows of a table in order of arrival are used as they are
+        if (table != null && table.isSortedByArrival()) {
+            return new ArrivalIndex(customers, table, version, null, firstOfSecond);
+        }
+        int[] next = firstOfSecond.clone();
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[next[(table != null) ? table.getArrivalSecond(i) : seconds[i]]++] = i;
+        }
+        return new ArrivalIndex(customers, table, version, order, firstOfSecond);
+    }
+
+    /**
+     * Returns whether this index still holds the given customers,
+     * any modification of the customer list, including sorting, or a row added to the table requires a new index
+     * @param customers List
+     * @param table CustomerTable
+     * @return boolean
+     */
+    public boolean isFor(List<Customer> customers, CustomerTable table) {
+        if (this.customers != customers || this.table != table || this.customers.getVersion() != this.version) {
+            return false;
+        }
+        return (table != null) ? table.size() == this.size : this.customers.size() == this.size;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param i int index in order of arrival
+     * @return position int of the customer in the list of customers or row in the table
+     */
+    public int getPosition(int i) {
+        return (this.order != null) ? this.order[i] : i;
+    }
+
+    /**
+     * @param i int index in order of arrival
+     * @return customer Customer
+     */
+    public Customer get(int i) {
+        int position = this.getPosition(i);
+        return (this.table != null) ? this.table.getCustomer(position) : this.customers.get(position);
+    }
+
+    /**
+     * @param i int index in order of arrival
+     * @return arrivalSecond int second of the day
+     */
+    public int getArrivalSecond(int i) {
+        int position = this.getPosition(i);
+        return (this.table != null) ? this.table.getArrivalSecond(position)
+                : this.customers.get(position).getQueuedAt().toSecondOfDay();
+    }
+
+    /**
+     * Returns the index of the first customer that arrives at or after the given second
+     * @param second int second of the day, seconds past the end of the day give the size
+     * @return index int
+     */
+    public int firstAt(int second) {
+        return this.firstOfSecond[Math.max(0, Math.min(second, SECONDS_PER_DAY))];
+    }
+
+    /**
+     * Counts the customers that arrive from the first up to, but not including, the second second of the day
+     * @param fromSecond int
+     * @param toSecond int
+     * @return count int
+     */
+    public int countBetween(int fromSecond, int toSecond) {
+        return Math.max(0, this.firstAt(toSecond) - this.firstAt(fromSecond));
+    }
+
+    /**
+     * Returns the customers that arrive from the first up to, but not including, the second time,
+     * in order of arrival. The list is a view on this index.
+     * @param from LocalTime
+     * @param to LocalTime
+     * @return customers List
+     */
+    public List<Customer> between(LocalTime from, LocalTime to) {
+        int start = this.firstAt(from.toSecondOfDay());
+        int end = Math.max(start, this.firstAt(to.toSecondOfDay()));
+        return new AbstractList<Customer>() {
+            @Override
+            public Customer get(int index) {
+                if (index < 0 || index >= end - start) {
+                    throw new IndexOutOfBoundsException("Customer " + index + " of " + (end - start));
+                }
+                return ArrivalIndex.this.get(start + index);
+            }
+
+            @Override
+            public int size() {
+                return end - start;
+            }
+        };
+    }
+}
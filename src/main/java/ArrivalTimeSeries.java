@@ -0,0 +1,218 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arrivals, items and revenue of the customers over the seconds of the day.
+ *
+ * The series holds prefix sums per second, which are calculated in a single pass over the customers.
+ * The total of any window is the difference of two prefix sums, such that a window query costs O(1)
+ * whatever the number of customers, and a rolling window slides over the day in O(seconds).
+ * Windows include their start and exclude their end, LocalTime.MAX as end stands for the end of the day.
+ * Revenues are summed as doubles, windows may differ from a direct sum in the last bits.
+ */
+public class ArrivalTimeSeries {
+    /**
+     * The quantity that is measured over a window
+     */
+    public enum Measure {
+        ARRIVALS, ITEMS, REVENUE
+    }
+
+    private final int[] arrivals;       // customers that arrived before every second, plus the total
+    private final long[] items;         // items of the customers that arrived before every second
+    private final double[] revenue;     // revenue of the customers that arrived before every second
+
+    private ArrivalTimeSeries(int[] arrivals, long[] items, double[] revenue) {
+        this.arrivals = arrivals;
+        this.items = items;
+        this.revenue = revenue;
+    }
+
+    /**
+     * Calculates the series of the customers of a supermarket
+     * @param customers List of customers
+     * @param table CustomerTable holding the customers, or null if the customers are objects
+     * @return series ArrivalTimeSeries
+     */
+    public static ArrivalTimeSeries of(List<Customer> customers, CustomerTable table) {
+        int[] arrivals = new int[ArrivalIndex.SECONDS_PER_DAY + 1];
+        long[] items = new long[ArrivalIndex.SECONDS_PER_DAY + 1];
+        double[] revenue = new double[ArrivalIndex.SECONDS_PER_DAY + 1];
+        int size = (table != null) ? table.size() : customers.size();
+        for (int i = 0; i < size; i++) {
+            int second;
+            if (table != null) {
+                second = table.getArrivalSecond(i);
+                items[second + 1] += table.getItemCount(i);
+                revenue[second + 1] += table.getTotalCost(i);
+            } else {
+                Customer c = customers.get(i);
+                second = c.getQueuedAt().toSecondOfDay();
+                items[second + 1] += c.getNumberOfItems();
+                revenue[second + 1] += c.calculateTotalCost();
+            }
+            arrivals[second + 1]++;
+        }
+        for (int second = 0; second < ArrivalIndex.SECONDS_PER_DAY; second++) {
+            arrivals[second + 1] += arrivals[second];
+            items[second + 1] += items[second];
+            revenue[second + 1] += revenue[second];
+        }
+        return new ArrivalTimeSeries(arrivals, items, revenue);
+    }
+
+    public int getArrivals(LocalTime from, LocalTime to) {
+        return (int) this.sum(Measure.ARRIVALS, startSecond(from), endSecond(to));
+    }
+
+    public long getItems(LocalTime from, LocalTime to) {
+        return (long) this.sum(Measure.ITEMS, startSecond(from), endSecond(to));
+    }
+
+    public double getRevenue(LocalTime from, LocalTime to) {
+        return this.sum(Measure.REVENUE, startSecond(from), endSecond(to));
+    }
+
+    /**
+     * Divides a period into consecutive windows of the given width, the last window ends at the end of the period
+     * @param from LocalTime start of the first window
+     * @param to LocalTime end of the period
+     * @param width Duration of every window, at least a second
+     * @return windows List in order of time
+     */
+    public List<TimeWindow> windows(LocalTime from, LocalTime to, Duration width) {
+        int step = widthSeconds(width);
+        int end = endSecond(to);
+        List<TimeWindow> windows = new ArrayList<>();
+        for (int start = startSecond(from); start < end; start += step) {
+            windows.add(this.window(start, Math.min(start + step, end)));
+        }
+        return windows;
+    }
+
+    /**
+     * Finds the window of the given width with the highest total within the whole day
+     * @param measure Measure that is maximised
+     * @param width Duration of the window, at least a second
+     * @return window TimeWindow, the earliest one if several windows have the highest total
+     */
+    public TimeWindow peakWindow(Measure measure, Duration width) {
+        return this.peakWindow(measure, width, LocalTime.MIDNIGHT, LocalTime.MAX);
+    }
+
+    /**
+     * Finds the window of the given width with the highest total, by rolling the window one second at a time
+     * over a period. Windows do not extend beyond the period, a period shorter than the width is a single window.
+     * @param measure Measure that is maximised
+     * @param width Duration of the window, at least a second
+     * @param from LocalTime start of the period
+     * @param to LocalTime end of the period
+     * @return window TimeWindow, the earliest one if several windows have the highest total
+     */
+    public TimeWindow peakWindow(Measure measure, Duration width, LocalTime from, LocalTime to) {
+        int start = startSecond(from);
+        int end = Math.max(start, endSecond(to));
+        int length = Math.min(widthSeconds(width), end - start);
+        int peak = start;
+        double peakTotal = this.sum(measure, start, start + length);
+        for (int s = start + 1; s + length <= end; s++) {
+            double total = this.sum(measure, s, s + length);
+            if (total > peakTotal) {
+                peak = s;
+                peakTotal = total;
+            }
+        }
+        return this.window(peak, peak + length);
+    }
+
+    private TimeWindow window(int startSecond, int endSecond) {
+        return new TimeWindow(startSecond, endSecond, (int) this.sum(Measure.ARRIVALS, startSecond, endSecond),
+                (long) this.sum(Measure.ITEMS, startSecond, endSecond), this.sum(Measure.REVENUE, startSecond, endSecond));
+    }
+
+    private double sum(Measure measure, int startSecond, int endSecond) {
+        if (endSecond <= startSecond) {
+            return 0;
+        }
+        switch (measure) {
+            case ARRIVALS:
+                return this.arrivals[endSecond] - this.arrivals[startSecond];
+            case ITEMS:
+                return this.items[endSecond] - this.items[startSecond];
+            default:
+                return this.revenue[endSecond] - this.revenue[startSecond];
+        }
+    }
+
+    private static int startSecond(LocalTime time) {
+        return time.toSecondOfDay();
+    }
+
+    private static int endSecond(LocalTime time) {
+        return time.equals(LocalTime.MAX) ? ArrivalIndex.SECONDS_PER_DAY : time.toSecondOfDay();
+    }
+
+    private static int widthSeconds(Duration width) {
+        if (width.getSeconds() < 1) {
+            throw new IllegalArgumentException("A window has to be at least a second wide, not " + width);
+        }
+        return (int) Math.min(width.getSeconds(), ArrivalIndex.SECONDS_PER_DAY);
+    }
+
+    /**
+     * The totals of the customers that arrived within a window of time
+     */
+    public static class TimeWindow {
+        private final int startSecond;
+        private final int endSecond;
+        private final int arrivals;
+        private final long items;
+        private final double revenue;
+
+        public TimeWindow(int startSecond, int endSecond, int arrivals, long items, double revenue) {
+            this.startSecond = startSecond;
+            this.endSecond = endSecond;
+            this.arrivals = arrivals;
+            this.items = items;
+            this.revenue = revenue;
+        }
+
+        public LocalTime getStart() {
+            return LocalTime.ofSecondOfDay(this.startSecond);
+        }
+
+        /**
+         * @return end LocalTime, LocalTime.MAX for a window that lasts until the end of the day
+         */
+        public LocalTime getEnd() {
+            return (this.endSecond == ArrivalIndex.SECONDS_PER_DAY) ? LocalTime.MAX : LocalTime.ofSecondOfDay(this.endSecond);
+        }
+
+        public int getArrivals() {
+            return arrivals;
+        }
+
+        public long getItems() {
+            return items;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s-%s arrivals: %d items: %d revenue: %.2f", this.getStart(),
+                    (this.endSecond == ArrivalIndex.SECONDS_PER_DAY) ? "24:00" : this.getEnd(),
+                    this.arrivals, this.items, this.revenue);
+        }
+    }
+}
@@ -5,18 +5,27 @@
  */
 
 import java.time.LocalTime;
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.Queue;
 
 public abstract class Cashier {
     final int FIXED_TIME = 20;
     final int TIME_PER_ITEM = 2;
+    public static final int WORST_WAITS = 10;   // number of longest waiting customers that are kept
+    public static final int DEFAULT_QUEUE_OVERFLOW_LENGTH = 20; // queue length from which joining customers are reported
+
+    /**
+     * Which customers a cashier keeps in its history: none, the last N taken customers, or all customers
+     */
+    public enum HistoryRetention { OFF, LAST_N, FULL }
 
     private String name;                    // name of the cashier
-    LinkedList<Customer> waitingQueue; // waiting customers
-    LinkedList<Customer> history; // Helped customers
+    Queue<Customer> waitingQueue; // waiting customers
+    Deque<Customer> history;      // taken customers, as far as retained
+    private HistoryRetention historyRetention = HistoryRetention.FULL;
+    private int historyLimit;             // number of customers kept with LAST_N
     private LocalTime currentTime;        // localtime for the cashier during simulation
     private int totalIdleTime;            // cumulative seconds when idling
     int maxQueueLength;           // maximum number of customers
@@ -24,17 +33,35 @@ public abstract class Cashier {
     int totalAmountAtWork;
     int totalAmountOfWorkTime;
     Customer currentCustomer;
+    int currentWorkload;          // checkout time of the customer being served
+    int queuedWorkload;           // total checkout time of the customers waiting in the queue
     int totalCustomers;
-    List<Integer> waitingTimes;
+    private long totalCheckOutTime;       // expected checkout time of all taken customers
+    private int servedCustomers;          // number of customers whose checkout has completed
+    private long servedItems;             // number of items of the served customers
+    private long busyTime;                // checkout time of the served customers
+    private int queueOverflowLength = DEFAULT_QUEUE_OVERFLOW_LENGTH;
+
+    private final WaitTimeHistogram waitTimes = new WaitTimeHistogram();   // waiting times of helped customers
+    private final WorstWaits worstWaits = new WorstWaits(WORST_WAITS);     // customers that waited longest
 
     /**
      * Default constructor
      * @param name String
      */
     protected Cashier(String name) {
+        this(name, new LinkedList<>());
+    }
+
+    /**
+     * Constructor for cashiers that order their waiting customers differently
+     * @param name String
+     * @param waitingQueue Queue which decides the order in which customers are served
+     */
+    protected Cashier(String name, Queue<Customer> waitingQueue) {
         this.name = name;
-        this.waitingQueue = new LinkedList<>();
-        this.history = new LinkedList<>();
+        this.waitingQueue = waitingQueue;
+        this.history = new ArrayDeque<>();
     }
 
     /**
@@ -52,7 +79,15 @@ public abstract class Cashier {
         this.totalAmountOfWorkTime = 0;
         this.totalCustomers = 0;
         this.currentCustomer = null;
-        this.waitingTimes = new ArrayList<>();
+        this.timeWorked = 0;
+        this.currentWorkload = 0;
+        this.queuedWorkload = 0;
+        this.waitTimes.reset();
+        this.worstWaits.reset();
+        this.totalCheckOutTime = 0;
+        this.servedCustomers = 0;
+        this.servedItems = 0;
+        this.busyTime = 0;
     }
 
     /**
@@ -94,13 +129,100 @@ public abstract class Cashier {
     public void add(Customer customer) {
         //Let customers with less then 1 item skip line completely.
         if (customer.getNumberOfItems() > 0) {
-            this.totalCustomers++;
-            this.waitingQueue.add(customer);
-            this.history.add(customer);
-            updateMaxQueueLength();
+            enqueue(customer);
         }
     }
 
+    /**
+     * Adds a customer to the waiting queue and registers its workload.
+     * The waiting queue decides the position of the customer.
+     * @param customer Customer
+     */
+    protected void enqueue(Customer customer) {
+        this.waitingQueue.add(customer);
+        this.retain(customer);
+        this.totalCustomers++;
+        this.totalCheckOutTime += expectedCheckOutTime(customer.getNumberOfItems());
+        queued(customer.getNumberOfItems());
+        updateMaxQueueLength();
+
+        if (this.waitingQueue.size() > this.queueOverflowLength) {
+            QueueOverflowEvent event = new QueueOverflowEvent();
+            if (event.isEnabled()) {
+                event.simulatedTime = String.valueOf(this.currentTime);
+                event.cashier = this.name;
+                event.queueLength = this.waitingQueue.size();
+                event.overflowLength = this.queueOverflowLength;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Keeps a taken customer in the history according to the history retention
+     * @param customer Customer
+     */
+    private void retain(Customer customer) {
+        if (this.historyRetention == HistoryRetention.OFF) {
+            return;
+        }
+        if (this.historyRetention == HistoryRetention.LAST_N && this.history.size() >= this.historyLimit) {
+            if (this.historyLimit == 0) {
+                return;
+            }
+            this.history.removeFirst();
+        }
+        this.history.addLast(customer);
+    }
+
+    /**
+     * Registers a customer whose checkout has completed.
+     * @param customer Customer
+     * @param checkOutTime int seconds spent on the checkout
+     * @param completedAfter int seconds after the current time of the cashier at which the checkout completed
+     */
+    protected void served(Customer customer, int checkOutTime, int completedAfter) {
+        int numberOfItems = customer.getNumberOfItems();
+        this.servedCustomers++;
+        this.servedItems += numberOfItems;
+        this.busyTime += checkOutTime;
+
+        ServiceEndEvent event = new ServiceEndEvent();
+        if (event.isEnabled()) {
+            event.simulatedTime = this.currentTime.plusSeconds(completedAfter).toString();
+            event.cashier = this.name;
+            event.checkOutTime = checkOutTime;
+            event.numberOfItems = numberOfItems;
+            event.commit();
+        }
+    }
+
+    /**
+     * Removes the first customer from the waiting queue and deregisters its workload.
+     * @return customer Customer
+     */
+    protected Customer dequeue() {
+        Customer customer = this.waitingQueue.remove();
+        dequeued(customer.getNumberOfItems());
+        return customer;
+    }
+
+    /**
+     * Adds the checkout time of a customer that entered the queue to the queued workload.
+     * @param numberOfItems int
+     */
+    protected void queued(int numberOfItems) {
+        this.queuedWorkload += FIXED_TIME + TIME_PER_ITEM * numberOfItems;
+    }
+
+    /**
+     * Removes the checkout time of a customer that left the queue from the queued workload.
+     * @param numberOfItems int
+     */
+    protected void dequeued(int numberOfItems) {
+        this.queuedWorkload -= FIXED_TIME + TIME_PER_ITEM * numberOfItems;
+    }
+
     /**
      * Returns the average time the customer needs to wait until helped. Rounding off the number to a 2 decimal number.
      * (##.##)
@@ -109,29 +231,64 @@ public abstract class Cashier {
      * @return double
      */
     public double getAverageWaitingTime() {
-        double totalWaitingTime = 0.0;
-        for (int waitingTime : this.waitingTimes) {
-            totalWaitingTime += waitingTime;
-        }
+        double totalWaitingTime = this.waitTimes.getTotal();
 
         //Round result to a 2 decimal double
         return totalWaitingTime > 0 ?
                 (double) Math.round((totalWaitingTime / this.totalCustomers) * 100) / 100 : totalWaitingTime;
     }
 
+    /**
+     * Returns the sum of the waiting times of all customers that have been helped.
+     * @return totalWaitingTime long
+     */
+    public long getTotalWaitingTime() {
+        return this.waitTimes.getTotal();
+    }
+
     /**
      * Returns the maximum waiting time before a customer is helped.
-     * Result is based on this.waitingTimes List. Taking the highest value and returning it.
+     * Result is kept up to date by recordWaitingTime, such that it can be checked while the simulation runs.
      * @return maxWaitingTime int
      */
     public int getMaxWaitingTime() {
-        int maxWaitingTime = 0;
-        for (int waitingTime : this.waitingTimes) {
-            if (waitingTime > maxWaitingTime) {
-                maxWaitingTime = waitingTime;
-            }
+        return this.waitTimes.getMax();
+    }
+
+    /**
+     * Returns a percentile of the waiting times, accurate to 1/32 of the waiting time
+     * @param percentile double between 0.0 and 100.0, e.g. 90.0 for p90
+     * @return waitingTime int seconds
+     */
+    public int getWaitingTimePercentile(double percentile) {
+        return this.waitTimes.getPercentile(percentile);
+    }
+
+    /**
+     * Records the waiting time of a customer whose checkout starts, without allocating.
+     * @param waitingTime int seconds between queueing and the start of the checkout
+     * @param customer Customer
+     */
+    protected void recordWaitingTime(int waitingTime, Customer customer) {
+        this.waitTimes.record(waitingTime);
+        this.worstWaits.record(waitingTime, customer);
+
+        ServiceStartEvent event = new ServiceStartEvent();
+        if (event.isEnabled()) {
+            event.simulatedTime = customer.getQueuedAt().plusSeconds(waitingTime).toString();
+            event.cashier = this.name;
+            event.waitingTime = waitingTime;
+            event.numberOfItems = customer.getNumberOfItems();
+            event.commit();
         }
-        return maxWaitingTime;
+    }
+
+    public WaitTimeHistogram getWaitTimeHistogram() {
+        return waitTimes;
+    }
+
+    public WorstWaits getWorstWaits() {
+        return worstWaits;
     }
 
     /**
@@ -147,6 +304,14 @@ public abstract class Cashier {
         }
     }
 
+    /**
+     * A cashier is idle when no customer is being served and nobody is waiting in the queue.
+     * @return boolean
+     */
+    public boolean isIdle() {
+        return this.currentCustomer == null && this.waitingQueue.isEmpty();
+    }
+
     public Queue<Customer> getWaitingQueue() {
         return waitingQueue;
     }
@@ -155,6 +320,76 @@ public abstract class Cashier {
         return this.totalCustomers;
     }
 
+    /**
+     * Returns the average expected checkout time of all taken customers, rounded to 2 decimals
+     * @return averageCheckOutTime double
+     */
+    public double getAverageCheckOutTime() {
+        if (this.totalCustomers == 0) {
+            return 0.0;
+        }
+        return Math.round((double) this.totalCheckOutTime / this.totalCustomers * 100.0) / 100.0;
+    }
+
+    public int getServedCustomers() {
+        return servedCustomers;
+    }
+
+    public long getServedItems() {
+        return servedItems;
+    }
+
+    public long getBusyTime() {
+        return busyTime;
+    }
+
+    /**
+     * Sets which taken customers are kept in the history, FULL by default.
+     * The history is not used for reporting, it is only kept for inspection,
+     * long-running simulations switch it OFF to keep their memory bounded.
+     * @param historyRetention HistoryRetention OFF or FULL, use setHistoryRetention(int) for LAST_N
+     */
+    public void setHistoryRetention(HistoryRetention historyRetention) {
+        if (historyRetention == HistoryRetention.LAST_N) {
+            throw new IllegalArgumentException("LAST_N needs a number of customers, use setHistoryRetention(int)");
+        }
+        this.historyRetention = historyRetention;
+        this.trimHistory();
+    }
+
+    /**
+     * Keeps the last taken customers in the history
+     * @param lastN int number of customers that are kept
+     */
+    public void setHistoryRetention(int lastN) {
+        if (lastN < 0) {
+            throw new IllegalArgumentException("A history cannot hold " + lastN + " customers");
+        }
+        this.historyRetention = HistoryRetention.LAST_N;
+        this.historyLimit = lastN;
+        this.trimHistory();
+    }
+
+    private void trimHistory() {
+        if (this.historyRetention == HistoryRetention.OFF) {
+            this.history.clear();
+        }
+        while (this.historyRetention == HistoryRetention.LAST_N && this.history.size() > this.historyLimit) {
+            this.history.removeFirst();
+        }
+    }
+
+    public HistoryRetention getHistoryRetention() {
+        return historyRetention;
+    }
+
+    /**
+     * @return the retained customers, oldest first, which is empty when the history retention is OFF
+     */
+    public Deque<Customer> getHistory() {
+        return history;
+    }
+
     public int getTotalIdleTime() {
         return totalIdleTime;
     }
@@ -171,6 +406,18 @@ public abstract class Cashier {
         return maxQueueLength;
     }
 
+    public int getQueueOverflowLength() {
+        return queueOverflowLength;
+    }
+
+    /**
+     * Sets the queue length above which customers that join the queue are reported by a QueueOverflowEvent
+     * @param queueOverflowLength int
+     */
+    public void setQueueOverflowLength(int queueOverflowLength) {
+        this.queueOverflowLength = queueOverflowLength;
+    }
+
     public void setCurrentTime(LocalTime currentTime) {
         this.currentTime = currentTime;
     }
@@ -0,0 +1,46 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+/**
+ * The results of a cashier after a simulation that are compared across replications.
+ */
+public enum CashierMetric {
+    CUSTOMERS("n-customers"),
+    AVERAGE_WAITING_TIME("avg-wait-time"),
+    MAX_WAITING_TIME("max-wait-time"),
+    MAX_QUEUE_LENGTH("max-queue-length"),
+    IDLE_TIME("idle-time");
+
+    private final String label;
+
+    CashierMetric(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Reads the metric from a cashier that has been simulated
+     * @param cashier Cashier
+     * @return value double
+     */
+    public double valueOf(Cashier cashier) {
+        switch (this) {
+            case CUSTOMERS:
+                return cashier.getTotalCustomers();
+            case AVERAGE_WAITING_TIME:
+                return cashier.getAverageWaitingTime();
+            case MAX_WAITING_TIME:
+                return cashier.getMaxWaitingTime();
+            case MAX_QUEUE_LENGTH:
+                return cashier.getMaxQueueLength();
+            default:
+                return cashier.getTotalIdleTime();
+        }
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A configuration of cashiers to be simulated: a number of FIFO cashiers
+ * and a number of priority cashiers that share the same maximum number of priority items.
+ * Every simulation of the scenario uses a fresh set of cashiers.
+ */
+public class CashierScenario {
+    private final int fifoCashiers;             // number of FIFOCashiers
+    private final int priorityCashiers;         // number of PriorityCashiers
+    private final int maxNumPriorityItems;      // maximum number of items of priority customers
+
+    /**
+     * @param fifoCashiers int
+     * @param priorityCashiers int
+     * @param maxNumPriorityItems int
+     */
+    public CashierScenario(int fifoCashiers, int priorityCashiers, int maxNumPriorityItems) {
+        if (fifoCashiers < 0 || priorityCashiers < 0 || fifoCashiers + priorityCashiers == 0) {
+            throw new IllegalArgumentException("A scenario needs at least one cashier");
+        }
+        this.fifoCashiers = fifoCashiers;
+        this.priorityCashiers = priorityCashiers;
+        this.maxNumPriorityItems = maxNumPriorityItems;
+    }
+
+    /**
+     * Creates new cashiers for this scenario.
+     * A single cashier of a type is named FIFO or PRIO, multiple cashiers are numbered FIFO-1, FIFO-2, ...
+     * @return cashiers List
+     */
+    public List<Cashier> createCashiers() {
+        List<Cashier> cashiers = new ArrayList<>(this.fifoCashiers + this.priorityCashiers);
+        for (int i = 1; i <= this.fifoCashiers; i++) {
+            cashiers.add(new FIFOCashier(cashierName("FIFO", i, this.fifoCashiers)));
+        }
+        for (int i = 1; i <= this.priorityCashiers; i++) {
+            cashiers.add(new PriorityCashier(cashierName("PRIO", i, this.priorityCashiers), this.maxNumPriorityItems));
+        }
+        return cashiers;
+    }
+
+    /**
+     * Creates new cashiers for this scenario which keep the given history
+     * @param historyRetention HistoryRetention OFF or FULL
+     * @return cashiers List
+     */
+    public List<Cashier> createCashiers(Cashier.HistoryRetention historyRetention) {
+        List<Cashier> cashiers = this.createCashiers();
+        for (Cashier c : cashiers) {
+            c.setHistoryRetention(historyRetention);
+        }
+        return cashiers;
+    }
+
+    /**
+     * Parses a scenario written as fifoCashiers,priorityCashiers,maxNumPriorityItems, e.g. 2,1,5
+     * @param text String
+     * @return scenario CashierScenario
+     * @throws IllegalArgumentException if the text does not describe a scenario
+     */
+    public static CashierScenario parse(String text) {
+        String[] fields = text.trim().split("\\s*,\\s*");
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("A scenario needs fifo,prio,maxPrioItems, not '" + text + "'");
+        }
+        return new CashierScenario(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                Integer.parseInt(fields[2]));
+    }
+
+    private static String cashierName(String type, int number, int count) {
+        return (count == 1) ? type : type + "-" + number;
+    }
+
+    public int getFifoCashiers() {
+        return fifoCashiers;
+    }
+
+    public int getPriorityCashiers() {
+        return priorityCashiers;
+    }
+
+    public int getMaxNumPriorityItems() {
+        return maxNumPriorityItems;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CashierScenario)) return false;
+        CashierScenario other = (CashierScenario) o;
+        return this.fifoCashiers == other.fifoCashiers && this.priorityCashiers == other.priorityCashiers
+                && this.maxNumPriorityItems == other.maxNumPriorityItems;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * this.fifoCashiers + this.priorityCashiers) + this.maxNumPriorityItems;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d FIFO + %d PRIO(%d)", this.fifoCashiers, this.priorityCashiers, this.maxNumPriorityItems);
+    }
+}
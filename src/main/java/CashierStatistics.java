@@ -0,0 +1,144 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The statistics of a cashier at the end of a simulation, without the customers of the cashier.
+ * Statistics can be kept after the cashier has been discarded, and can be sent to another process.
+ */
+public class CashierStatistics {
+    private final String name;
+    private final int totalCustomers;           // customers that have been taken by the cashier
+    private final int servedCustomers;          // customers whose checkout has completed
+    private final long servedItems;
+    private final long busyTime;
+    private final int maxQueueLength;
+    private final int totalIdleTime;
+    private final WaitTimeHistogram waitTimes;
+    private final int[] worstWaitingTimes;      // longest waiting times, longest first
+
+    public CashierStatistics(String name, int totalCustomers, int servedCustomers, long servedItems, long busyTime,
+                             int maxQueueLength, int totalIdleTime, WaitTimeHistogram waitTimes,
+                             int[] worstWaitingTimes) {
+        this.name = name;
+        this.totalCustomers = totalCustomers;
+        this.servedCustomers = servedCustomers;
+        this.servedItems = servedItems;
+        this.busyTime = busyTime;
+        this.maxQueueLength = maxQueueLength;
+        this.totalIdleTime = totalIdleTime;
+        this.waitTimes = waitTimes;
+        this.worstWaitingTimes = worstWaitingTimes;
+    }
+
+    /**
+     * Takes the statistics of a cashier
+     * @param cashier Cashier
+     * @return statistics CashierStatistics
+     */
+    public static CashierStatistics of(Cashier cashier) {
+        WaitTimeHistogram waitTimes = new WaitTimeHistogram();
+        waitTimes.merge(cashier.getWaitTimeHistogram());
+        List<Integer> worst = cashier.getWorstWaits().getWaitingTimes();
+        int[] worstWaitingTimes = new int[worst.size()];
+        for (int i = 0; i < worstWaitingTimes.length; i++) {
+            worstWaitingTimes[i] = worst.get(i);
+        }
+        return new CashierStatistics(cashier.getName(), cashier.getTotalCustomers(), cashier.getServedCustomers(),
+                cashier.getServedItems(), cashier.getBusyTime(), cashier.getMaxQueueLength(),
+                cashier.getTotalIdleTime(), waitTimes, worstWaitingTimes);
+    }
+
+    /**
+     * @param out DataOutput
+     * @throws IOException
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(this.name);
+        out.writeInt(this.totalCustomers);
+        out.writeInt(this.servedCustomers);
+        out.writeLong(this.servedItems);
+        out.writeLong(this.busyTime);
+        out.writeInt(this.maxQueueLength);
+        out.writeInt(this.totalIdleTime);
+        this.waitTimes.writeTo(out);
+        out.writeInt(this.worstWaitingTimes.length);
+        for (int waitingTime : this.worstWaitingTimes) {
+            out.writeInt(waitingTime);
+        }
+    }
+
+    /**
+     * Reads statistics that have been written by writeTo
+     * @param in DataInput
+     * @return statistics CashierStatistics
+     * @throws IOException
+     */
+    static CashierStatistics readFrom(DataInput in) throws IOException {
+        String name = in.readUTF();
+        int totalCustomers = in.readInt();
+        int servedCustomers = in.readInt();
+        long servedItems = in.readLong();
+        long busyTime = in.readLong();
+        int maxQueueLength = in.readInt();
+        int totalIdleTime = in.readInt();
+        WaitTimeHistogram waitTimes = WaitTimeHistogram.readFrom(in);
+        int[] worstWaitingTimes = new int[in.readInt()];
+        for (int i = 0; i < worstWaitingTimes.length; i++) {
+            worstWaitingTimes[i] = in.readInt();
+        }
+        return new CashierStatistics(name, totalCustomers, servedCustomers, servedItems, busyTime, maxQueueLength,
+                totalIdleTime, waitTimes, worstWaitingTimes);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTotalCustomers() {
+        return totalCustomers;
+    }
+
+    public int getServedCustomers() {
+        return servedCustomers;
+    }
+
+    public long getServedItems() {
+        return servedItems;
+    }
+
+    public long getBusyTime() {
+        return busyTime;
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public int getTotalIdleTime() {
+        return totalIdleTime;
+    }
+
+    public long getTotalWaitingTime() {
+        return this.waitTimes.getTotal();
+    }
+
+    public int getMaxWaitingTime() {
+        return this.waitTimes.getMax();
+    }
+
+    public WaitTimeHistogram getWaitTimeHistogram() {
+        return waitTimes;
+    }
+
+    public int[] getWorstWaitingTimes() {
+        return worstWaitingTimes.clone();
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import utils.Metrics;
+import utils.SLF4J;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates the stores of a chain in worker processes on the local machine, such that every worker has a heap
+ * and a garbage collector of its own.
+ *
+ * The stores are divided into one partition per worker, balanced by the size of their datasets.
+ * Every partition is handled by a worker JVM that is launched with the class path of the coordinator and that
+ * connects back to a loopback socket, see ChainProtocol and ChainWorker. The worker receives the stores of its
+ * partition one at a time and returns the cashier statistics and the zip code aggregation of every store.
+ * When a worker crashes, the stores of its partition without a result are retried in a new worker.
+ * Stores that a worker reports as failed are not retried, their failure stops the run.
+ * The products of all stores are loaded into the chain catalog in order of the datasets before the workers start,
+ * such that the product ids of the chain, and the ranking of products with equal counts,
+ * do not depend on the order in which the workers report their results.
+ */
+public class ChainCoordinator {
+    private static final long CONNECT_TIMEOUT = 60_000;     // milliseconds for a launched worker to connect
+    private static final int POLL_INTERVAL = 100;           // milliseconds between checks of a starting worker
+
+    private static final Metrics.Counter WORKER_RETRIES = Metrics.REGISTRY.counter(
+            "supermarket_chain_worker_retries_total", "Number of chain worker processes that were replaced after a crash");
+
+    private final ChainRunner runner;           // catalog and scenarios of the chain
+    private final int workers;                  // number of worker processes that run at the same time
+    private final int maxAttempts;              // number of workers that may be launched for a partition
+    private final List<String> jvmOptions = new ArrayList<>();
+    private String workerClass = ChainWorker.class.getName();
+    private final AtomicInteger retries = new AtomicInteger();
+
+    /**
+     * @param runner ChainRunner with the catalog and the cashier scenarios of the chain
+     * @param workers int number of worker processes
+     */
+    public ChainCoordinator(ChainRunner runner, int workers) {
+        this(runner, workers, 3);
+    }
+
+    /**
+     * @param runner ChainRunner with the catalog and the cashier scenarios of the chain
+     * @param workers int number of worker processes
+     * @param maxAttempts int number of workers that may be launched for a partition before the run fails
+     */
+    public ChainCoordinator(ChainRunner runner, int workers, int maxAttempts) {
+        if (workers < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one worker and one attempt are needed");
+        }
+        this.runner = runner;
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Sets the options of the worker JVMs, e.g. -Xmx2g
+     * @param jvmOptions List
+     */
+    public void setJvmOptions(List<String> jvmOptions) {
+        this.jvmOptions.clear();
+        this.jvmOptions.addAll(jvmOptions);
+    }
+
+    /**
+     * Sets the main class of the worker processes, which has to take the port of the coordinator as its argument
+     * @param workerClass String
+     */
+    void setWorkerClass(String workerClass) {
+        this.workerClass = workerClass;
+    }
+
+    /**
+     * Simulates all XML datasets of a directory, see ChainRunner.listStores
+     * @param directory Path
+     * @return result ChainResult with the stores in order of file name
+     * @throws IOException
+     */
+    public ChainResult run(Path directory) throws IOException {
+        return this.run(this.runner.listStores(directory));
+    }
+
+    /**
+     * Simulates the stores of the given datasets in worker processes
+     * @param storeFiles List
+     * @return result ChainResult with the stores in order of the datasets
+     * @throws IOException
+     */
+    public ChainResult run(List<Path> storeFiles) throws IOException {
+        long[] sizes = new long[storeFiles.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = Files.size(storeFiles.get(i));
+            this.runner.loadProducts(storeFiles.get(i));
+        }
+        StoreResult[] results = new StoreResult[storeFiles.size()];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (List<Integer> partition : partition(sizes, this.workers)) {
+            tasks.add(() -> runPartition(storeFiles, partition, results));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, tasks.size()));
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+            return new ChainResult(this.runner.getCatalog(), List.of(results));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Chain simulation has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Chain simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Divides the stores into at most the given number of partitions with about the same total size,
+     * by assigning the largest remaining store to the smallest partition
+     * @param sizes long[] size of every store
+     * @param partitions int
+     * @return partitions List of store indices, largest store first
+     */
+    static List<List<Integer>> partition(long[] sizes, int partitions) {
+        List<Integer> order = new ArrayList<>(sizes.length);
+        for (int i = 0; i < sizes.length; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingLong((Integer i) -> sizes[i]).reversed());
+
+        List<List<Integer>> result = new ArrayList<>();
+        long[] totals = new long[Math.min(partitions, sizes.length)];
+        for (int i = 0; i < totals.length; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (int store : order) {
+            int smallest = 0;
+            for (int p = 1; p < totals.length; p++) {
+                if (totals[p] < totals[smallest]) {
+                    smallest = p;
+                }
+            }
+            result.get(smallest).add(store);
+            totals[smallest] += sizes[store];
+        }
+        return result;
+    }
+
+    private Void runPartition(List<Path> storeFiles, List<Integer> partition, StoreResult[] results)
+            throws IOException, InterruptedException {
+        Deque<Integer> remaining = new ArrayDeque<>(partition);
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            try {
+                runWorker(storeFiles, remaining, results);
+            } catch (IOException ex) {
+                if (attempt >= this.maxAttempts) {
+                    throw new IOException("Chain worker failed " + attempt + " times, giving up on "
+                            + remaining.size() + " stores", ex);
+                }
+                SLF4J.LOGGER.warn("Chain worker failed on " + storeFiles.get(remaining.peek()).getFileName()
+                        + ", retrying " + remaining.size() + " stores - " + ex);
+                this.retries.incrementAndGet();
+                WORKER_RETRIES.increment();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Launches a worker and hands it the remaining stores, stores are removed once their result has been received
+     */
+    private void runWorker(List<Path> storeFiles, Deque<Integer> remaining, StoreResult[] results)
+            throws IOException, InterruptedException {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Process process = this.launch(server.getLocalPort());
+            boolean stopped = false;
+            try (ChainProtocol protocol = new ChainProtocol(accept(server, process))) {
+                protocol.receiveHello();
+                while (!remaining.isEmpty()) {
+                    Path storeFile = storeFiles.get(remaining.peek());
+                    protocol.sendTask(storeFile, this.runner.getScenario(storeFile.getFileName().toString()));
+                    results[remaining.peek()] = protocol.receiveResult(this.runner.getCatalog());
+                    remaining.poll();
+                }
+                protocol.sendStop();
+                stopped = true;
+            } finally {
+                if (!stopped || !process.waitFor(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+    }
+
+    private Process launch(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(this.jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(this.workerClass);
+        command.add(String.valueOf(port));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /**
+     * Waits for a launched worker to connect, giving up when the worker exits first
+     */
+    private static Socket accept(ServerSocket server, Process process) throws IOException {
+        server.setSoTimeout(POLL_INTERVAL);
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+        while (true) {
+            try {
+                return server.accept();
+            } catch (SocketTimeoutException ex) {
+                if (!process.isAlive()) {
+                    throw new IOException("Chain worker exited with code " + process.exitValue() + " before connecting");
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Chain worker did not connect within " + CONNECT_TIMEOUT + " ms");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of workers that were replaced after a crash
+     */
+    public int getRetries() {
+        return this.retries.get();
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+}
@@ -0,0 +1,233 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary protocol between the coordinator and a worker process of a chain simulation, over a local socket.
+ *
+ * The worker connects to the coordinator and sends a magic number and version. Next the coordinator sends
+ * one message at a time, and the worker answers every task before the next message is sent:
+ *  - TASK: path of the store dataset, number of FIFO cashiers, priority cashiers and max priority items
+ *  - STOP: the worker closes the connection
+ *  - RESULT: the products that are new to the connection (code, optional description, price), the store name,
+ *    the number of customers, the statistics of every cashier and the zip code aggregation
+ *  - FAILURE: the error message of a task that could not be simulated
+ * The aggregation refers to products by their id in the catalog of the worker, the coordinator maps these ids
+ * onto its own catalog. Strings are written as modified UTF-8, all numbers are big-endian.
+ */
+public class ChainProtocol implements Closeable {
+    private static final int MAGIC = 0x534d4331;    // "SMC1"
+    private static final int VERSION = 1;
+    private static final byte TASK = 1;
+    private static final byte STOP = 2;
+    private static final byte RESULT = 3;
+    private static final byte FAILURE = 4;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private int sentProducts;                   // number of products of the worker catalog sent so far
+    private int[] productIds = new int[16];     // id in the coordinator catalog by id in the worker catalog
+    private int receivedProducts;
+
+    public ChainProtocol(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+    }
+
+    /**
+     * Identifies the worker to the coordinator
+     * @throws IOException
+     */
+    public void sendHello() throws IOException {
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        this.out.flush();
+    }
+
+    /**
+     * Checks that the other side is a worker of the same version
+     * @throws IOException if the other side does not speak this protocol
+     */
+    public void receiveHello() throws IOException {
+        if (this.in.readInt() != MAGIC) {
+            throw new IOException("Connection is not a chain worker");
+        }
+        int version = this.in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Chain worker speaks version " + version + ", not " + VERSION);
+        }
+    }
+
+    /**
+     * @param storeFile Path of the dataset of the store
+     * @param scenario CashierScenario the cashiers of the store
+     * @throws IOException
+     */
+    public void sendTask(Path storeFile, CashierScenario scenario) throws IOException {
+        this.out.writeByte(TASK);
+        this.out.writeUTF(storeFile.toAbsolutePath().toString());
+        this.out.writeInt(scenario.getFifoCashiers());
+        this.out.writeInt(scenario.getPriorityCashiers());
+        this.out.writeInt(scenario.getMaxNumPriorityItems());
+        this.out.flush();
+    }
+
+    public void sendStop() throws IOException {
+        this.out.writeByte(STOP);
+        this.out.flush();
+    }
+
+    /**
+     * Waits for the next task
+     * @return task Task, or null when the worker has to stop
+     * @throws IOException
+     */
+    public Task receiveTask() throws IOException {
+        byte type = this.in.readByte();
+        if (type == STOP) {
+            return null;
+        }
+        expect(TASK, type);
+        Path storeFile = Paths.get(this.in.readUTF());
+        return new Task(storeFile, new CashierScenario(this.in.readInt(), this.in.readInt(), this.in.readInt()));
+    }
+
+    /**
+     * Sends the result of a task, including the products of the catalog that have not been sent before
+     * @param result StoreResult
+     * @param catalog ProductCatalog of the worker, which holds all products of the aggregation of the result
+     * @throws IOException
+     */
+    public void sendResult(StoreResult result, ProductCatalog catalog) throws IOException {
+        this.out.writeByte(RESULT);
+        int products = catalog.getIdCount();
+        this.out.writeInt(products - this.sentProducts);
+        for (int id = this.sentProducts; id < products; id++) {
+            Product product = catalog.get(id);
+            this.out.writeUTF(product.getCode());
+            writeNullable(this.out, product.getDescription());
+            this.out.writeDouble(product.getPrice());
+        }
+        this.sentProducts = products;
+
+        this.out.writeUTF(result.getName());
+        this.out.writeInt(result.getNumberOfCustomers());
+        CashierScenario scenario = result.getScenario();
+        this.out.writeInt(scenario.getFifoCashiers());
+        this.out.writeInt(scenario.getPriorityCashiers());
+        this.out.writeInt(scenario.getMaxNumPriorityItems());
+        this.out.writeInt(result.getCashiers().size());
+        for (CashierStatistics cashier : result.getCashiers()) {
+            cashier.writeTo(this.out);
+        }
+        result.getAggregation().writeTo(this.out);
+        this.out.flush();
+    }
+
+    /**
+     * @param message String error message of the task
+     * @throws IOException
+     */
+    public void sendFailure(String message) throws IOException {
+        this.out.writeByte(FAILURE);
+        this.out.writeUTF(String.valueOf(message));
+        this.out.flush();
+    }
+
+    /**
+     * Waits for the result of a task
+     * @param catalog ProductCatalog of the coordinator, which receives the products of the worker that are new to it
+     * @return result StoreResult with an aggregation over the given catalog
+     * @throws IOException if the connection fails, e.g. because the worker has crashed
+     * @throws IllegalStateException if the worker could not simulate the store
+     */
+    public StoreResult receiveResult(ProductCatalog catalog) throws IOException {
+        byte type = this.in.readByte();
+        if (type == FAILURE) {
+            throw new IllegalStateException("Chain worker failed: " + this.in.readUTF());
+        }
+        expect(RESULT, type);
+        int products = this.in.readInt();
+        if (this.receivedProducts + products > this.productIds.length) {
+            this.productIds = Arrays.copyOf(this.productIds,
+                    Math.max(2 * this.productIds.length, this.receivedProducts + products));
+        }
+        for (int i = 0; i < products; i++) {
+            String code = catalog.intern(this.in.readUTF());
+            String description = catalog.intern(readNullable(this.in));
+            this.productIds[this.receivedProducts++] = catalog.register(new Product(code, description, this.in.readDouble()));
+        }
+
+        String name = this.in.readUTF();
+        int numberOfCustomers = this.in.readInt();
+        CashierScenario scenario = new CashierScenario(this.in.readInt(), this.in.readInt(), this.in.readInt());
+        int cashiers = this.in.readInt();
+        List<CashierStatistics> statistics = new ArrayList<>(cashiers);
+        for (int i = 0; i < cashiers; i++) {
+            statistics.add(CashierStatistics.readFrom(this.in));
+        }
+        ZipCodeAggregation aggregation = ZipCodeAggregation.readFrom(this.in, catalog,
+                Arrays.copyOf(this.productIds, this.receivedProducts));
+        return new StoreResult(name, numberOfCustomers, scenario, statistics, aggregation);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void expect(byte expected, byte type) throws IOException {
+        if (type != expected) {
+            throw new IOException("Unexpected chain message " + type + ", expected " + expected);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.socket.close();
+    }
+
+    /**
+     * A store that a worker has to simulate
+     */
+    public static class Task {
+        private final Path storeFile;
+        private final CashierScenario scenario;
+
+        public Task(Path storeFile, CashierScenario scenario) {
+            this.storeFile = storeFile;
+            this.scenario = scenario;
+        }
+
+        public Path getStoreFile() {
+            return storeFile;
+        }
+
+        public CashierScenario getScenario() {
+            return scenario;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of all stores of a chain, with reports that combine the stores.
+ */
+public class ChainResult {
+    private final ProductCatalog catalog;       // the product catalog shared by all stores
+    private final List<StoreResult> stores;     // results in the order of the store datasets
+
+    public ChainResult(ProductCatalog catalog, List<StoreResult> stores) {
+        this.catalog = catalog;
+        this.stores = stores;
+    }
+
+    /**
+     * Merges the zip code aggregations of all stores
+     * @return aggregation ZipCodeAggregation
+     */
+    public ZipCodeAggregation aggregateByZipCode() {
+        ZipCodeAggregation aggregation = new ZipCodeAggregation(this.catalog);
+        for (StoreResult store : this.stores) {
+            aggregation.merge(store.getAggregation());
+        }
+        return aggregation;
+    }
+
+    /**
+     * calculates the revenue per zip code over all stores, ordered by zip code
+     * @return revenues Map
+     */
+    public Map<String, Double> revenueByZipCode() {
+        return this.aggregateByZipCode().revenueByZipCode();
+    }
+
+    /**
+     * Returns the stores ordered by the highest waiting time of their customers, worst first
+     * @return stores List
+     */
+    public List<StoreResult> getStoresByMaxWaitingTime() {
+        List<StoreResult> ordered = new ArrayList<>(this.stores);
+        ordered.sort(Comparator.comparingInt(StoreResult::getMaxWaitingTime).reversed());
+        return ordered;
+    }
+
+    public int getTotalCustomers() {
+        int totalCustomers = 0;
+        for (StoreResult store : this.stores) {
+            totalCustomers += store.getNumberOfCustomers();
+        }
+        return totalCustomers;
+    }
+
+    /**
+     * reports the waiting times per store, worst first, and the revenue per zip code of the chain
+     */
+    public void printReport() {
+        System.out.printf("\nChain of %d stores with %d customers\n", this.stores.size(), this.getTotalCustomers());
+        System.out.print("Store: \t\t\tcashiers: \t\tn-customers: \tavg-wait-time: \tmax-wait-time: \tworst-waits:\n");
+        System.out.print("-------------------------------------------------------------------------------------------------------------------\n");
+        for (StoreResult store : this.getStoresByMaxWaitingTime()) {
+            System.out.printf("%s\t\t%s\t\t %d\t\t\t %.2f\t\t\t %d\t\t\t %s\n",
+                    store.getName(), store.getScenario(), store.getNumberOfCustomers(),
+                    store.getAverageWaitingTime(), store.getMaxWaitingTime(), store.getWorstWaitingTimes());
+        }
+
+        System.out.print("\nRevenues per zip-code over all stores:\n");
+        for (Map.Entry<String, Double> entry : this.revenueByZipCode().entrySet()) {
+            System.out.printf("%s: %.2f\n", entry.getKey(), entry.getValue());
+        }
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public List<StoreResult> getStores() {
+        return stores;
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import utils.SLF4J;
+import utils.XMLParser;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulates the stores of a chain concurrently, every store from its own XML dataset.
+ *
+ * Stores are sharded over a work-stealing pool, the largest datasets are submitted first
+ * such that small stores fill up the threads at the end of the run.
+ * The products of all stores are loaded into one chain catalog before the stores are submitted,
+ * a product that another store sells at a different price is reported and keeps its first price in the chain.
+ * Every store is imported against the chain catalog, which already holds all its products and is only read
+ * while the stores are simulated, so the stores share a single copy of every product and sell at the chain price.
+ * A store keeps its customers and cashiers only while it is simulated,
+ * its result holds the cashier statistics and the zip code aggregation.
+ */
+public class ChainRunner {
+    // optional file in the directory of the datasets, with a line <dataset file name>=fifo,prio,maxPrioItems per store
+    public static final String SCENARIOS_FILE = "cashiers.properties";
+
+    private final ProductCatalog catalog;                   // products of all stores
+    private final CashierScenario defaultScenario;          // cashiers of stores without their own scenario
+    private final Map<String, CashierScenario> scenarios;   // cashiers by name of the store dataset
+    private final int threads;                              // number of stores that are simulated at the same time
+
+    /**
+     * Creates a runner using one thread per available processor
+     * @param defaultScenario CashierScenario of the stores without their own scenario
+     */
+    public ChainRunner(CashierScenario defaultScenario) {
+        this(new ProductCatalog(), defaultScenario, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param catalog ProductCatalog of all stores, which may already hold the products of the chain
+     * @param defaultScenario CashierScenario of the stores without their own scenario
+     * @param threads int
+     */
+    public ChainRunner(ProductCatalog catalog, CashierScenario defaultScenario, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+        }
+        this.catalog = catalog;
+        this.defaultScenario = defaultScenario;
+        this.scenarios = new HashMap<>();
+        this.threads = threads;
+    }
+
+    /**
+     * Configures the cashiers of a store
+     * @param store String file name of the dataset of the store
+     * @param scenario CashierScenario
+     */
+    public void setScenario(String store, CashierScenario scenario) {
+        this.scenarios.put(store, scenario);
+    }
+
+    /**
+     * Reads the cashiers of the stores from a properties file, see SCENARIOS_FILE
+     * @param file Path
+     * @throws IOException
+     */
+    public void readScenarios(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        for (String store : properties.stringPropertyNames()) {
+            this.setScenario(store, CashierScenario.parse(properties.getProperty(store)));
+        }
+    }
+
+    /**
+     * Simulates all XML datasets of a directory, and the cashiers of its scenarios file if it has one
+     * @param directory Path
+     * @return result ChainResult with the stores in order of file name
+     * @throws IOException
+     */
+    public ChainResult run(Path directory) throws IOException {
+        return this.run(this.listStores(directory));
+    }
+
+    /**
+     * Lists the XML datasets of a directory in order of file name, and reads its scenarios file if it has one
+     * @param directory Path
+     * @return storeFiles List
+     * @throws IOException
+     */
+    public List<Path> listStores(Path directory) throws IOException {
+        Path scenariosFile = directory.resolve(SCENARIOS_FILE);
+        if (Files.exists(scenariosFile)) {
+            this.readScenarios(scenariosFile);
+        }
+        List<Path> storeFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.xml")) {
+            for (Path file : files) {
+                storeFiles.add(file);
+            }
+        }
+        storeFiles.sort(Comparator.comparing(Path::getFileName));
+        return storeFiles;
+    }
+
+    /**
+     * Simulates the stores of the given datasets
+     * @param storeFiles List
+     * @return result ChainResult with the stores in order of the datasets
+     * @throws IOException
+     */
+    public ChainResult run(List<Path> storeFiles) throws IOException {
+        // submit the largest stores first
+        List<Integer> order = new ArrayList<>(storeFiles.size());
+        long[] sizes = new long[storeFiles.size()];
+        for (int i = 0; i < storeFiles.size(); i++) {
+            order.add(i);
+            sizes[i] = Files.size(storeFiles.get(i));
+            this.loadProducts(storeFiles.get(i));
+        }
+        order.sort(Comparator.comparingLong((Integer i) -> sizes[i]).reversed());
+
+        List<Callable<StoreResult>> tasks = new ArrayList<>(order.size());
+        for (int i : order) {
+            Path storeFile = storeFiles.get(i);
+            tasks.add(() -> simulateStore(storeFile, this.getScenario(storeFile.getFileName().toString())));
+        }
+
+        ExecutorService executor = Executors.newWorkStealingPool(Math.min(this.threads, Math.max(1, tasks.size())));
+        try {
+            StoreResult[] results = new StoreResult[storeFiles.size()];
+            List<Future<StoreResult>> futures = executor.invokeAll(tasks);
+            for (int t = 0; t < futures.size(); t++) {
+                results[order.get(t)] = futures.get(t).get();
+            }
+            return new ChainResult(this.catalog, List.of(results));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Chain simulation has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Chain simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Imports, simulates and aggregates a single store on the calling thread
+     * @param storeFile Path of the XML dataset of the store
+     * @return result StoreResult
+     * @throws IOException if the dataset cannot be read
+     */
+    public StoreResult simulate(Path storeFile) throws IOException {
+        return this.simulate(storeFile, this.getScenario(storeFile.getFileName().toString()));
+    }
+
+    /**
+     * Imports, simulates and aggregates a single store with the given cashiers on the calling thread,
+     * after loading its products into the chain catalog
+     * @param storeFile Path of the XML dataset of the store
+     * @param scenario CashierScenario
+     * @return result StoreResult
+     * @throws IOException if the dataset cannot be read
+     */
+    public StoreResult simulate(Path storeFile, CashierScenario scenario) throws IOException {
+        this.loadProducts(storeFile);
+        return this.simulateStore(storeFile, scenario);
+    }
+
+    /**
+     * Adds the products of a store that are not in the chain catalog yet.
+     * A product that the chain already holds with another price is reported and keeps the price of the chain.
+     * @param storeFile Path of the XML dataset of the store
+     * @throws IOException if the products cannot be read
+     */
+    public void loadProducts(Path storeFile) throws IOException {
+        Set<Product> products = new LinkedHashSet<>();
+        try (InputStream input = Files.newInputStream(storeFile)) {
+            XMLParser xmlParser = new XMLParser(input);
+            xmlParser.nextTag();
+            xmlParser.require(XMLStreamConstants.START_ELEMENT, null, "supermarket");
+            xmlParser.nextTag();
+            Product.importProductsFromXML(xmlParser, products);
+        } catch (XMLStreamException ex) {
+            throw new IOException("Cannot read the products of store '" + storeFile + "'", ex);
+        }
+
+        for (Product product : products) {
+            Product known = this.catalog.get(product.getCode());
+            if (known == null) {
+                this.catalog.add(product);
+            } else if (known.getPrice() != product.getPrice()) {
+                SLF4J.LOGGER.warn("Product " + product.getCode() + " costs " + product.getPrice() + " in store '"
+                        + storeFile.getFileName() + "' instead of " + known.getPrice() + " in the chain");
+            }
+        }
+    }
+
+    /**
+     * Imports, simulates and aggregates a single store whose products have been loaded into the chain catalog
+     */
+    private StoreResult simulateStore(Path storeFile, CashierScenario scenario) throws IOException {
+        String name = storeFile.getFileName().toString();
+        Supermarket supermarket;
+        try (InputStream input = Files.newInputStream(storeFile)) {
+            supermarket = Supermarket.importFromXML(new XMLParser(input), name, this.catalog);
+        }
+        if (supermarket == null) {
+            throw new IOException("Cannot import store '" + storeFile + "'");
+        }
+
+        // the stores already keep all threads busy
+        supermarket.setParallelAnalytics(false);
+        List<Cashier> cashiers = scenario.createCashiers(Cashier.HistoryRetention.OFF);
+        supermarket.simulateCashiers(cashiers);
+        List<CashierStatistics> statistics = new ArrayList<>(cashiers.size());
+        for (Cashier c : cashiers) {
+            statistics.add(CashierStatistics.of(c));
+        }
+        return new StoreResult(name, supermarket.getCustomers().size(), scenario, statistics,
+                supermarket.aggregateByZipCode());
+    }
+
+    /**
+     * @param store String file name of the dataset of the store
+     * @return scenario CashierScenario of the store, or the default scenario
+     */
+    public CashierScenario getScenario(String store) {
+        return this.scenarios.getOrDefault(store, this.defaultScenario);
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,34 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+public class ChainWorker {
+    public static void main(String[] args) throws IOException {
+        // ChainWorker <port>, launched by a ChainCoordinator that listens on the loopback port
+        serve(Integer.parseInt(args[0]));
+    }
+
+    /**
+     * Connects to a coordinator and simulates the stores it sends until it sends a stop,
+     * all stores of the worker share one product catalog
+     * @param port int loopback port of the coordinator
+     * @throws IOException when the connection fails
+     */
+    public static void serve(int port) throws IOException {
+        ChainRunner runner = new ChainRunner(new ProductCatalog(), new CashierScenario(1, 0, 5), 1);
+        try (ChainProtocol protocol = new ChainProtocol(new Socket(InetAddress.getLoopbackAddress(), port))) {
+            protocol.sendHello();
+            ChainProtocol.Task task;
+            while ((task = protocol.receiveTask()) != null) {
+                StoreResult result;
+                try {
+                    result = runner.simulate(task.getStoreFile(), task.getScenario());
+                } catch (IOException | RuntimeException ex) {
+                    protocol.sendFailure(task.getStoreFile().getFileName() + ": " + ex.getMessage());
+                    continue;
+                }
+                protocol.sendResult(result, runner.getCatalog());
+            }
+        }
+    }
+}
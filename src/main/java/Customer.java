@@ -15,12 +15,26 @@ import java.util.*;
 public class Customer {
     private LocalTime queuedAt;      //time of arrival at cashier
     private String zipCode;          //zip-code of the customer
-    private Set<Purchase> items;     //items procured by customer
+    private PurchaseSet items;       //items procured by customer
+    private final CustomerTable table;  //table holding the data of this customer, null for a standalone customer
+    private final int row;              //row of this customer in the table
 
     public Customer(LocalTime queuedAt, String zipCode) {
         this.queuedAt = queuedAt;
         this.zipCode = zipCode;
-        this.items = new HashSet<>();
+        this.items = new PurchaseSet();
+        this.table = null;
+        this.row = -1;
+    }
+
+    /**
+     * Creates a view on a row of a customer table
+     * @param table CustomerTable
+     * @param row int
+     */
+    Customer(CustomerTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     /**
@@ -28,6 +42,9 @@ public class Customer {
      * @return numItems int
      */
     public int getNumberOfItems() {
+        if (this.table != null) {
+            return this.table.getItemCount(this.row);
+        }
         int numItems = 0;
         for (Purchase s : this.items) {
             numItems += s.getAmount();
@@ -40,8 +57,11 @@ public class Customer {
      * @return totalBill double
      */
     public double calculateTotalCost() {
+        if (this.table != null) {
+            return this.table.getTotalCost(this.row);
+        }
         double totalBill = 0.0;
-        for (Purchase p : this.getItems()) {
+        for (Purchase p : this.items) {
             totalBill += p.getProduct().getPrice() * p.getAmount();
         }
         return totalBill;
@@ -59,6 +79,8 @@ public class Customer {
         Cashier selectedCashier = null;
         int selfCheckoutTime = 20 + (this.getNumberOfItems() * 2);
         int currentWaitingTime = 0;
+        RoutingDecisionEvent event = new RoutingDecisionEvent();
+        StringBuilder candidateWaits = event.isEnabled() ? new StringBuilder() : null;
 
         if (cashiers.size() == 1) {
             selectedCashier = cashiers.get(0);
@@ -69,23 +91,87 @@ public class Customer {
                     currentWaitingTime = newWaitingTime;
                     selectedCashier = cashier;
                 }
+                if (candidateWaits != null) {
+                    candidateWaits.append(candidateWaits.length() > 0 ? " " : "")
+                            .append(cashier.getName()).append('=').append(newWaitingTime);
+                }
             }
         }
+
+        if (candidateWaits != null && selectedCashier != null) {
+            event.simulatedTime = String.valueOf(this.getQueuedAt());
+            event.cashier = selectedCashier.getName();
+            event.candidateWaits = candidateWaits.toString();
+            event.passThroughTime = currentWaitingTime;
+            event.numberOfItems = this.getNumberOfItems();
+            event.commit();
+        }
         return selectedCashier;
     }
 
     public LocalTime getQueuedAt() {
+        if (this.queuedAt == null && this.table != null) {
+            this.queuedAt = this.table.getQueuedAt(this.row);
+        }
         return queuedAt;
     }
 
     public String getZipCode() {
+        if (this.zipCode == null && this.table != null) {
+            this.zipCode = this.table.getZipCode(this.row);
+        }
         return zipCode;
     }
 
     public Set<Purchase> getItems() {
+        if (this.table != null) {
+            return this.table.getItems(this.row);
+        }
+        return items;
+    }
+
+    /**
+     * Returns the purchases of this customer without turning a table row into a modifiable set
+     * @return purchases Collection
+     */
+    public Collection<Purchase> getPurchases() {
+        if (this.table != null) {
+            return this.table.getPurchases(this.row);
+        }
         return items;
     }
 
+    /**
+     * Increments the given stamps whenever the items of this customer are modified
+     * @param stamps ModificationStamps of the list that holds this customer
+     */
+    void addItemsStamps(ModificationStamps stamps) {
+        if (this.table != null) {
+            this.table.addItemsStamps(stamps);
+        } else {
+            this.items.addStamps(stamps);
+        }
+    }
+
+    /**
+     * Returns a standalone copy of this customer with the same purchases that queues at the given time
+     * @param queuedAt LocalTime
+     * @return customer Customer
+     */
+    Customer queuedAt(LocalTime queuedAt) {
+        Customer customer = new Customer(queuedAt, this.getZipCode());
+        customer.items.addAll(this.getPurchases());
+        return customer;
+    }
+
+    public CustomerTable getTable() {
+        return table;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
     /**
      * read a series of customers with their purchases from the xml stream
      * and add them to the provided customers list
@@ -147,21 +233,46 @@ public class Customer {
      */
     public void exportToXML(XMLStreamWriter xmlWriter) throws XMLStreamException {
         xmlWriter.writeStartElement("customer");
-        xmlWriter.writeAttribute("queuedAt", this.queuedAt.toString().concat(":00").substring(0, 8));
-        xmlWriter.writeAttribute("zipCode", this.zipCode);
-        if (this.items != null) {
-            for (Purchase pu : this.items) {
+        xmlWriter.writeAttribute("queuedAt", this.getQueuedAt().toString().concat(":00").substring(0, 8));
+        xmlWriter.writeAttribute("zipCode", this.getZipCode());
+        if (this.getPurchases() != null) {
+            for (Purchase pu : this.getPurchases()) {
                 pu.exportToXML(xmlWriter);
             }
         }
         xmlWriter.writeEndElement();
     }
 
+    /**
+     * Views on the same row of the same table designate the same customer
+     * @param obj Object
+     * @return boolean
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (this.table == null || !(obj instanceof Customer)) {
+            return false;
+        }
+        Customer customer = (Customer) obj;
+        return (customer.table == this.table && customer.row == this.row);
+    }
+
+    @Override
+    public int hashCode() {
+        if (this.table == null) {
+            return super.hashCode();
+        }
+        return 31 * System.identityHashCode(this.table) + this.row;
+    }
+
     @Override
     public String toString() {
         LocalTime localTime = LocalTime.now();
         DateTimeFormatter timeFormatter1 = DateTimeFormatter.ofPattern("HH:mm:ss");
-        return this.queuedAt.format(timeFormatter1) + " items: " + this.getNumberOfItems();
+        return this.getQueuedAt().format(timeFormatter1) + " items: " + this.getNumberOfItems();
     }
 
 }
@@ -0,0 +1,35 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a customer that arrives at the cashiers and joins the queue of the selected cashier.
+ * The duration of the event covers the routing of the customer.
+ */
+@Name("supermarket.CustomerArrival")
+@Label("Customer Arrival")
+@Category({"Supermarket", "Simulation"})
+@Description("A customer arrives and joins the queue of a cashier")
+@StackTrace(false)
+public class CustomerArrivalEvent extends Event {
+    @Label("Simulated Time")
+    String simulatedTime;
+
+    @Label("Cashier")
+    String cashier;
+
+    @Label("Zip Code")
+    String zipCode;
+
+    @Label("Number of Items")
+    int numberOfItems;
+}
@@ -0,0 +1,131 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The customers of a supermarket, which counts its modifications such that indexes and aggregates
+ * over the customers can tell whether they are still up to date.
+ *
+ * All modifications of an AbstractList pass through add, set and remove, including sorting,
+ * list iterators and bulk operations. Appending a customer is told apart from other modifications,
+ * such that aggregates can merge appended customers instead of starting over.
+ * A read-only list, e.g. of a memory-mapped customer store, refuses every modification.
+ *
+ * The items of the customers that are added to the list share the modification stamps of the list,
+ * such that a single version tells whether the items of any of its customers have been modified.
+ * The rows of a customer table report modifications of their items to the table instead, see CustomerTable.
+ */
+public class CustomerList extends AbstractList<Customer> implements RandomAccess {
+    private final List<Customer> customers;     // the backing list
+    private final boolean readOnly;             // whether modifications are refused
+    private volatile int version;               // number of modifications
+    private volatile int lastRewrite;           // version of the last modification that was not an append
+    // number of modifications of items, incremented through the stamps that the items of added customers share
+    private final AtomicInteger itemsVersion = new AtomicInteger();
+    private final ModificationStamps itemsStamps = new ModificationStamps(this.itemsVersion);
+
+    /**
+     * @param customers List of customers that is only modified through this list
+     */
+    public CustomerList(List<Customer> customers) {
+        this(customers, false);
+    }
+
+    /**
+     * @param customers List of customers that is only modified through this list
+     * @param readOnly boolean whether modifications are refused
+     */
+    public CustomerList(List<Customer> customers, boolean readOnly) {
+        this.customers = customers;
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public Customer get(int index) {
+        return this.customers.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.customers.size();
+    }
+
+    @Override
+    public Customer set(int index, Customer customer) {
+        this.checkModifiable();
+        Customer previous = this.customers.set(index, customer);
+        customer.addItemsStamps(this.itemsStamps);
+        this.modified(false);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Customer customer) {
+        this.checkModifiable();
+        boolean append = index == this.customers.size();
+        if (append) {
+            this.customers.add(customer);
+        } else {
+            this.customers.add(index, customer);
+        }
+        customer.addItemsStamps(this.itemsStamps);
+        this.modCount++;
+        this.modified(append);
+    }
+
+    @Override
+    public Customer remove(int index) {
+        this.checkModifiable();
+        Customer removed = this.customers.remove(index);
+        this.modCount++;
+        this.modified(false);
+        return removed;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * @return version int number of modifications of the list
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return version int number of modifications of the items of the customers that have been added to the list
+     */
+    public int getItemsVersion() {
+        return this.itemsVersion.get();
+    }
+
+    /**
+     * Returns whether customers have only been appended since the given version
+     * @param version int
+     * @return boolean
+     */
+    public boolean isAppendedSince(int version) {
+        return this.lastRewrite <= version;
+    }
+
+    private void checkModifiable() {
+        if (this.readOnly) {
+            throw new UnsupportedOperationException("The customers of a read-only customer store cannot be modified");
+        }
+    }
+
+    private synchronized void modified(boolean append) {
+        this.version++;
+        if (!append) {
+            this.lastRewrite = this.version;
+        }
+    }
+}
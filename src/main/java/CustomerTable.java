@@ -0,0 +1,437 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Columnar (struct-of-arrays) storage of customers and their purchases.
+ *
+ * Every customer is a row. Arrival times are stored as seconds of the day, zip codes as ids into a dictionary
+ * and the number of items and total cost of every row are calculated once when the row is added.
+ * Purchases are stored as flat product-id and amount arrays, the purchases of row r are found
+ * between purchaseOffsets[r] and purchaseOffsets[r + 1].
+ *
+ * Customers obtained from the table are views on a row. When the items of a view are requested through
+ * getItems(), the purchases of that row are copied into a modifiable set which from then on is the
+ * source of truth for that row.
+ */
+public class CustomerTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;                   // number of customer rows
+    private int[] arrivalSeconds;       // arrival time of each customer as second of the day
+    private int[] zipIds;               // id of the zip-code of each customer
+    private int[] itemCounts;           // number of items bought by each customer
+    private double[] totalCosts;        // total cost of the purchases of each customer
+    private int[] purchaseOffsets;      // index of the first purchase of each customer, size + 1 entries
+
+    private int purchaseCount;          // number of purchases of all customers
+    private int[] purchaseProducts;     // product id of each purchase
+    private int[] purchaseAmounts;      // amount of each purchase
+
+    private final List<String> zipCodes;                // zip-code by id
+    private final Map<String, Integer> zipCodeIds;      // id by zip-code
+    private final ProductCatalog catalog;               // products and their ids
+
+    private final Map<Integer, PurchaseSet> detachedItems;   // rows whose items have been handed out as a set
+    // number of modifications of handed out items, incremented through the stamps that all handed out items share
+    private final AtomicInteger itemsVersion = new AtomicInteger();
+    private final ModificationStamps itemsStamps = new ModificationStamps(this.itemsVersion);
+
+    /**
+     * Creates an empty table using the ids of the product catalog,
+     * or assigning product ids to the given products in iteration order if they are not a catalog
+     * @param products Collection
+     */
+    public CustomerTable(Collection<Product> products) {
+        this.arrivalSeconds = new int[INITIAL_CAPACITY];
+        this.zipIds = new int[INITIAL_CAPACITY];
+        this.itemCounts = new int[INITIAL_CAPACITY];
+        this.totalCosts = new double[INITIAL_CAPACITY];
+        this.purchaseOffsets = new int[INITIAL_CAPACITY + 1];
+        this.purchaseProducts = new int[INITIAL_CAPACITY];
+        this.purchaseAmounts = new int[INITIAL_CAPACITY];
+
+        this.zipCodes = new ArrayList<>();
+        this.zipCodeIds = new HashMap<>();
+        this.catalog = ProductCatalog.of(products);
+        this.detachedItems = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a table from complete columns, e.g. as read from a snapshot.
+     * The arrays are used as the columns of the table and are not copied.
+     * @param catalog ProductCatalog that assigned the product ids
+     * @param zipCodes List zip-code by id
+     * @param size int number of rows
+     * @param arrivalSeconds int[] arrival second of each row
+     * @param zipIds int[] zip-code id of each row
+     * @param purchaseOffsets int[] size + 1 offsets of the purchases of each row
+     * @param purchaseProducts int[] product id of each purchase
+     * @param purchaseAmounts int[] amount of each purchase
+     */
+    CustomerTable(ProductCatalog catalog, List<String> zipCodes, int size, int[] arrivalSeconds, int[] zipIds,
+                  int[] purchaseOffsets, int[] purchaseProducts, int[] purchaseAmounts) {
+        this.catalog = catalog;
+        this.zipCodes = new ArrayList<>(zipCodes);
+        this.zipCodeIds = new HashMap<>();
+        for (int zipId = 0; zipId < this.zipCodes.size(); zipId++) {
+            this.zipCodeIds.put(this.zipCodes.get(zipId), zipId);
+        }
+        this.detachedItems = new ConcurrentHashMap<>();
+
+        this.size = size;
+        this.arrivalSeconds = arrivalSeconds;
+        this.zipIds = zipIds;
+        this.purchaseOffsets = purchaseOffsets;
+        this.purchaseCount = purchaseOffsets[size];
+        this.purchaseProducts = purchaseProducts;
+        this.purchaseAmounts = purchaseAmounts;
+
+        // derive the item counts and total costs of the rows
+        this.itemCounts = new int[Math.max(size, 1)];
+        this.totalCosts = new double[Math.max(size, 1)];
+        for (int row = 0; row < size; row++) {
+            int numItems = 0;
+            double totalCost = 0.0;
+            for (int i = purchaseOffsets[row]; i < purchaseOffsets[row + 1]; i++) {
+                numItems += purchaseAmounts[i];
+                totalCost += catalog.getPrice(purchaseProducts[i]) * purchaseAmounts[i];
+            }
+            this.itemCounts[row] = numItems;
+            this.totalCosts[row] = totalCost;
+        }
+    }
+
+    /**
+     * Creates a table holding a copy of the given customers
+     * @param customers List
+     * @param products Collection
+     * @return table CustomerTable
+     */
+    public static CustomerTable of(List<Customer> customers, Collection<Product> products) {
+        CustomerTable table = new CustomerTable(products);
+        for (Customer c : customers) {
+            table.add(c);
+        }
+        return table;
+    }
+
+    /**
+     * Appends a copy of the customer and its purchases as a new row
+     * @param customer Customer
+     * @return row int
+     */
+    public int add(Customer customer) {
+        return add(customer.getQueuedAt().toSecondOfDay(), customer.getZipCode(), customer.getPurchases());
+    }
+
+    /**
+     * Appends a new customer row
+     * @param arrivalSecond int second of the day at which the customer queues
+     * @param zipCode String
+     * @param purchases Collection
+     * @return row int
+     */
+    public int add(int arrivalSecond, String zipCode, Collection<Purchase> purchases) {
+        ensureCapacity(this.size + 1, this.purchaseCount + purchases.size());
+        int row = this.size;
+
+        int numItems = 0;
+        double totalCost = 0.0;
+        for (Purchase p : purchases) {
+            this.purchaseProducts[this.purchaseCount] = productId(p.getProduct());
+            this.purchaseAmounts[this.purchaseCount] = p.getAmount();
+            this.purchaseCount++;
+            numItems += p.getAmount();
+            totalCost += p.getProduct().getPrice() * p.getAmount();
+        }
+
+        this.arrivalSeconds[row] = arrivalSecond;
+        this.zipIds[row] = zipCodeId(zipCode);
+        this.itemCounts[row] = numItems;
+        this.totalCosts[row] = totalCost;
+        this.purchaseOffsets[row + 1] = this.purchaseCount;
+        this.size++;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a customer view on the given row
+     * @param row int
+     * @return customer Customer
+     */
+    public Customer getCustomer(int row) {
+        return new Customer(this, row);
+    }
+
+    /**
+     * Returns a list of customer views on all rows.
+     * Customers that are added to the list are copied into a new row.
+     * @return customers List
+     */
+    public List<Customer> asList() {
+        return new AbstractList<Customer>() {
+            @Override
+            public Customer get(int index) {
+                if (index < 0 || index >= CustomerTable.this.size()) {
+                    throw new IndexOutOfBoundsException("Row " + index + " of " + CustomerTable.this.size());
+                }
+                return getCustomer(index);
+            }
+
+            @Override
+            public int size() {
+                return CustomerTable.this.size();
+            }
+
+            @Override
+            public boolean add(Customer customer) {
+                CustomerTable.this.add(customer);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns whether rows can be added to this table
+     * @return readOnly boolean
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /**
+     * Returns whether the rows are in order of arrival, such that they can be streamed into a simulation
+     * @return sorted boolean
+     */
+    public boolean isSortedByArrival() {
+        for (int row = 1; row < this.size(); row++) {
+            if (this.getArrivalSecond(row) < this.getArrivalSecond(row - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getArrivalSecond(int row) {
+        return this.arrivalSeconds[row];
+    }
+
+    public LocalTime getQueuedAt(int row) {
+        return LocalTime.ofSecondOfDay(this.arrivalSeconds[row]);
+    }
+
+    public int getZipCodeId(int row) {
+        return this.zipIds[row];
+    }
+
+    public String getZipCode(int row) {
+        return this.zipCodes.get(this.zipIds[row]);
+    }
+
+    /**
+     * Returns the number of items of the customer in the given row
+     * @param row int
+     * @return numItems int
+     */
+    public int getItemCount(int row) {
+        Set<Purchase> items = detachedItems(row);
+        if (items == null) {
+            return this.itemCounts[row];
+        }
+        int numItems = 0;
+        for (Purchase p : items) {
+            numItems += p.getAmount();
+        }
+        return numItems;
+    }
+
+    /**
+     * Returns the total cost of the purchases of the customer in the given row
+     * @param row int
+     * @return totalCost double
+     */
+    public double getTotalCost(int row) {
+        Set<Purchase> items = detachedItems(row);
+        if (items == null) {
+            return this.totalCosts[row];
+        }
+        double totalCost = 0.0;
+        for (Purchase p : items) {
+            totalCost += p.getProduct().getPrice() * p.getAmount();
+        }
+        return totalCost;
+    }
+
+    /**
+     * Returns the modifiable set of purchases of the customer in the given row.
+     * The first call copies the purchases of the row into the set, after which the set is used for this row.
+     * Simulations that read the table concurrently may hand out the items of a row at the same time.
+     * @param row int
+     * @return items Set
+     */
+    public Set<Purchase> getItems(int row) {
+        Set<Purchase> items = detachedItems(row);
+        if (items == null) {
+            items = this.detachedItems.computeIfAbsent(row, r -> {
+                PurchaseSet detached = new PurchaseSet(getPurchases(r));
+                detached.addStamps(this.itemsStamps);
+                return detached;
+            });
+        }
+        return items;
+    }
+
+    /**
+     * @return version int number of modifications of the items of the rows through getItems()
+     */
+    public int getItemsVersion() {
+        return this.itemsVersion.get();
+    }
+
+    /**
+     * Increments the given stamps as well whenever the items of a row are modified through getItems(),
+     * e.g. of another list that holds customers of this table
+     * @param stamps ModificationStamps
+     */
+    void addItemsStamps(ModificationStamps stamps) {
+        this.itemsStamps.add(stamps);
+    }
+
+    /**
+     * Returns the purchases of the customer in the given row without handing out a modifiable set
+     * @param row int
+     * @return purchases Collection
+     */
+    public Collection<Purchase> getPurchases(int row) {
+        Set<Purchase> items = detachedItems(row);
+        if (items != null) {
+            return items;
+        }
+        List<Purchase> purchases = new ArrayList<>(this.purchaseOffsets[row + 1] - this.purchaseOffsets[row]);
+        for (int i = this.purchaseOffsets[row]; i < this.purchaseOffsets[row + 1]; i++) {
+            purchases.add(new Purchase(this.catalog.get(this.purchaseProducts[i]), this.purchaseAmounts[i]));
+        }
+        return purchases;
+    }
+
+    /**
+     * Returns the items that have been handed out for a row, or null if the row still holds its own purchases
+     * @param row int
+     * @return items Set
+     */
+    Set<Purchase> detachedItems(int row) {
+        return this.detachedItems.isEmpty() ? null : this.detachedItems.get(row);
+    }
+
+    public int getPurchaseStart(int row) {
+        return this.purchaseOffsets[row];
+    }
+
+    public int getPurchaseEnd(int row) {
+        return this.purchaseOffsets[row + 1];
+    }
+
+    public int getPurchaseProductId(int purchase) {
+        return this.purchaseProducts[purchase];
+    }
+
+    public int getPurchaseAmount(int purchase) {
+        return this.purchaseAmounts[purchase];
+    }
+
+    /**
+     * Returns the number of purchases of all rows
+     * @return purchaseCount int
+     */
+    public int getPurchaseCount() {
+        return this.purchaseCount;
+    }
+
+    public int getNumberOfZipCodes() {
+        return this.zipCodes.size();
+    }
+
+    public String getZipCodeById(int zipId) {
+        return this.zipCodes.get(zipId);
+    }
+
+    public int getNumberOfProducts() {
+        return this.catalog.getIdCount();
+    }
+
+    public Product getProductById(int productId) {
+        return this.catalog.get(productId);
+    }
+
+    public double getPriceById(int productId) {
+        return this.catalog.getPrice(productId);
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Returns the id of a product, adding a product that has not been seen before to the catalog
+     * @param product Product
+     * @return productId int
+     */
+    public int productId(Product product) {
+        return this.catalog.register(product);
+    }
+
+    /**
+     * Returns the id of a zip-code, assigning a new id to a zip-code that has not been seen before
+     * @param zipCode String
+     * @return zipId int
+     */
+    public int zipCodeId(String zipCode) {
+        Integer id = this.zipCodeIds.get(zipCode);
+        if (id == null) {
+            id = this.zipCodes.size();
+            this.zipCodes.add(zipCode);
+            this.zipCodeIds.put(zipCode, id);
+        }
+        return id;
+    }
+
+    /**
+     * Grows the row and purchase columns such that they can hold the given number of rows and purchases
+     * @param rows int
+     * @param purchases int
+     */
+    private void ensureCapacity(int rows, int purchases) {
+        if (rows > this.arrivalSeconds.length) {
+            int capacity = Math.max(rows, 2 * this.arrivalSeconds.length);
+            this.arrivalSeconds = Arrays.copyOf(this.arrivalSeconds, capacity);
+            this.zipIds = Arrays.copyOf(this.zipIds, capacity);
+            this.itemCounts = Arrays.copyOf(this.itemCounts, capacity);
+            this.totalCosts = Arrays.copyOf(this.totalCosts, capacity);
+            this.purchaseOffsets = Arrays.copyOf(this.purchaseOffsets, capacity + 1);
+        }
+        if (purchases > this.purchaseProducts.length) {
+            int capacity = Math.max(purchases, 2 * this.purchaseProducts.length);
+            this.purchaseProducts = Arrays.copyOf(this.purchaseProducts, capacity);
+            this.purchaseAmounts = Arrays.copyOf(this.purchaseAmounts, capacity);
+        }
+    }
+}
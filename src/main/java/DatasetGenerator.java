@@ -0,0 +1,174 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates large random supermarket datasets straight into an XML file.
+ *
+ * The customers are divided into chunks of CHUNK_SIZE customers. Every chunk draws its customers from its own
+ * SplittableRandom, which is split off the seeded root in chunk order, and is rendered into XML by a thread
+ * of the pool. Chunks are written to the file in chunk order, and only a window of a few chunks per thread
+ * is held in memory. As the chunks do not depend on the number of threads, a seed gives byte-identical files
+ * on any number of threads.
+ *
+ * The XML has the same layout as Supermarket.exportXML, purchases are written in the order they were drawn.
+ */
+public class DatasetGenerator {
+    public static final int CHUNK_SIZE = 4096;          // number of customers per chunk
+    private static final int CHUNKS_PER_THREAD = 2;     // number of chunks per thread that may be in memory
+
+    private final Supermarket template;                 // opening hours and products of the dataset
+    private final int averageNrItems;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @param template Supermarket whose products and opening hours are used, its customers are not used
+     * @param averageNrItems int
+     */
+    public DatasetGenerator(Supermarket template, int averageNrItems) {
+        this.template = template;
+        this.averageNrItems = averageNrItems;
+    }
+
+    /**
+     * Generates a dataset of random customers into a file
+     * @param seed long
+     * @param nCustomers int
+     * @param path Path of the XML file
+     * @throws IOException when the file cannot be written
+     */
+    public void generate(long seed, int nCustomers, Path path) throws IOException {
+        SplittableRandom root = new SplittableRandom(seed);
+        int nChunks = (nCustomers + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int window = CHUNKS_PER_THREAD * this.threads;
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)) {
+            out.write(header(nCustomers > 0).getBytes(StandardCharsets.UTF_8));
+
+            Deque<Future<byte[]>> pending = new ArrayDeque<>();
+            int nextChunk = 0;
+            while (nextChunk < nChunks || !pending.isEmpty()) {
+                // keep the window filled, splitting the random streams in chunk order
+                while (nextChunk < nChunks && pending.size() < window) {
+                    SplittableRandom random = root.split();
+                    int count = Math.min(CHUNK_SIZE, nCustomers - nextChunk * CHUNK_SIZE);
+                    pending.add(executor.submit(() -> renderChunk(random, count)));
+                    nextChunk++;
+                }
+                out.write(pending.remove().get());
+            }
+
+            out.write(footer(nCustomers > 0).getBytes(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Dataset generation has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Dataset generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Draws and renders the customers of a chunk
+     * @param random SplittableRandom stream of this chunk
+     * @param count int number of customers
+     * @return xml byte[] UTF-8 encoded customer elements
+     */
+    private byte[] renderChunk(SplittableRandom random, int count) {
+        RandomCustomerGenerator generator = new RandomCustomerGenerator(this.template.getProducts(),
+                this.template.getOpenTime(), this.template.getClosingTime(), this.averageNrItems);
+        StringBuilder xml = new StringBuilder(count * 160);
+        for (int i = 0; i < count; i++) {
+            generator.next(random);
+            xml.append("    <customer queuedAt=\"").append(formatTime(LocalTime.ofSecondOfDay(generator.getArrivalSecond())))
+                    .append("\" zipCode=\"").append(escape(generator.getZipCode())).append('"');
+            if (generator.getNumberOfPurchases() == 0) {
+                xml.append("></customer>\n");
+                continue;
+            }
+            xml.append(">\n");
+            for (int p = 0; p < generator.getNumberOfPurchases(); p++) {
+                xml.append("      <purchase product=\"").append(escape(generator.getPurchaseProduct(p).getCode()))
+                        .append("\" amount=\"").append(generator.getPurchaseAmount(p)).append("\"></purchase>\n");
+            }
+            xml.append("    </customer>\n");
+        }
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String header(boolean hasCustomers) {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" ?>\n")
+                .append("<supermarket xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" \n")
+                .append("\txsi:noNamespaceSchemaLocation=\"supermarket.xsd\" \n")
+                .append("\topenTime=\"").append(formatTime(this.template.getOpenTime()))
+                .append("\" closingTime=\"").append(formatTime(this.template.getClosingTime())).append("\">\n");
+        if (this.template.getProducts().size() > 0) {
+            xml.append("  <products>\n");
+            for (Product p : this.template.getProducts()) {
+                xml.append("    <product code=\"").append(escape(p.getCode()))
+                        .append("\" description=\"").append(escape(p.getDescription()))
+                        .append("\" price=\"").append(String.format(Locale.US, "%.2f", p.getPrice()))
+                        .append("\"></product>\n");
+            }
+            xml.append("  </products>\n");
+        }
+        if (hasCustomers) {
+            xml.append("  <customers>\n");
+        }
+        return xml.toString();
+    }
+
+    private static String footer(boolean hasCustomers) {
+        return (hasCustomers ? "  </customers>\n" : "") + "</supermarket>\n";
+    }
+
+    private static String formatTime(LocalTime time) {
+        return time.toString().concat(":00").substring(0, 8);
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            String entity = (ch == '&') ? "&amp;" : (ch == '<') ? "&lt;" : (ch == '>') ? "&gt;" : (ch == '"') ? "&quot;" : null;
+            if (entity != null && escaped == null) {
+                escaped = new StringBuilder(value.substring(0, i));
+            }
+            if (escaped != null) {
+                escaped.append(entity != null ? entity : String.valueOf(ch));
+            }
+        }
+        return (escaped != null) ? escaped.toString() : value;
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+        }
+        this.threads = threads;
+    }
+}
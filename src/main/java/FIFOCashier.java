@@ -1,5 +1,6 @@
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Queue;
 
 public class FIFOCashier extends Cashier {
     /**
@@ -11,6 +12,16 @@ public class FIFOCashier extends Cashier {
         super(name);
     }
 
+    /**
+     * Constructor for cashiers that serve their customers in a different order.
+     *
+     * @param name String
+     * @param waitingQueue Queue
+     */
+    protected FIFOCashier(String name, Queue<Customer> waitingQueue) {
+        super(name, waitingQueue);
+    }
+
     /**
      * Calculates the expected time needed to checkout based on the number of items.
      * Using the uniform model from the assignment.
@@ -33,21 +44,12 @@ public class FIFOCashier extends Cashier {
      * Calculates expected waiting time (to the cashier) for a customer.
      *
      * @param customer Customer
-     * @return
+     * @return waitingTime int
      */
     @Override
     public int expectedWaitingTime(Customer customer) {
-        int totalTime = 0;
-
-        for (Customer currentCustomer : this.waitingQueue) {
-            totalTime += FIXED_TIME + (TIME_PER_ITEM * currentCustomer.getNumberOfItems());
-        }
-
-        if (this.currentCustomer != null) {
-            totalTime += FIXED_TIME + (TIME_PER_ITEM * this.currentCustomer.getNumberOfItems());
-        }
-
-        return totalTime - this.timeWorked;
+        //Workloads are kept up to date when customers enter and leave the queue.
+        return this.queuedWorkload + this.currentWorkload - this.timeWorked;
     }
 
     /**
@@ -66,6 +68,7 @@ public class FIFOCashier extends Cashier {
     @Override
     public void doTheWorkUntil(LocalTime targetTime) {
         int elapsed = (int) ChronoUnit.SECONDS.between(this.getCurrentTime(), targetTime);
+        int available = elapsed;          // seconds until the target time, to place checkouts in time
         this.totalAmountAtWork += elapsed;
 
         /*
@@ -77,7 +80,7 @@ public class FIFOCashier extends Cashier {
         totalAmountOfWorkTime. Current customer is helped in this case.
          */
         if (this.currentCustomer != null) {
-            int totalCustomerTime = FIXED_TIME + (TIME_PER_ITEM * this.currentCustomer.getNumberOfItems());
+            int totalCustomerTime = this.currentWorkload;
             if (elapsed < totalCustomerTime) {
                 this.timeWorked += elapsed;
                 this.setCurrentTime(targetTime);
@@ -86,7 +89,9 @@ public class FIFOCashier extends Cashier {
 
             elapsed = elapsed - totalCustomerTime;
             this.totalAmountOfWorkTime += totalCustomerTime;
+            served(this.currentCustomer, totalCustomerTime, available - elapsed);
             this.currentCustomer = null;
+            this.currentWorkload = 0;
             this.timeWorked = 0;
         }
 
@@ -103,18 +108,22 @@ public class FIFOCashier extends Cashier {
                 if (elapsed > totalCustomerTime) {
                     elapsed = elapsed - totalCustomerTime;
                     this.totalAmountOfWorkTime += totalCustomerTime;
-                    waitingTimes.add((int) ChronoUnit.SECONDS.between(currentCustomer.getQueuedAt(), this.getCurrentTime()));
-                    this.waitingQueue.remove();
+                    recordWaitingTime((int) ChronoUnit.SECONDS.between(currentCustomer.getQueuedAt(), this.getCurrentTime()),
+                            currentCustomer);
+                    served(currentCustomer, totalCustomerTime, available - elapsed);
+                    this.dequeue();
                     this.timeWorked = 0;
                 } else {
                     this.timeWorked = elapsed;
                     this.currentCustomer = currentCustomer;
-                    waitingTimes.add((int) ChronoUnit.SECONDS.between(currentCustomer.getQueuedAt(), this.getCurrentTime()));
-                    this.waitingQueue.remove();
+                    this.currentWorkload = totalCustomerTime;
+                    recordWaitingTime((int) ChronoUnit.SECONDS.between(currentCustomer.getQueuedAt(), this.getCurrentTime()),
+                            currentCustomer);
+                    this.dequeue();
                     break;
                 }
             } else {
-                this.waitingQueue.remove();
+                this.dequeue();
             }
         }
         this.setCurrentTime(targetTime);
@@ -0,0 +1,398 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import utils.Metrics;
+import utils.SLF4J;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Long-running simulation of cashiers which are fed by a live stream of arrivals.
+ *
+ * Producers hand arrivals to a bounded queue and block when it is full, such that a consumer that lags behind
+ * slows down the source instead of buffering without limit. A single consumer thread runs the simulation:
+ * it routes every arrival through a SimulationScheduler, advances the cashiers and publishes a LiveWindow
+ * of rolling metrics at a fixed interval, to a listener and to the metrics registry.
+ *
+ * With a simulated clock the arrival times of the stream drive the cashiers.
+ * With a wall clock every arrival queues at the moment it is accepted and the cashiers keep working between arrivals.
+ * A new day starts when the clock wraps around midnight, at which point the cashiers are restarted.
+ * Customers that are still queued or being served at the end of the day are reported in the last window
+ * of that day and are carried over to the new day, where they queue again at midnight.
+ * The history of the cashiers is switched off, such that the memory of a run stays bounded.
+ *
+ * Arrivals are lines of text: {@code HH:mm:ss zipCode productCode:amount ...}.
+ * Blank lines and lines starting with # are skipped, the time of a line is ignored with a wall clock.
+ */
+public class LiveSimulation implements Runnable, AutoCloseable {
+    private static final int HALF_DAY = 12 * 60 * 60;
+
+    private static final Metrics.Counter ACCEPTED_ARRIVALS = Metrics.REGISTRY.counter(
+            "supermarket_live_arrivals_total", "Number of arrivals accepted by live simulations");
+    private static final Metrics.Counter REJECTED_ARRIVALS = Metrics.REGISTRY.counter(
+            "supermarket_live_rejected_arrivals_total", "Number of arrival lines that could not be parsed");
+    private static final Metrics.Counter BACKPRESSURE = Metrics.REGISTRY.counter(
+            "supermarket_live_backpressure_total", "Number of arrivals that waited for a full live simulation queue");
+    private static final Metrics.Gauge BACKLOG = Metrics.REGISTRY.gauge(
+            "supermarket_live_backlog", "Number of arrivals accepted but not yet simulated");
+    private static final Metrics.Gauge WINDOW_ARRIVALS = Metrics.REGISTRY.gauge(
+            "supermarket_live_window_arrivals", "Number of customers routed during the last live window");
+    private static final Metrics.Gauge WINDOW_SERVED = Metrics.REGISTRY.gauge(
+            "supermarket_live_window_served", "Number of customers served during the last live window");
+    private static final Metrics.Gauge WINDOW_WAITING_TIME = Metrics.REGISTRY.gauge(
+            "supermarket_live_window_average_waiting_seconds",
+            "Average waiting time of the customers that reached a cashier during the last live window");
+    private static final Metrics.Gauge QUEUED_CUSTOMERS = Metrics.REGISTRY.gauge(
+            "supermarket_live_queued_customers", "Number of customers waiting at all cashiers of a live simulation");
+
+    private static final Customer CLOSED = new Customer(LocalTime.MIDNIGHT, null);  // wakes up run() on close
+
+    private final ProductCatalog catalog;           // products that arriving customers buy
+    private final List<Cashier> cashiers;
+    private final BlockingQueue<Customer> arrivals; // accepted arrivals that have not been simulated yet
+    private final Clock clock;                      // wall clock, also used to time the publications
+    private final boolean wallClock;                // whether the simulation follows the wall clock
+    private final long publishInterval;             // milliseconds between two publications
+    private Consumer<LiveWindow> listener;          // receives every published window, null if nobody listens
+    private volatile boolean running = true;
+
+    // state of the consumer thread
+    private SimulationScheduler scheduler;          // null until the first arrival or tick
+    private int routed;                             // customers routed since the start of the day
+    private LiveWindow lastWindow;
+    private int lastRouted, lastServed, lastTaken;
+    private long lastWaitingTime;
+
+    /**
+     * Creates a live simulation on a simulated clock, which starts at the time of the first arrival
+     * @param catalog ProductCatalog of the products that arriving customers buy
+     * @param cashiers List of cashiers to simulate
+     * @param capacity int number of arrivals that can be buffered before producers are blocked
+     * @param publishInterval Duration of the window between two publications of the metrics
+     */
+    public LiveSimulation(ProductCatalog catalog, List<Cashier> cashiers, int capacity, Duration publishInterval) {
+        this(catalog, cashiers, capacity, publishInterval, Clock.systemDefaultZone(), false);
+    }
+
+    /**
+     * Creates a live simulation
+     * @param catalog ProductCatalog of the products that arriving customers buy
+     * @param cashiers List of cashiers to simulate
+     * @param capacity int number of arrivals that can be buffered before producers are blocked
+     * @param publishInterval Duration of the window between two publications of the metrics
+     * @param clock Clock which times the publications
+     * @param wallClock boolean whether arrivals queue at the time of the clock instead of their own time
+     */
+    public LiveSimulation(ProductCatalog catalog, List<Cashier> cashiers, int capacity, Duration publishInterval,
+                          Clock clock, boolean wallClock) {
+        this.catalog = catalog;
+        this.cashiers = cashiers;
+        for (Cashier c : cashiers) {
+            c.setHistoryRetention(Cashier.HistoryRetention.OFF);
+        }
+        this.arrivals = new ArrayBlockingQueue<>(capacity);
+        this.clock = clock;
+        this.wallClock = wallClock;
+        this.publishInterval = publishInterval.toMillis();
+    }
+
+    public void setListener(Consumer<LiveWindow> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Parses an arrival line
+     * @param line String
+     * @return customer Customer, or null for a blank line or a comment
+     * @throws IllegalArgumentException if the line cannot be parsed
+     */
+    public Customer parseArrival(String line) {
+        String[] fields = line.trim().split("\\s+");
+        if (fields[0].isEmpty() || fields[0].startsWith("#")) {
+            return null;
+        }
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Arrival without zip code: '" + line + "'");
+        }
+        LocalTime queuedAt;
+        try {
+            queuedAt = this.wallClock ? this.now() : LocalTime.parse(fields[0]);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Arrival with invalid time: '" + line + "'", ex);
+        }
+
+        Customer customer = new Customer(queuedAt, fields[1]);
+        for (int i = 2; i < fields.length; i++) {
+            int separator = fields[i].lastIndexOf(':');
+            Product product = (separator > 0) ? this.catalog.get(fields[i].substring(0, separator)) : null;
+            if (product == null) {
+                throw new IllegalArgumentException("Arrival with unknown purchase '" + fields[i] + "': '" + line + "'");
+            }
+            customer.getItems().add(new Purchase(product, Integer.parseInt(fields[i].substring(separator + 1))));
+        }
+        return customer;
+    }
+
+    /**
+     * Hands an arrival to the simulation, waiting while the simulation lags behind
+     * @param customer Customer
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void submit(Customer customer) throws InterruptedException {
+        if (!this.arrivals.offer(customer)) {
+            BACKPRESSURE.increment();
+            this.arrivals.put(customer);
+        }
+        ACCEPTED_ARRIVALS.increment();
+    }
+
+    /**
+     * Hands an arrival to the simulation, waiting at most the given time while the simulation lags behind
+     * @param customer Customer
+     * @param timeout Duration
+     * @return true if the arrival has been accepted
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public boolean offer(Customer customer, Duration timeout) throws InterruptedException {
+        if (!this.arrivals.offer(customer)) {
+            BACKPRESSURE.increment();
+            if (!this.arrivals.offer(customer, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        }
+        ACCEPTED_ARRIVALS.increment();
+        return true;
+    }
+
+    /**
+     * Submits the arrival lines of a reader until its end, lines that cannot be parsed are logged and skipped
+     * @param reader Reader
+     * @return number of submitted arrivals
+     * @throws IOException
+     * @throws InterruptedException when interrupted while waiting for the simulation
+     */
+    public int feed(Reader reader) throws IOException, InterruptedException {
+        BufferedReader lines = new BufferedReader(reader);
+        int submitted = 0;
+        String line;
+        while (this.running && (line = lines.readLine()) != null) {
+            submitted += this.submitLine(line);
+        }
+        return submitted;
+    }
+
+    /**
+     * Follows a file to which arrival lines are appended and submits every completed line,
+     * until the simulation is closed or the thread is interrupted
+     * @param file Path
+     * @param pollInterval Duration to wait for new lines at the end of the file
+     * @return number of submitted arrivals
+     * @throws IOException
+     * @throws InterruptedException when interrupted
+     */
+    public int tail(Path file, Duration pollInterval) throws IOException, InterruptedException {
+        int submitted = 0;
+        StringBuilder line = new StringBuilder();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            while (this.running) {
+                int c = reader.read();
+                if (c < 0) {
+                    // a partial line is kept until the writer completes it
+                    Thread.sleep(pollInterval.toMillis());
+                } else if (c == '\n') {
+                    submitted += this.submitLine(line.toString());
+                    line.setLength(0);
+                } else {
+                    line.append((char) c);
+                }
+            }
+        }
+        return submitted;
+    }
+
+    private int submitLine(String line) throws InterruptedException {
+        Customer customer;
+        try {
+            customer = this.parseArrival(line);
+        } catch (IllegalArgumentException ex) {
+            REJECTED_ARRIVALS.increment();
+            SLF4J.LOGGER.warn(ex.getMessage());
+            return 0;
+        }
+        if (customer == null) {
+            return 0;
+        }
+        this.submit(customer);
+        return 1;
+    }
+
+    /**
+     * Runs the simulation on the calling thread until the simulation is closed and all accepted arrivals
+     * have been simulated, or until the thread is interrupted
+     */
+    @Override
+    public void run() {
+        long nextPublication = this.clock.millis() + this.publishInterval;
+        try {
+            while (this.running || !this.arrivals.isEmpty()) {
+                Customer customer = this.arrivals.poll(
+                        Math.max(0, nextPublication - this.clock.millis()), TimeUnit.MILLISECONDS);
+                if (customer != null && customer != CLOSED) {
+                    this.process(customer);
+                }
+                if (this.wallClock) {
+                    this.advanceTo(this.now());
+                }
+                if (this.clock.millis() >= nextPublication) {
+                    this.publish();
+                    nextPublication = this.clock.millis() + this.publishInterval;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.publish();
+        }
+    }
+
+    /**
+     * Stops accepting new lines, run() returns once the accepted arrivals have been simulated
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        // a full queue keeps run() busy anyway
+        this.arrivals.offer(CLOSED);
+    }
+
+    /**
+     * @return whether the simulation still accepts new lines
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Routes an arrival to a cashier after the cashiers have worked until its arrival time
+     * @param customer Customer
+     */
+    void process(Customer customer) {
+        int second = customer.getQueuedAt().toSecondOfDay();
+        this.startDay(second);
+        this.scheduler.scheduleArrival(second, customer);
+        this.scheduler.fireNext();
+        this.routed++;
+    }
+
+    /**
+     * Lets the cashiers work until the given time without an arrival
+     * @param time LocalTime
+     */
+    void advanceTo(LocalTime time) {
+        int second = time.toSecondOfDay();
+        this.startDay(second);
+        this.scheduler.advanceTo(second);
+    }
+
+    /**
+     * Starts the simulation at the first arrival, and restarts it at midnight when the clock wraps around midnight.
+     * The customers that the cashiers have not finished by the end of the day are carried over to the new day.
+     * @param second int second of the day of the next event
+     */
+    private void startDay(int second) {
+        if (this.scheduler != null && second >= this.scheduler.getClock() - HALF_DAY) {
+            return;
+        }
+        List<Customer> carriedOver = new ArrayList<>();
+        if (this.scheduler != null) {
+            this.scheduler.advanceTo(LocalTime.MAX.toSecondOfDay());
+            this.publish();
+            for (Cashier c : this.cashiers) {
+                if (c.currentCustomer != null) {
+                    carriedOver.add(c.currentCustomer);
+                }
+                carriedOver.addAll(c.getWaitingQueue());
+            }
+        }
+        LocalTime start = (this.scheduler != null) ? LocalTime.MIDNIGHT : LocalTime.ofSecondOfDay(second);
+        this.scheduler = new SimulationScheduler(this.cashiers, start);
+        this.routed = 0;
+        this.lastRouted = 0;
+        this.lastServed = 0;
+        this.lastTaken = 0;
+        this.lastWaitingTime = 0;
+
+        for (Customer customer : carriedOver) {
+            this.scheduler.scheduleArrival(0, customer.queuedAt(LocalTime.MIDNIGHT));
+        }
+        this.scheduler.run();
+    }
+
+    /**
+     * Publishes the metrics of the window since the previous publication
+     * @return window LiveWindow
+     */
+    LiveWindow publish() {
+        int served = 0, taken = 0, queued = 0;
+        long waitingTime = 0;
+        for (Cashier c : this.cashiers) {
+            served += c.getServedCustomers();
+            taken += c.getTotalCustomers();
+            waitingTime += c.getTotalWaitingTime();
+            queued += c.getWaitingQueue().size();
+        }
+        LocalTime time = (this.scheduler != null) ? LocalTime.ofSecondOfDay(this.scheduler.getClock()) : null;
+        LiveWindow window = new LiveWindow(time, this.routed - this.lastRouted, served - this.lastServed,
+                taken - this.lastTaken, waitingTime - this.lastWaitingTime, queued, this.arrivals.size());
+        this.lastRouted = this.routed;
+        this.lastServed = served;
+        this.lastTaken = taken;
+        this.lastWaitingTime = waitingTime;
+        this.lastWindow = window;
+
+        BACKLOG.set(window.getBacklog());
+        WINDOW_ARRIVALS.set(window.getArrivals());
+        WINDOW_SERVED.set(window.getServedCustomers());
+        WINDOW_WAITING_TIME.set(Math.round(window.getAverageWaitingTime()));
+        QUEUED_CUSTOMERS.set(window.getQueuedCustomers());
+        Metrics.REGISTRY.writeConfiguredSnapshot();
+        if (this.listener != null) {
+            this.listener.accept(window);
+        }
+        return window;
+    }
+
+    /**
+     * Returns the last published window, may be read by other threads once run() has returned
+     * @return window LiveWindow, or null if nothing has been published
+     */
+    public LiveWindow getLastWindow() {
+        return lastWindow;
+    }
+
+    public int getBacklog() {
+        return this.arrivals.size();
+    }
+
+    private LocalTime now() {
+        return LocalTime.now(this.clock).withNano(0);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.time.LocalTime;
+
+/**
+ * The rolling metrics of a live simulation over the window since the previous publication.
+ * Queue lengths and the backlog are observed at the end of the window.
+ */
+public class LiveWindow {
+    private final LocalTime simulatedTime;      // clock of the simulation at the end of the window
+    private final int arrivals;                 // customers routed to a cashier during the window
+    private final int servedCustomers;          // customers whose checkout completed during the window
+    private final int takenCustomers;           // customers that reached a cashier during the window
+    private final long totalWaitingTime;        // waiting time of the taken customers
+    private final int queuedCustomers;          // customers waiting at all cashiers
+    private final int backlog;                  // arrivals accepted but not yet simulated
+
+    public LiveWindow(LocalTime simulatedTime, int arrivals, int servedCustomers, int takenCustomers,
+                      long totalWaitingTime, int queuedCustomers, int backlog) {
+        this.simulatedTime = simulatedTime;
+        this.arrivals = arrivals;
+        this.servedCustomers = servedCustomers;
+        this.takenCustomers = takenCustomers;
+        this.totalWaitingTime = totalWaitingTime;
+        this.queuedCustomers = queuedCustomers;
+        this.backlog = backlog;
+    }
+
+    /**
+     * Returns the average waiting time of the customers that reached a cashier during the window
+     * @return averageWaitingTime double in seconds
+     */
+    public double getAverageWaitingTime() {
+        return this.takenCustomers > 0 ? (double) this.totalWaitingTime / this.takenCustomers : 0.0;
+    }
+
+    public LocalTime getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    public int getArrivals() {
+        return arrivals;
+    }
+
+    public int getServedCustomers() {
+        return servedCustomers;
+    }
+
+    public int getTakenCustomers() {
+        return takenCustomers;
+    }
+
+    public int getQueuedCustomers() {
+        return queuedCustomers;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s arrivals=%d served=%d avgWait=%.1fs queued=%d backlog=%d",
+                this.simulatedTime, this.arrivals, this.servedCustomers, this.getAverageWaitingTime(),
+                this.queuedCustomers, this.backlog);
+    }
+}
@@ -0,0 +1,566 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import utils.XMLParser;
+
+import javax.xml.stream.XMLStreamConstants;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only customer table whose rows stay in a memory-mapped file, such that datasets larger than the heap
+ * can be simulated and aggregated. Pages of the file are loaded and evicted by the operating system.
+ *
+ * The file consists of fixed-width sections:
+ *  - header of 64 bytes: magic, version, number of customers and purchases, sorted flag, offset of the dictionary
+ *  - records of 16 bytes per customer: arrival second, zip code id, number of items, index of the first purchase
+ *  - purchases of 8 bytes: product id and amount
+ *  - dictionary: name, open and closing second, the catalog and the zip codes, as in SupermarketSnapshot
+ * All numbers are big-endian. Only the catalog and the zip codes are held on the heap.
+ * Files larger than 2GB are mapped in segments, no record or purchase crosses a segment boundary.
+ */
+public class MappedCustomerTable extends CustomerTable {
+    private static final int MAGIC = 0x534d4d31;    // "SMM1"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 16;
+    private static final int PURCHASE_SIZE = 8;
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final String name;
+    private final LocalTime openTime;
+    private final LocalTime closingTime;
+    private final int size;                 // number of customer records
+    private final int purchaseCount;        // number of purchases of all records
+    private final boolean sortedByArrival;
+    private final long purchasesOffset;     // file position of the first purchase
+    private final ByteBuffer[] segments;    // mapped file up to the dictionary
+
+    private MappedCustomerTable(ProductCatalog catalog, List<String> zipCodes, String name, LocalTime openTime,
+                                LocalTime closingTime, int size, int purchaseCount, boolean sortedByArrival,
+                                ByteBuffer[] segments) {
+        super(catalog);
+        for (String zipCode : zipCodes) {
+            this.zipCodeId(zipCode);
+        }
+        this.name = name;
+        this.openTime = openTime;
+        this.closingTime = closingTime;
+        this.size = size;
+        this.purchaseCount = purchaseCount;
+        this.sortedByArrival = sortedByArrival;
+        this.purchasesOffset = HEADER_SIZE + (long) RECORD_SIZE * size;
+        this.segments = segments;
+    }
+
+    /**
+     * Maps a customer store file
+     * @param path Path
+     * @return table MappedCustomerTable
+     * @throws IOException when the file cannot be read or is not a customer store
+     */
+    public static MappedCustomerTable open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("'" + path + "' is not a customer store");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("'" + path + "' is not a customer store");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported customer store version " + version + " in '" + path + "'");
+            }
+            int size = header.getInt();
+            int purchaseCount = header.getInt();
+            boolean sortedByArrival = header.getInt() != 0;
+            long dictionaryOffset = header.getLong();
+            if (dictionaryOffset != HEADER_SIZE + (long) RECORD_SIZE * size + (long) PURCHASE_SIZE * purchaseCount
+                    || dictionaryOffset > channel.size()) {
+                throw new IOException("Customer store '" + path + "' is truncated");
+            }
+
+            ByteBuffer dictionary = channel.map(FileChannel.MapMode.READ_ONLY, dictionaryOffset,
+                    channel.size() - dictionaryOffset);
+            String name = SupermarketSnapshot.readString(dictionary);
+            LocalTime openTime = LocalTime.ofSecondOfDay(dictionary.getInt());
+            LocalTime closingTime = LocalTime.ofSecondOfDay(dictionary.getInt());
+            ProductCatalog catalog = SupermarketSnapshot.readCatalog(dictionary);
+            int numberOfZipCodes = dictionary.getInt();
+            List<String> zipCodes = new ArrayList<>(numberOfZipCodes);
+            for (int i = 0; i < numberOfZipCodes; i++) {
+                zipCodes.add(SupermarketSnapshot.readString(dictionary));
+            }
+
+            // the mappings remain valid after the channel has been closed
+            ByteBuffer[] segments = new ByteBuffer[(int) ((dictionaryOffset + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int s = 0; s < segments.length; s++) {
+                long position = (long) s << SEGMENT_BITS;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_MASK + 1, dictionaryOffset - position));
+            }
+            return new MappedCustomerTable(catalog, zipCodes, name, openTime, closingTime, size, purchaseCount,
+                    sortedByArrival, segments);
+        }
+    }
+
+    /**
+     * Writes the customers of a supermarket to a customer store file
+     * @param supermarket Supermarket
+     * @param path Path
+     * @throws IOException
+     */
+    public static void write(Supermarket supermarket, Path path) throws IOException {
+        try (Writer writer = new Writer(path, supermarket.name, supermarket.getOpenTime(),
+                supermarket.getClosingTime(), ProductCatalog.of(supermarket.getProducts()))) {
+            for (Customer c : supermarket.getCustomers()) {
+                writer.add(c);
+            }
+        }
+    }
+
+    /**
+     * Converts a supermarket XML stream into a customer store file,
+     * reading one customer at a time such that the dataset never has to fit on the heap
+     * @param xmlParser XMLParser
+     * @param name String name of the supermarket
+     * @param path Path of the customer store
+     * @throws IOException when the XML cannot be read or the store cannot be written
+     */
+    public static void convert(XMLParser xmlParser, String name, Path path) throws IOException {
+        try {
+            xmlParser.nextTag();
+            xmlParser.require(XMLStreamConstants.START_ELEMENT, null, "supermarket");
+            LocalTime openTime = LocalTime.parse(xmlParser.getAttributeValue(null, "openTime"));
+            LocalTime closingTime = LocalTime.parse(xmlParser.getAttributeValue(null, "closingTime"));
+            xmlParser.nextTag();
+            ProductCatalog catalog = new ProductCatalog();
+            Product.importProductsFromXML(xmlParser, catalog);
+
+            try (Writer writer = new Writer(path, name, openTime, closingTime, catalog)) {
+                if (xmlParser.nextBeginTag("customers")) {
+                    xmlParser.nextTag();
+                    Customer customer;
+                    while ((customer = Customer.importFromXML(xmlParser, catalog)) != null) {
+                        writer.add(customer);
+                    }
+                    xmlParser.findAndAcceptEndTag("customers");
+                }
+            }
+        } catch (IOException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IOException("Cannot convert '" + name + "'", ex);
+        }
+    }
+
+    /**
+     * Converts an XML resource into a customer store: MappedCustomerTable resourceName storeFile
+     * @param args String[]
+     * @throws IOException when the conversion fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: MappedCustomerTable <xml resource> <customer store file>");
+            return;
+        }
+        XMLParser xmlParser = new XMLParser(args[0]);
+        try {
+            convert(xmlParser, args[0], Paths.get(args[1]));
+        } finally {
+            try {
+                xmlParser.close();
+            } catch (Exception ex) {
+                throw new IOException("Cannot close '" + args[0] + "'", ex);
+            }
+        }
+    }
+
+    private int getInt(long position) {
+        return this.segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & SEGMENT_MASK));
+    }
+
+    private static long record(int row) {
+        return HEADER_SIZE + (long) RECORD_SIZE * row;
+    }
+
+    /**
+     * Returns a cursor before the first row
+     * @return cursor Cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    @Override
+    public int add(int arrivalSecond, String zipCode, Collection<Purchase> purchases) {
+        throw new UnsupportedOperationException("A mapped customer table is read-only");
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isSortedByArrival() {
+        return this.sortedByArrival;
+    }
+
+    @Override
+    public int getArrivalSecond(int row) {
+        return getInt(record(row));
+    }
+
+    @Override
+    public LocalTime getQueuedAt(int row) {
+        return LocalTime.ofSecondOfDay(getArrivalSecond(row));
+    }
+
+    @Override
+    public int getZipCodeId(int row) {
+        return getInt(record(row) + 4);
+    }
+
+    @Override
+    public String getZipCode(int row) {
+        return getZipCodeById(getZipCodeId(row));
+    }
+
+    @Override
+    public int getItemCount(int row) {
+        if (detachedItems(row) != null) {
+            return super.getItemCount(row);
+        }
+        return getInt(record(row) + 8);
+    }
+
+    @Override
+    public double getTotalCost(int row) {
+        if (detachedItems(row) != null) {
+            return super.getTotalCost(row);
+        }
+        double totalCost = 0.0;
+        for (int i = getPurchaseStart(row); i < getPurchaseEnd(row); i++) {
+            totalCost += getPriceById(getPurchaseProductId(i)) * getPurchaseAmount(i);
+        }
+        return totalCost;
+    }
+
+    @Override
+    public Collection<Purchase> getPurchases(int row) {
+        Set<Purchase> items = detachedItems(row);
+        if (items != null) {
+            return items;
+        }
+        int start = getPurchaseStart(row);
+        int end = getPurchaseEnd(row);
+        List<Purchase> purchases = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            purchases.add(new Purchase(getProductById(getPurchaseProductId(i)), getPurchaseAmount(i)));
+        }
+        return purchases;
+    }
+
+    @Override
+    public int getPurchaseStart(int row) {
+        return getInt(record(row) + 12);
+    }
+
+    @Override
+    public int getPurchaseEnd(int row) {
+        return row + 1 < this.size ? getPurchaseStart(row + 1) : this.purchaseCount;
+    }
+
+    @Override
+    public int getPurchaseProductId(int purchase) {
+        return getInt(this.purchasesOffset + (long) PURCHASE_SIZE * purchase);
+    }
+
+    @Override
+    public int getPurchaseAmount(int purchase) {
+        return getInt(this.purchasesOffset + (long) PURCHASE_SIZE * purchase + 4);
+    }
+
+    @Override
+    public int getPurchaseCount() {
+        return this.purchaseCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalTime getOpenTime() {
+        return openTime;
+    }
+
+    public LocalTime getClosingTime() {
+        return closingTime;
+    }
+
+    /**
+     * Position on a row of the table, moved sequentially with next() or at random with seek().
+     * A cursor does not create any objects while it is moved.
+     */
+    public class Cursor {
+        private int row = -1;
+
+        /**
+         * Moves to the next row
+         * @return false if the cursor has passed the last row
+         */
+        public boolean next() {
+            if (this.row < size) {
+                this.row++;
+            }
+            return this.row < size;
+        }
+
+        /**
+         * Moves to the given row, such that next() continues after it
+         * @param row int
+         */
+        public void seek(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+            }
+            this.row = row;
+        }
+
+        /**
+         * Moves to the first customer that arrives at or after the given second, in a table sorted by arrival
+         * @param second int second of the day
+         * @return false if no customer arrives at or after the second
+         */
+        public boolean seekArrival(int second) {
+            if (!sortedByArrival) {
+                throw new IllegalStateException("The rows are not sorted by arrival");
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (MappedCustomerTable.this.getArrivalSecond(middle) < second) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            this.row = low;
+            return low < size;
+        }
+
+        public int getRow() {
+            checkRow();
+            return this.row;
+        }
+
+        public int getArrivalSecond() {
+            checkRow();
+            return MappedCustomerTable.this.getArrivalSecond(this.row);
+        }
+
+        public int getZipCodeId() {
+            checkRow();
+            return MappedCustomerTable.this.getZipCodeId(this.row);
+        }
+
+        public int getItemCount() {
+            checkRow();
+            return MappedCustomerTable.this.getItemCount(this.row);
+        }
+
+        public int getPurchaseStart() {
+            checkRow();
+            return MappedCustomerTable.this.getPurchaseStart(this.row);
+        }
+
+        public int getPurchaseEnd() {
+            checkRow();
+            return MappedCustomerTable.this.getPurchaseEnd(this.row);
+        }
+
+        /**
+         * @return customer Customer view on the current row
+         */
+        public Customer getCustomer() {
+            checkRow();
+            return MappedCustomerTable.this.getCustomer(this.row);
+        }
+
+        private void checkRow() {
+            if (this.row < 0 || this.row >= size) {
+                throw new NoSuchElementException("Cursor is not on a row");
+            }
+        }
+    }
+
+    /**
+     * Appends customers to a new customer store file.
+     * The records are written while the purchases are collected in a temporary file next to the store,
+     * which is appended when the writer is closed, followed by the dictionary and the final header.
+     */
+    public static class Writer implements Closeable {
+        private final Path path;
+        private final Path purchasesFile;
+        private final DataOutputStream records;
+        private final DataOutputStream purchases;
+        private final String name;
+        private final LocalTime openTime;
+        private final LocalTime closingTime;
+        private final ProductCatalog catalog;
+        private final List<String> zipCodes = new ArrayList<>();
+        private final Map<String, Integer> zipCodeIds = new HashMap<>();
+        private int size;
+        private int purchaseCount;
+        private int lastArrival = Integer.MIN_VALUE;
+        private boolean sortedByArrival = true;
+
+        /**
+         * @param path Path of the customer store, which is replaced if it exists
+         * @param name String name of the supermarket
+         * @param openTime LocalTime
+         * @param closingTime LocalTime
+         * @param catalog ProductCatalog that assigns the product ids, products that are new to it are added
+         * @throws IOException
+         */
+        public Writer(Path path, String name, LocalTime openTime, LocalTime closingTime, ProductCatalog catalog)
+                throws IOException {
+            this.path = path;
+            this.name = name;
+            this.openTime = openTime;
+            this.closingTime = closingTime;
+            this.catalog = catalog;
+            Path directory = path.toAbsolutePath().getParent();
+            this.purchasesFile = Files.createTempFile(directory, path.getFileName().toString(), ".purchases");
+            this.records = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            this.purchases = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(this.purchasesFile), 1 << 16));
+            // the header is written once the totals are known
+            this.records.write(new byte[HEADER_SIZE]);
+        }
+
+        /**
+         * Appends a copy of the customer and its purchases
+         * @param customer Customer
+         * @throws IOException
+         */
+        public void add(Customer customer) throws IOException {
+            add(customer.getQueuedAt().toSecondOfDay(), customer.getZipCode(), customer.getPurchases());
+        }
+
+        /**
+         * Appends a customer record
+         * @param arrivalSecond int second of the day at which the customer queues
+         * @param zipCode String
+         * @param purchases Collection
+         * @throws IOException
+         */
+        public void add(int arrivalSecond, String zipCode, Collection<Purchase> purchases) throws IOException {
+            if (this.size == Integer.MAX_VALUE || this.purchaseCount > Integer.MAX_VALUE - purchases.size()) {
+                throw new IOException("Customer store '" + this.path + "' is full");
+            }
+            int start = this.purchaseCount;
+            int numItems = 0;
+            for (Purchase p : purchases) {
+                this.purchases.writeInt(this.catalog.register(p.getProduct()));
+                this.purchases.writeInt(p.getAmount());
+                numItems += p.getAmount();
+            }
+            this.purchaseCount += purchases.size();
+
+            Integer zipId = this.zipCodeIds.get(zipCode);
+            if (zipId == null) {
+                zipId = this.zipCodes.size();
+                this.zipCodes.add(zipCode);
+                this.zipCodeIds.put(zipCode, zipId);
+            }
+            this.records.writeInt(arrivalSecond);
+            this.records.writeInt(zipId);
+            this.records.writeInt(numItems);
+            this.records.writeInt(start);
+            this.size++;
+
+            this.sortedByArrival &= arrivalSecond >= this.lastArrival;
+            this.lastArrival = arrivalSecond;
+        }
+
+        /**
+         * Completes the customer store
+         * @throws IOException
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                this.records.close();
+                this.purchases.close();
+                try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.WRITE);
+                     FileChannel purchases = FileChannel.open(this.purchasesFile, StandardOpenOption.READ)) {
+                    long position = channel.size();
+                    for (long done = 0; done < purchases.size(); ) {
+                        done += channel.transferFrom(purchases, position + done, purchases.size() - done);
+                    }
+                    long dictionaryOffset = position + purchases.size();
+                    writeFully(channel, ByteBuffer.wrap(this.dictionary()), dictionaryOffset);
+
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    header.putInt(MAGIC).putInt(VERSION).putInt(this.size).putInt(this.purchaseCount)
+                            .putInt(this.sortedByArrival ? 1 : 0).putLong(dictionaryOffset);
+                    header.clear();
+                    writeFully(channel, header, 0);
+                }
+            } finally {
+                Files.deleteIfExists(this.purchasesFile);
+            }
+        }
+
+        private byte[] dictionary() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                SupermarketSnapshot.writeString(out, this.name);
+                out.writeInt(this.openTime.toSecondOfDay());
+                out.writeInt(this.closingTime.toSecondOfDay());
+                SupermarketSnapshot.writeCatalog(out, this.catalog);
+                out.writeInt(this.zipCodes.size());
+                for (String zipCode : this.zipCodes) {
+                    SupermarketSnapshot.writeString(out, zipCode);
+                }
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+/**
+ * Mean, standard deviation and confidence interval of a metric over a number of replications.
+ */
+public class MetricSummary {
+    public static final double Z_95 = 1.959963984540054;   // two-sided 95% quantile of the normal distribution
+
+    private final int count;
+    private final double mean;
+    private final double standardDeviation;     // sample standard deviation
+
+    /**
+     * Summarizes the samples, which are visited in index order such that equal samples give equal summaries
+     * @param samples double[]
+     */
+    public MetricSummary(double[] samples) {
+        this.count = samples.length;
+        double sum = 0.0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        this.mean = (this.count > 0) ? sum / this.count : Double.NaN;
+
+        double squares = 0.0;
+        for (double sample : samples) {
+            squares += (sample - this.mean) * (sample - this.mean);
+        }
+        this.standardDeviation = (this.count > 1) ? Math.sqrt(squares / (this.count - 1)) : 0.0;
+    }
+
+    /**
+     * Returns the half width of the confidence interval of the mean, using the normal approximation
+     * @param z double quantile of the normal distribution, e.g. Z_95
+     * @return halfWidth double
+     */
+    public double getHalfWidth(double z) {
+        return (this.count > 0) ? z * this.standardDeviation / Math.sqrt(this.count) : Double.NaN;
+    }
+
+    public double getLowerBound() {
+        return this.mean - getHalfWidth(Z_95);
+    }
+
+    public double getUpperBound() {
+        return this.mean + getHalfWidth(Z_95);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStandardDeviation() {
+        return standardDeviation;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f (sd %.2f, 95%% CI %.2f..%.2f)",
+                this.mean, this.standardDeviation, this.getLowerBound(), this.getUpperBound());
+    }
+}
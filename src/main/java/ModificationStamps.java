@@ -0,0 +1,68 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The modification stamps of the lists and tables that hold a set of items, which are all incremented
+ * whenever the items are modified. All sets of items of a list or a table share a single instance,
+ * only a set of items that is held by several lists gets an instance of its own.
+ */
+class ModificationStamps {
+    private volatile AtomicInteger[] stamps;
+
+    ModificationStamps(AtomicInteger stamp) {
+        this.stamps = new AtomicInteger[] { stamp };
+    }
+
+    private ModificationStamps(AtomicInteger[] stamps) {
+        this.stamps = stamps;
+    }
+
+    /**
+     * Returns the stamps of both instances, without modifying either of them
+     * @param other ModificationStamps
+     * @return stamps ModificationStamps
+     */
+    ModificationStamps with(ModificationStamps other) {
+        AtomicInteger[] stamps = this.stamps;
+        AtomicInteger[] combined = Arrays.copyOf(stamps, stamps.length + other.stamps.length);
+        int length = stamps.length;
+        for (AtomicInteger stamp : other.stamps) {
+            if (!contains(stamps, stamp)) {
+                combined[length++] = stamp;
+            }
+        }
+        return (length == stamps.length) ? this : new ModificationStamps(Arrays.copyOf(combined, length));
+    }
+
+    /**
+     * Adds the stamps of another instance to this instance, and so to all sets of items that share it
+     * @param other ModificationStamps
+     */
+    synchronized void add(ModificationStamps other) {
+        this.stamps = this.with(other).stamps;
+    }
+
+    /**
+     * Increments every stamp
+     */
+    void increment() {
+        for (AtomicInteger stamp : this.stamps) {
+            stamp.incrementAndGet();
+        }
+    }
+
+    private static boolean contains(AtomicInteger[] stamps, AtomicInteger stamp) {
+        for (AtomicInteger s : stamps) {
+            if (s == stamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,7 +1,9 @@
-import java.util.LinkedList;
+import java.time.LocalTime;
+import java.util.Arrays;
 
 public class PriorityCashier extends FIFOCashier {
-    private final int MAX_PRIORITY_ITEMS;
+    private final PriorityLaneQueue lanes;  // waiting queue with one lane per priority class
+    private final int[] levelWorkload;      // total checkout time of queued customers per level
 
     /**
      * Default constructor
@@ -9,8 +11,23 @@ public class PriorityCashier extends FIFOCashier {
      * @param maxNumPriorityItems int
      */
     public PriorityCashier(String name, int maxNumPriorityItems) {
-        super(name);
-        this.MAX_PRIORITY_ITEMS = maxNumPriorityItems;
+        this(name, new int[]{maxNumPriorityItems});
+    }
+
+    /**
+     * Constructor for a cashier with multiple priority tiers.
+     * A customer of a tier may skip customers which hold more than one item above the maximum of that tier.
+     * @param name String
+     * @param maxNumPriorityItems int[] maximum number of items per tier, strictly ascending
+     */
+    public PriorityCashier(String name, int[] maxNumPriorityItems) {
+        this(name, new PriorityLaneQueue(maxNumPriorityItems));
+    }
+
+    private PriorityCashier(String name, PriorityLaneQueue lanes) {
+        super(name, lanes);
+        this.lanes = lanes;
+        this.levelWorkload = new int[lanes.getNumberOfTiers() + 1];
     }
 
     /**
@@ -22,80 +39,50 @@ public class PriorityCashier extends FIFOCashier {
     @Override
     public int expectedWaitingTime(Customer customer) {
         int waitingTime = 0;
+        int numberOfItems = customer.getNumberOfItems();
 
         //If new customer does not have any items, let them skip the whole line.
-        if (customer.getNumberOfItems() < 1) {
+        if (numberOfItems < 1) {
             return waitingTime;
         }
 
-        //Calc time for current customer (which is worked on)
-        if (this.currentCustomer != null){
-            waitingTime += FIXED_TIME + (this.currentCustomer.getNumberOfItems() * TIME_PER_ITEM);
-        }
+        //Time for current customer (which is worked on)
+        waitingTime += this.currentWorkload;
 
         //If there are no customers in queue, or new customer has no items. return waitingTime.
         if (this.waitingQueue.isEmpty()) {
             return (waitingTime > 0) ? (waitingTime - this.timeWorked) : waitingTime;
         }
 
-        //If new customer is not eligible to skip other customers, sum all customer times and return.
-        if (customer.getNumberOfItems() > MAX_PRIORITY_ITEMS ||
-                this.waitingQueue.getLast().getNumberOfItems() <= (MAX_PRIORITY_ITEMS + 1)) {
-            for (Customer next : this.waitingQueue) {
-                waitingTime += FIXED_TIME + (next.getNumberOfItems() * TIME_PER_ITEM);
-            }
+        //If new customer is not eligible to skip the last customer, add the workload of the whole queue.
+        int tier = this.lanes.tierOf(numberOfItems);
+        if (tier == 0 || this.lanes.levelOf(this.lanes.peekLast().getNumberOfItems()) < tier) {
+            waitingTime += this.queuedWorkload;
             return (waitingTime - this.timeWorked);
         }
 
-        //If new customer is eligible to skip other customers, calculate waiting time from "promised position".
-        for (Customer next : this.waitingQueue) {
-            //Calc waiting time for non-skip customers.
-            if (next.getNumberOfItems() <= (MAX_PRIORITY_ITEMS + 1)) {
-                waitingTime += FIXED_TIME + (next.getNumberOfItems() * TIME_PER_ITEM);
-            }
+        //If new customer is eligible to skip other customers, only add the workload of non-skip customers.
+        for (int level = 0; level < tier; level++) {
+            waitingTime += this.levelWorkload[level];
         }
         return (waitingTime > 0) ? (waitingTime - this.timeWorked) : waitingTime;
     }
 
-    /**
-     * Add customer to priority queue applying rules from the assignment:
-     *
-     * Let customer with less then 5 items skip other customers which hold more then 5 items
-     * but not less then 6.
-     *
-     * @param customer Customer
-     */
     @Override
-    public void add(Customer customer) {
-        //If customer haves 0 items, let customer skip whole line and do not add customer to queue.
-        if (customer.getNumberOfItems() < 1) {
-            return;
-        }
-
-        //If there are no customers in line, add new customer.
-        if (this.waitingQueue.isEmpty()) {
-            super.add(customer);
-            return;
-        }
+    public void restart(LocalTime currentTime) {
+        super.restart(currentTime);
+        Arrays.fill(this.levelWorkload, 0);
+    }
 
-        //Customer with more then max prio items or if last customer haves less then 6 items do not have priority
-        if (customer.getNumberOfItems() > MAX_PRIORITY_ITEMS ||
-                this.waitingQueue.getLast().getNumberOfItems() <= (MAX_PRIORITY_ITEMS + 1)) {
-            super.add(customer);
-            return;
-        }
+    @Override
+    protected void queued(int numberOfItems) {
+        super.queued(numberOfItems);
+        this.levelWorkload[this.lanes.levelOf(numberOfItems)] += FIXED_TIME + TIME_PER_ITEM * numberOfItems;
+    }
 
-        //Give new customer priority and move new customer in front of queued customers with more then 6 items.
-        int indexCounter = 0;
-        for (Customer next : this.waitingQueue) {
-            if (next.getNumberOfItems() > (MAX_PRIORITY_ITEMS + 1)) {
-                this.waitingQueue.add(indexCounter,customer);
-                this.history.add(customer);
-                super.totalCustomers++;
-                super.updateMaxQueueLength();
-                break;
-            }
-            indexCounter++;
-        }
+    @Override
+    protected void dequeued(int numberOfItems) {
+        super.dequeued(numberOfItems);
+        this.levelWorkload[this.lanes.levelOf(numberOfItems)] -= FIXED_TIME + TIME_PER_ITEM * numberOfItems;
     }
 }
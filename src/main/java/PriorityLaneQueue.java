@@ -0,0 +1,203 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Waiting queue of a priority cashier, built from one array-backed deque (lane) per priority class.
+ *
+ * A priority tier is defined by a maximum number of items. A customer of a tier may skip the queued customers
+ * that hold more than one item above that maximum, provided the last customer in the queue is such a customer.
+ * The level of a customer is the number of tiers that may skip it. Lane j starts at the first queued customer
+ * with a level of at least j, so the lanes together hold the queue in order and every insertion is an append
+ * to the end of a lane.
+ */
+public class PriorityLaneQueue extends AbstractQueue<Customer> {
+    private final int[] maxTierItems;           // maximum number of items per priority tier, ascending
+    private final ArrayDeque<Customer>[] lanes; // lane j holds the queued customers from the j-th boundary onwards
+    private int size;
+
+    /**
+     * Creates a lane queue for the given priority tiers
+     * @param maxTierItems int[] maximum number of items per tier, strictly ascending
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PriorityLaneQueue(int[] maxTierItems) {
+        if (maxTierItems.length == 0) {
+            throw new IllegalArgumentException("At least one priority tier is required");
+        }
+        for (int i = 1; i < maxTierItems.length; i++) {
+            if (maxTierItems[i] <= maxTierItems[i - 1]) {
+                throw new IllegalArgumentException("Priority tiers must be strictly ascending");
+            }
+        }
+        this.maxTierItems = maxTierItems.clone();
+        this.lanes = new ArrayDeque[maxTierItems.length + 1];
+        for (int i = 0; i < this.lanes.length; i++) {
+            this.lanes[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Returns the number of tiers that may skip a customer with the given number of items.
+     * @param numberOfItems int
+     * @return level int
+     */
+    public int levelOf(int numberOfItems) {
+        int level = 0;
+        while (level < this.maxTierItems.length && numberOfItems > (this.maxTierItems[level] + 1)) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Returns the priority tier (1 is the highest priority) of a customer with the given number of items,
+     * or 0 when the customer is not eligible for priority.
+     * @param numberOfItems int
+     * @return tier int
+     */
+    public int tierOf(int numberOfItems) {
+        for (int tier = 0; tier < this.maxTierItems.length; tier++) {
+            if (numberOfItems <= this.maxTierItems[tier]) {
+                return tier + 1;
+            }
+        }
+        return 0;
+    }
+
+    public int getNumberOfTiers() {
+        return this.maxTierItems.length;
+    }
+
+    /**
+     * Adds a customer to the queue.
+     * A customer that is eligible for priority is placed in front of all queued customers its tier may skip,
+     * if the last customer in the queue is one of them. Otherwise the customer joins the end of the queue.
+     * @param customer Customer
+     * @return true
+     */
+    @Override
+    public boolean offer(Customer customer) {
+        int numberOfItems = customer.getNumberOfItems();
+        int level = levelOf(numberOfItems);
+        int tier = tierOf(numberOfItems);
+        int lastLane = lastLaneBelow(this.lanes.length);
+
+        if (tier > 0 && lastLane >= tier && levelOf(this.lanes[lastLane].peekLast().getNumberOfItems()) >= tier) {
+            append(customer, level, tier);
+        } else {
+            append(customer, level, this.lanes.length);
+        }
+        this.size++;
+        return true;
+    }
+
+    @Override
+    public Customer poll() {
+        int lane = firstLane();
+        if (lane < 0) {
+            return null;
+        }
+        Customer customer = this.lanes[lane].pollFirst();
+        this.size--;
+
+        //Customers which are no longer behind a customer of this lane's level move down to the lower lanes.
+        while (!this.lanes[lane].isEmpty()) {
+            int level = levelOf(this.lanes[lane].peekFirst().getNumberOfItems());
+            if (level >= lane) {
+                break;
+            }
+            append(this.lanes[lane].pollFirst(), level, lane);
+        }
+        return customer;
+    }
+
+    @Override
+    public Customer peek() {
+        int lane = firstLane();
+        return (lane < 0) ? null : this.lanes[lane].peekFirst();
+    }
+
+    /**
+     * Returns the last customer in the queue.
+     * @return customer Customer
+     */
+    public Customer peekLast() {
+        int lane = lastLaneBelow(this.lanes.length);
+        return (lane < 0) ? null : this.lanes[lane].peekLast();
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        for (ArrayDeque<Customer> lane : this.lanes) {
+            lane.clear();
+        }
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<Customer> iterator() {
+        return new Iterator<Customer>() {
+            private int lane = 0;
+            private Iterator<Customer> current = lanes[0].iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!this.current.hasNext() && this.lane < lanes.length - 1) {
+                    this.lane++;
+                    this.current = lanes[this.lane].iterator();
+                }
+                return this.current.hasNext();
+            }
+
+            @Override
+            public Customer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.current.next();
+            }
+        };
+    }
+
+    /**
+     * Appends a customer at the end of the lanes below the given bound.
+     * A customer with a level beyond the last occupied lane opens the lane of its own level.
+     * @param customer Customer
+     * @param level int
+     * @param bound int
+     */
+    private void append(Customer customer, int level, int bound) {
+        this.lanes[Math.max(level, lastLaneBelow(bound))].addLast(customer);
+    }
+
+    private int firstLane() {
+        for (int i = 0; i < this.lanes.length; i++) {
+            if (!this.lanes[i].isEmpty()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lastLaneBelow(int bound) {
+        for (int i = bound - 1; i >= 0; i--) {
+            if (!this.lanes[i].isEmpty()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
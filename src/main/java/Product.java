@@ -16,11 +16,15 @@ public class Product implements Comparable<Product> {
     private String code;            // a unique product code; identical codes designate identical products
     private String description;     // the product description, useful for reporting
     private double price;           // the product's price
+    private int hash;               // hash of the product code, calculated once
+    private ProductCatalog catalog; // the catalog that assigned the id of this product, null if none
+    private int id = -1;            // dense id of this product in its catalog
 
     public Product(String code, String description, double price) {
         this.code = code;
         this.description = description;
         this.price = price;
+        this.hash = 31 + Objects.hashCode(code);
     }
 
     // TODO implement relevant overrides and/or local classes to be able to
@@ -28,7 +32,7 @@ public class Product implements Comparable<Product> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.code);
+        return this.hash;
     }
 
     @Override
@@ -41,12 +45,32 @@ public class Product implements Comparable<Product> {
             return false;
         }
         Product product = (Product) obj;
-        return (product.hashCode() == this.hashCode());
+        return Objects.equals(product.code, this.code);
     }
 
     @Override
     public int compareTo(Product product) {
-        return this.hashCode() - product.hashCode();
+        return this.code.compareTo(product.code);
+    }
+
+    /**
+     * Registers the id that the first catalog holding this product has assigned to it
+     * @param catalog ProductCatalog
+     * @param id int
+     */
+    void register(ProductCatalog catalog, int id) {
+        if (this.catalog == null) {
+            this.catalog = catalog;
+            this.id = id;
+        }
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public int getId() {
+        return id;
     }
 
     public String getCode() {
@@ -73,8 +97,9 @@ public class Product implements Comparable<Product> {
         if (xmlParser.nextBeginTag("products")) {
             xmlParser.nextTag();
             if (products != null) {
+                ProductCatalog catalog = (products instanceof ProductCatalog) ? (ProductCatalog) products : null;
                 Product product;
-                while ((product = importFromXML(xmlParser)) != null) {
+                while ((product = importFromXML(xmlParser, catalog)) != null) {
                     products.add(product);
                 }
             }
@@ -92,9 +117,24 @@ public class Product implements Comparable<Product> {
      * @throws XMLStreamException
      */
     public static Product importFromXML(XMLParser xmlParser) throws XMLStreamException {
+        return importFromXML(xmlParser, null);
+    }
+
+    /**
+     * read a single product from the xml stream, interning its code and description in the catalog
+     * @param xmlParser
+     * @param catalog  the catalog that interns the strings, or null
+     * @return
+     * @throws XMLStreamException
+     */
+    public static Product importFromXML(XMLParser xmlParser, ProductCatalog catalog) throws XMLStreamException {
         if (xmlParser.nextBeginTag("product")) {
             String code = xmlParser.getAttributeValue(null, "code");
             String description = xmlParser.getAttributeValue(null, "description");
+            if (catalog != null) {
+                code = catalog.intern(code);
+                description = catalog.intern(description);
+            }
             double price = xmlParser.getDoubleAttributeValue(null, "price", 0);
 
             Product product = new Product(code, description, price);
@@ -0,0 +1,242 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A set of products with hashed lookup by product code.
+ *
+ * Every product that is added receives a dense int id (0, 1, 2, ...) in order of addition, such that
+ * purchases and analytics can use arrays indexed by product id instead of maps keyed by products.
+ * Like a HashSet, a product with a code that is already in the catalog is not added again.
+ * Codes and descriptions of imported products are interned in the catalog, such that products and
+ * purchases share a single copy of every string.
+ * Lookups are safe while other threads add products, which allows parallel analytics to share a catalog.
+ *
+ * A product that is removed keeps its id, such that purchases of that product and arrays indexed by product id
+ * remain valid: get(id) still returns it, but it is no longer found by its code, counted or iterated.
+ * Use getIdCount() rather than size() as the length of arrays indexed by product id.
+ */
+public class ProductCatalog extends AbstractSet<Product> {
+    private volatile Product[] products;            // product by id
+    private volatile double[] prices;               // price by product id
+    private volatile boolean[] removed;             // whether the product of an id has been removed
+    private volatile int idCount;                   // number of ids that have been assigned
+    private volatile int size;                      // number of products that have not been removed
+    private final Map<String, Integer> idsByCode;   // product id by product code
+    private final Map<String, String> strings;      // interned codes and descriptions
+
+    public ProductCatalog() {
+        this.products = new Product[16];
+        this.prices = new double[16];
+        this.removed = new boolean[16];
+        this.idsByCode = new ConcurrentHashMap<>();
+        this.strings = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates a catalog holding the given products
+     * @param products Collection
+     */
+    public ProductCatalog(Collection<Product> products) {
+        this();
+        this.addAll(products);
+    }
+
+    /**
+     * Returns the catalog itself if the products already are a catalog, or a new catalog holding the products
+     * @param products Collection
+     * @return catalog ProductCatalog
+     */
+    public static ProductCatalog of(Collection<Product> products) {
+        return (products instanceof ProductCatalog) ? (ProductCatalog) products : new ProductCatalog(products);
+    }
+
+    /**
+     * Adds a product to the catalog and assigns it the next product id,
+     * a product that has been removed from this catalog gets its own id back
+     * @param product Product
+     * @return false if a product with the same code is already in the catalog
+     */
+    @Override
+    public synchronized boolean add(Product product) {
+        if (this.idsByCode.containsKey(product.getCode())) {
+            return false;
+        }
+        if (product.getCatalog() == this && this.removed[product.getId()]) {
+            this.removed[product.getId()] = false;
+            this.size++;
+            this.idsByCode.put(product.getCode(), product.getId());
+            return true;
+        }
+        int id = this.idCount;
+        if (id >= this.products.length) {
+            this.products = Arrays.copyOf(this.products, 2 * this.products.length);
+            this.prices = Arrays.copyOf(this.prices, 2 * this.prices.length);
+            this.removed = Arrays.copyOf(this.removed, 2 * this.removed.length);
+        }
+        this.products[id] = product;
+        this.prices[id] = product.getPrice();
+        product.register(this, id);
+        // publish the id only after the product and its price have been stored
+        this.idCount = id + 1;
+        this.size++;
+        this.idsByCode.put(product.getCode(), id);
+        return true;
+    }
+
+    /**
+     * Removes the product with the code of the given product, its id is not reused
+     * @param o Object
+     * @return false if the catalog does not hold the code
+     */
+    @Override
+    public synchronized boolean remove(Object o) {
+        if (!(o instanceof Product)) {
+            return false;
+        }
+        Integer id = this.idsByCode.remove(((Product) o).getCode());
+        if (id == null) {
+            return false;
+        }
+        this.removed[id] = true;
+        this.size--;
+        return true;
+    }
+
+    /**
+     * Returns the product with the given code, or null if the catalog does not hold that code
+     * @param code String
+     * @return product Product
+     */
+    public Product get(String code) {
+        Integer id = this.idsByCode.get(code);
+        return (id != null) ? this.products[id] : null;
+    }
+
+    /**
+     * Returns the product with the given id
+     * @param id int
+     * @return product Product
+     */
+    public Product get(int id) {
+        return this.products[id];
+    }
+
+    /**
+     * Returns the number of ids that have been assigned, including the ids of removed products
+     * @return idCount int
+     */
+    public int getIdCount() {
+        return this.idCount;
+    }
+
+    /**
+     * Returns whether the product with the given id has been removed
+     * @param id int
+     * @return boolean
+     */
+    public boolean isRemoved(int id) {
+        return this.removed[id];
+    }
+
+    /**
+     * Returns the id of a product in this catalog, or -1 if its code is not in the catalog.
+     * A removed product that was registered by this catalog keeps its id.
+     * @param product Product
+     * @return id int
+     */
+    public int idOf(Product product) {
+        if (product.getCatalog() == this) {
+            return product.getId();
+        }
+        Integer id = this.idsByCode.get(product.getCode());
+        return (id != null) ? id : -1;
+    }
+
+    /**
+     * Returns the id of a product, adding the product to the catalog if its code is not in the catalog yet
+     * @param product Product
+     * @return id int
+     */
+    public int register(Product product) {
+        int id = idOf(product);
+        if (id < 0) {
+            synchronized (this) {
+                add(product);
+                id = idOf(product);
+            }
+        }
+        return id;
+    }
+
+    public double getPrice(int id) {
+        return this.prices[id];
+    }
+
+    /**
+     * Returns the single copy of a string held by this catalog
+     * @param value String
+     * @return value String
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String interned = this.strings.putIfAbsent(value, value);
+        return (interned != null) ? interned : value;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return (o instanceof Product) && this.idsByCode.containsKey(((Product) o).getCode());
+    }
+
+    @Override
+    public Iterator<Product> iterator() {
+        return new Iterator<Product>() {
+            private int next = 0;
+            private Product last;
+
+            @Override
+            public boolean hasNext() {
+                while (this.next < idCount && removed[this.next]) {
+                    this.next++;
+                }
+                return this.next < idCount;
+            }
+
+            @Override
+            public Product next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                this.last = products[this.next++];
+                return this.last;
+            }
+
+            @Override
+            public void remove() {
+                if (this.last == null) {
+                    throw new IllegalStateException();
+                }
+                ProductCatalog.this.remove(this.last);
+                this.last = null;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
@@ -29,9 +29,19 @@ public class Purchase {
         return amount;
     }
 
+    /**
+     * Returns the id of the product in the catalog that holds it, or -1 if the product is in no catalog
+     * @return productId int
+     */
+    public int getProductId() {
+        return product.getId();
+    }
+
     /**
      * read a single purchase from the xml stream
+     * products are resolved by hashed code lookup when the products are a ProductCatalog
      * @param xmlParser
+     * @param products
      * @return
      * @throws XMLStreamException
      */
@@ -41,6 +51,10 @@ public class Purchase {
             int numItems = xmlParser.getIntegerAttributeValue(null, "amount", 0);
             xmlParser.findAndAcceptEndTag("purchase");
 
+            if (products instanceof ProductCatalog) {
+                Product product = ((ProductCatalog) products).get(productCode);
+                return (product != null) ? new Purchase(product, numItems) : null;
+            }
             if (products != null) {
                 for (Product product : products) {
                     if (productCode.equals(product.getCode())) {
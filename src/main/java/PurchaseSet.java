@@ -0,0 +1,90 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+/**
+ * The modifiable set of purchases of a customer.
+ * Every modification increments the modification stamps of the lists and tables that hold the set,
+ * such that aggregates over the purchases can tell that they are outdated. All modifications of a HashSet pass through add, remove, clear or the iterator.
+ */
+public class PurchaseSet extends HashSet<Purchase> {
+    private static final long serialVersionUID = 1L;
+
+    private transient volatile ModificationStamps stamps;   // incremented after every modification, null if none
+
+    public PurchaseSet() {
+        super();
+    }
+
+    public PurchaseSet(Collection<Purchase> purchases) {
+        super(purchases);
+    }
+
+    /**
+     * Increments the given stamps after every modification as well,
+     * the stamps are shared as long as the set is held by a single list or table
+     * @param stamps ModificationStamps of a list or table
+     */
+    synchronized void addStamps(ModificationStamps stamps) {
+        this.stamps = (this.stamps == null) ? stamps : this.stamps.with(stamps);
+    }
+
+    @Override
+    public boolean add(Purchase purchase) {
+        return changed(super.add(purchase));
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return changed(super.remove(o));
+    }
+
+    @Override
+    public void clear() {
+        boolean changed = !this.isEmpty();
+        super.clear();
+        changed(changed);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Purchase> filter) {
+        return changed(super.removeIf(filter));
+    }
+
+    @Override
+    public Iterator<Purchase> iterator() {
+        Iterator<Purchase> iterator = super.iterator();
+        return new Iterator<Purchase>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Purchase next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                changed(true);
+            }
+        };
+    }
+
+    private boolean changed(boolean changed) {
+        ModificationStamps stamps = this.stamps;
+        if (changed && stamps != null) {
+            stamps.increment();
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a customer that joins a queue which already holds the overflow length of the cashier.
+ */
+@Name("supermarket.QueueOverflow")
+@Label("Queue Overflow")
+@Category({"Supermarket", "Simulation"})
+@Description("A customer joins a queue that is longer than the overflow length of the cashier")
+@StackTrace(false)
+public class QueueOverflowEvent extends Event {
+    @Label("Simulated Time")
+    String simulatedTime;
+
+    @Label("Cashier")
+    String cashier;
+
+    @Label("Queue Length")
+    int queueLength;
+
+    @Label("Overflow Length")
+    int overflowLength;
+}
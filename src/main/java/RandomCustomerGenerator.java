@@ -0,0 +1,127 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.SplittableRandom;
+
+/**
+ * Draws random customers with a random number of items between 1 and 4 * averageNrItems,
+ * such that on average each customer buys averageNrItems.
+ * Arrival times are chosen well in advance of the closing time, such that cashiers can be expected
+ * to be able to finish all work (unless an extreme workload has been configured).
+ *
+ * The generator holds the last drawn customer in reusable arrays, so customers can be written out
+ * without creating Customer and Purchase objects. The same random stream gives the same customers.
+ */
+public class RandomCustomerGenerator {
+    private static final int MINUTE = 60;
+
+    private final Product[] prods;              // products, reordered while selecting distinct products
+    private final LocalTime openTime;
+    private final int maxArrivalSeconds;        // range of the arrival times after opening
+    private final int averageNrItems;
+
+    private int arrivalSecond;                  // arrival of the last drawn customer as second of the day
+    private String zipCode;                     // zip code of the last drawn customer
+    private int numberOfPurchases;              // number of purchases of the last drawn customer
+    private final Product[] purchaseProducts;   // products of the purchases of the last drawn customer
+    private final int[] purchaseAmounts;        // amounts of the purchases of the last drawn customer
+
+    /**
+     * @param products Collection products that can be bought, in the order used for random selection
+     * @param openTime LocalTime
+     * @param closingTime LocalTime
+     * @param averageNrItems int
+     */
+    public RandomCustomerGenerator(Collection<Product> products, LocalTime openTime, LocalTime closingTime,
+                                   int averageNrItems) {
+        this.prods = products.toArray(new Product[0]);
+        this.openTime = openTime;
+        // compute an arrival interval range of at least 60 seconds that ends one minute before closing time if possible
+        this.maxArrivalSeconds = Math.max(MINUTE, closingTime.toSecondOfDay() - openTime.toSecondOfDay() - MINUTE);
+        this.averageNrItems = averageNrItems;
+        this.purchaseProducts = new Product[this.prods.length];
+        this.purchaseAmounts = new int[this.prods.length];
+    }
+
+    /**
+     * Draws the next customer from the random stream
+     * @param randomizer SplittableRandom which is used by a single thread
+     */
+    public void next(SplittableRandom randomizer) {
+        // draw a random arrival time and zip code
+        this.arrivalSecond = this.openTime.plusSeconds(randomizer.nextInt(this.maxArrivalSeconds)).toSecondOfDay();
+        this.zipCode = generateRandomZIPCode(randomizer);
+
+        // select a random number of bought items
+        int remainingNumberOfItems = selectRandomNrItems(this.averageNrItems, randomizer);
+
+        // build a random distribution of these items across available products
+        // until all items have been distributed or all products have been used
+        this.numberOfPurchases = 0;
+        int upper = this.prods.length;
+        while (remainingNumberOfItems > 0 && upper > 0) {
+            int count = 1 + randomizer.nextInt(remainingNumberOfItems);
+            // pick a random product that has not been used yet by this customer
+            int pIdx = randomizer.nextInt(upper);
+            this.purchaseProducts[this.numberOfPurchases] = this.prods[pIdx];
+            this.purchaseAmounts[this.numberOfPurchases] = count;
+            this.numberOfPurchases++;
+            remainingNumberOfItems -= count;
+            // move the product out of the range of available products for this customer
+            upper--;
+            Product pt = this.prods[upper];
+            this.prods[upper] = this.prods[pIdx];
+            this.prods[pIdx] = pt;
+        }
+    }
+
+    /**
+     * Creates a customer object for the last drawn customer
+     * @return customer Customer
+     */
+    public Customer toCustomer() {
+        Customer c = new Customer(LocalTime.ofSecondOfDay(this.arrivalSecond), this.zipCode);
+        for (int i = 0; i < this.numberOfPurchases; i++) {
+            c.getItems().add(new Purchase(this.purchaseProducts[i], this.purchaseAmounts[i]));
+        }
+        return c;
+    }
+
+    public int getArrivalSecond() {
+        return arrivalSecond;
+    }
+
+    public String getZipCode() {
+        return zipCode;
+    }
+
+    public int getNumberOfPurchases() {
+        return numberOfPurchases;
+    }
+
+    public Product getPurchaseProduct(int purchase) {
+        return this.purchaseProducts[purchase];
+    }
+
+    public int getPurchaseAmount(int purchase) {
+        return this.purchaseAmounts[purchase];
+    }
+
+    private static int selectRandomNrItems(int averageNrItems, SplittableRandom randomizer) {
+        return 1 + (int) ((4 * averageNrItems - 1) * randomizer.nextDouble() * randomizer.nextDouble());
+    }
+
+    private static String generateRandomZIPCode(SplittableRandom randomizer) {
+        int randomDigit = randomizer.nextInt(5);
+        int randomChar1 = randomizer.nextInt(2);
+        int randomChar2 = randomizer.nextInt(2);
+        return String.valueOf(1013 + randomDigit) +
+                (char) (randomDigit + 9 * randomChar1 + randomChar2 + 'A') +
+                (char) (randomDigit + 3 * randomChar1 + 7 * randomChar2 + 'D');
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.List;
+
+/**
+ * The cashier metrics of all replications of a scenario, summarized per cashier and per metric.
+ */
+public class ReplicationResult {
+    private final CashierScenario scenario;
+    private final List<String> cashierNames;
+    private final double[][][] samples;         // value per cashier, per metric, per replication
+
+    /**
+     * @param scenario CashierScenario
+     * @param cashierNames List names of the cashiers of the scenario
+     * @param samples double[][][] value per cashier, per metric and per replication
+     */
+    public ReplicationResult(CashierScenario scenario, List<String> cashierNames, double[][][] samples) {
+        this.scenario = scenario;
+        this.cashierNames = cashierNames;
+        this.samples = samples;
+    }
+
+    /**
+     * Summarizes a metric of a cashier over all replications
+     * @param cashier int index of the cashier in the scenario
+     * @param metric CashierMetric
+     * @return summary MetricSummary
+     */
+    public MetricSummary getSummary(int cashier, CashierMetric metric) {
+        return new MetricSummary(this.samples[cashier][metric.ordinal()]);
+    }
+
+    /**
+     * Returns the value of a metric of a cashier in a single replication
+     * @param cashier int index of the cashier in the scenario
+     * @param metric CashierMetric
+     * @param replication int
+     * @return value double
+     */
+    public double getSample(int cashier, CashierMetric metric, int replication) {
+        return this.samples[cashier][metric.ordinal()][replication];
+    }
+
+    public int getReplications() {
+        return (this.samples.length > 0) ? this.samples[0][0].length : 0;
+    }
+
+    /**
+     * reports the mean, standard deviation and 95% confidence interval of every metric of every cashier
+     */
+    public void printResults() {
+        System.out.printf("\nReplication results of %s over %d replications:\n", this.scenario, this.getReplications());
+        for (int cashier = 0; cashier < this.cashierNames.size(); cashier++) {
+            System.out.printf("%s:\n", this.cashierNames.get(cashier));
+            for (CashierMetric metric : CashierMetric.values()) {
+                System.out.printf("\t%s: %s\n", metric.getLabel(), this.getSummary(cashier, metric));
+            }
+        }
+    }
+
+    public CashierScenario getScenario() {
+        return scenario;
+    }
+
+    public List<String> getCashierNames() {
+        return cashierNames;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo replications of a cashier scenario over randomly generated days.
+ *
+ * Every replication generates its own customers with addRandomCustomers and simulates a fresh set of cashiers.
+ * The random stream of every replication is split off a root SplittableRandom in replication order
+ * before any replication runs, and the samples are stored per replication and summarized in that order.
+ * A seed therefore reproduces the same numbers whatever the number of threads.
+ */
+public class ReplicationRunner {
+    private final Supermarket template;         // opening hours and products of the generated days
+    private final CashierScenario scenario;
+    private final int nCustomers;               // number of customers per generated day
+    private final int averageNrItems;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @param template Supermarket whose products and opening hours are used, its customers are not used
+     * @param scenario CashierScenario
+     * @param nCustomers int
+     * @param averageNrItems int
+     */
+    public ReplicationRunner(Supermarket template, CashierScenario scenario, int nCustomers, int averageNrItems) {
+        this.template = template;
+        this.scenario = scenario;
+        this.nCustomers = nCustomers;
+        this.averageNrItems = averageNrItems;
+    }
+
+    /**
+     * Runs a number of replications in parallel
+     * @param seed long
+     * @param replications int
+     * @return result ReplicationResult
+     */
+    public ReplicationResult run(long seed, int replications) {
+        // split the random streams in replication order, independent of the order in which replications run
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<Void>> tasks = new ArrayList<>(replications);
+        List<String> cashierNames = new ArrayList<>();
+        for (Cashier c : this.scenario.createCashiers()) {
+            cashierNames.add(c.getName());
+        }
+        double[][][] samples = new double[cashierNames.size()][CashierMetric.values().length][replications];
+        for (int r = 0; r < replications; r++) {
+            final int replication = r;
+            final SplittableRandom random = root.split();
+            tasks.add(() -> {
+                replicate(random, replication, samples);
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replications have been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replication failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return new ReplicationResult(this.scenario, cashierNames, samples);
+    }
+
+    /**
+     * Generates and simulates a single day and stores the metrics of its cashiers
+     * @param random SplittableRandom stream of this replication
+     * @param replication int
+     * @param samples double[][][] value per cashier, per metric and per replication
+     */
+    private void replicate(SplittableRandom random, int replication, double[][][] samples) {
+        Supermarket day = new Supermarket(this.template.name, this.template.getOpenTime(),
+                this.template.getClosingTime(), this.template.getProducts());
+        day.addRandomCustomers(this.nCustomers, this.averageNrItems, random);
+
+        List<Cashier> cashiers = this.scenario.createCashiers(Cashier.HistoryRetention.OFF);
+        day.simulateCashiers(cashiers);
+        for (int cashier = 0; cashier < cashiers.size(); cashier++) {
+            for (CashierMetric metric : CashierMetric.values()) {
+                samples[cashier][metric.ordinal()][replication] = metric.valueOf(cashiers.get(cashier));
+            }
+        }
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+        }
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a customer that selects the cashier with the lowest expected pass-through time.
+ */
+@Name("supermarket.RoutingDecision")
+@Label("Routing Decision")
+@Category({"Supermarket", "Simulation"})
+@Description("A customer selects the cashier with the lowest expected pass-through time")
+@StackTrace(false)
+public class RoutingDecisionEvent extends Event {
+    @Label("Simulated Time")
+    String simulatedTime;
+
+    @Label("Cashier")
+    @Description("The selected cashier")
+    String cashier;
+
+    @Label("Candidate Waits")
+    @Description("Expected pass-through time in seconds at every candidate cashier, as name=seconds")
+    String candidateWaits;
+
+    @Label("Pass-through Time")
+    @Description("Expected pass-through time in seconds at the selected cashier, 0 if there was a single cashier")
+    int passThroughTime;
+
+    @Label("Number of Items")
+    int numberOfItems;
+}
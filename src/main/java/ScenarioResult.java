@@ -0,0 +1,80 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.List;
+
+/**
+ * The cashiers of a simulated scenario, with their statistics combined over all cashiers.
+ */
+public class ScenarioResult {
+    private final CashierScenario scenario;
+    private final List<Cashier> cashiers;       // the cashiers after the simulation
+
+    public ScenarioResult(CashierScenario scenario, List<Cashier> cashiers) {
+        this.scenario = scenario;
+        this.cashiers = cashiers;
+    }
+
+    /**
+     * Returns the highest waiting time of any customer at any cashier
+     * @return maxWaitingTime int
+     */
+    public int getMaxWaitingTime() {
+        int maxWaitingTime = 0;
+        for (Cashier c : this.cashiers) {
+            maxWaitingTime = Math.max(maxWaitingTime, c.getMaxWaitingTime());
+        }
+        return maxWaitingTime;
+    }
+
+    /**
+     * Returns the average waiting time over all customers of all cashiers
+     * @return averageWaitingTime double
+     */
+    public double getAverageWaitingTime() {
+        long totalWaitingTime = 0;
+        for (Cashier c : this.cashiers) {
+            totalWaitingTime += c.getTotalWaitingTime();
+        }
+        int totalCustomers = this.getTotalCustomers();
+        return totalCustomers > 0 ? (double) totalWaitingTime / totalCustomers : 0.0;
+    }
+
+    /**
+     * Merges the waiting time histograms of all cashiers
+     * @return histogram WaitTimeHistogram
+     */
+    public WaitTimeHistogram getWaitTimeHistogram() {
+        WaitTimeHistogram histogram = new WaitTimeHistogram();
+        for (Cashier c : this.cashiers) {
+            histogram.merge(c.getWaitTimeHistogram());
+        }
+        return histogram;
+    }
+
+    public int getTotalCustomers() {
+        int totalCustomers = 0;
+        for (Cashier c : this.cashiers) {
+            totalCustomers += c.getTotalCustomers();
+        }
+        return totalCustomers;
+    }
+
+    /**
+     * reports the results of the cashiers of this scenario
+     */
+    public void printSimulationResults() {
+        Supermarket.printSimulationResults(this.cashiers);
+    }
+
+    public CashierScenario getScenario() {
+        return scenario;
+    }
+
+    public List<Cashier> getCashiers() {
+        return cashiers;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulates many cashier scenarios concurrently over the customers of one supermarket.
+ *
+ * Every scenario gets its own cashiers and its own scheduler, the customers and products of the supermarket
+ * are only read. Scenarios do not share any mutable state, so they run independently on the threads of the pool.
+ */
+public class ScenarioRunner {
+    private final Supermarket supermarket;      // the shared, read-only customer dataset
+    private final int threads;                  // number of scenarios that are simulated at the same time
+
+    /**
+     * Creates a runner using one thread per available processor
+     * @param supermarket Supermarket
+     */
+    public ScenarioRunner(Supermarket supermarket) {
+        this(supermarket, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param supermarket Supermarket
+     * @param threads int
+     */
+    public ScenarioRunner(Supermarket supermarket, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+        }
+        this.supermarket = supermarket;
+        this.threads = threads;
+    }
+
+    /**
+     * Simulates all scenarios and returns their results in the order of the scenarios
+     * @param scenarios List
+     * @return results List
+     */
+    public List<ScenarioResult> run(List<CashierScenario> scenarios) {
+        List<Callable<ScenarioResult>> tasks = new ArrayList<>(scenarios.size());
+        for (CashierScenario scenario : scenarios) {
+            tasks.add(() -> simulate(scenario));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, Math.max(1, tasks.size())));
+        try {
+            // invokeAll returns the futures in the order of the tasks
+            List<ScenarioResult> results = new ArrayList<>(tasks.size());
+            for (Future<ScenarioResult> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scenario simulation has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scenario simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Simulates a single scenario on the calling thread
+     * @param scenario CashierScenario
+     * @return result ScenarioResult
+     */
+    public ScenarioResult simulate(CashierScenario scenario) {
+        List<Cashier> cashiers = scenario.createCashiers();
+        this.supermarket.simulateCashiers(cashiers);
+        return new ScenarioResult(scenario, cashiers);
+    }
+
+    public Supermarket getSupermarket() {
+        return supermarket;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a cashier that completes the checkout of a customer.
+ */
+@Name("supermarket.ServiceEnd")
+@Label("Service End")
+@Category({"Supermarket", "Simulation"})
+@Description("A cashier completes the checkout of a customer")
+@StackTrace(false)
+public class ServiceEndEvent extends Event {
+    @Label("Simulated Time")
+    String simulatedTime;
+
+    @Label("Cashier")
+    String cashier;
+
+    @Label("Checkout Time")
+    @Description("Seconds spent on the checkout")
+    int checkOutTime;
+
+    @Label("Number of Items")
+    int numberOfItems;
+}
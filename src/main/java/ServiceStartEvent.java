@@ -0,0 +1,35 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a cashier that starts the checkout of a customer.
+ */
+@Name("supermarket.ServiceStart")
+@Label("Service Start")
+@Category({"Supermarket", "Simulation"})
+@Description("A cashier starts the checkout of a customer")
+@StackTrace(false)
+public class ServiceStartEvent extends Event {
+    @Label("Simulated Time")
+    String simulatedTime;
+
+    @Label("Cashier")
+    String cashier;
+
+    @Label("Waiting Time")
+    @Description("Seconds between queueing and the start of the checkout")
+    int waitingTime;
+
+    @Label("Number of Items")
+    int numberOfItems;
+}
@@ -0,0 +1,48 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+/**
+ * represents a single event on the integer-seconds clock of the simulation scheduler
+ * events are ordered by their time and, for identical times, by the order in which they were scheduled
+ */
+public class SimulationEvent implements Comparable<SimulationEvent> {
+    public enum Type {
+        ARRIVAL,        // a customer arrives at the cashiers and needs to be routed to a queue
+        CLOSING         // all cashiers finish their work until the closing time of the simulation
+    }
+
+    private final Type type;
+    private final int time;             // second of the day at which the event fires
+    private final long sequence;        // scheduling order, used to break ties between events at the same time
+    private final Customer customer;    // the arriving customer, null for other event types
+
+    public SimulationEvent(Type type, int time, long sequence, Customer customer) {
+        this.type = type;
+        this.time = time;
+        this.sequence = sequence;
+        this.customer = customer;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        if (this.time != other.time) {
+            return Integer.compare(this.time, other.time);
+        }
+        return Long.compare(this.sequence, other.sequence);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+}
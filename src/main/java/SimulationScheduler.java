@@ -0,0 +1,228 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Event scheduler for the cashier simulation.
+ *
+ * Arrival and closing events are kept in a priority queue on an integer-seconds clock.
+ * Service completions are not events of their own: a customer is routed by the expected waiting time of every
+ * cashier at its arrival, so every cashier with work (a customer being served or customers waiting) is advanced
+ * to the arrival time before routing. An arrival therefore costs O(busy cashiers), which is no more than
+ * the O(cashiers) of routing itself, and completion events would not lower it.
+ * Idle cashiers are left alone and are caught up in a single step when they are selected for a new customer
+ * or when the simulation closes. Idle time accumulates additively, so this gives the same results as advancing
+ * every cashier on every arrival.
+ */
+public class SimulationScheduler {
+    private final List<Cashier> cashiers;                   // all cashiers that take part in the simulation
+    private final Set<Cashier> activeCashiers;              // cashiers that currently have work to do
+    private final PriorityQueue<SimulationEvent> events;    // pending events ordered by time
+    private long sequence;                                  // number of events scheduled so far
+    private long firedEvents;                               // number of events fired so far
+    private int lateEvents;                                 // number of events that were scheduled after their time
+    private int routedCustomers;                            // number of customers that have been sent to a cashier
+    private int clock;                                      // second of the day of the last fired event
+    private BooleanSupplier abortCondition;                 // stops the run once it holds, null to never stop
+    private boolean aborted;
+
+    /**
+     * Creates a scheduler and restarts all cashiers at the given start time.
+     * @param cashiers List
+     * @param startTime LocalTime
+     */
+    public SimulationScheduler(List<Cashier> cashiers, LocalTime startTime) {
+        this.cashiers = cashiers;
+        this.activeCashiers = new LinkedHashSet<>();
+        this.events = new PriorityQueue<>();
+        this.clock = startTime.toSecondOfDay();
+
+        for (Cashier c : this.cashiers) {
+            c.restart(startTime);
+        }
+    }
+
+    /**
+     * Schedules the arrival of a customer at the cashiers at its queuedAt time.
+     * @param customer Customer
+     */
+    public void scheduleArrival(Customer customer) {
+        scheduleArrival(customer.getQueuedAt().toSecondOfDay(), customer);
+    }
+
+    /**
+     * Schedules the arrival of a customer at the cashiers at the given second of the day.
+     * @param arrivalSecond int
+     * @param customer Customer
+     */
+    public void scheduleArrival(int arrivalSecond, Customer customer) {
+        this.events.add(new SimulationEvent(SimulationEvent.Type.ARRIVAL, arrivalSecond, this.sequence++, customer));
+    }
+
+    /**
+     * Schedules the moment at which all cashiers finish their remaining work.
+     * @param closingTime LocalTime
+     */
+    public void scheduleClosing(LocalTime closingTime) {
+        this.events.add(new SimulationEvent(SimulationEvent.Type.CLOSING,
+                closingTime.toSecondOfDay(), this.sequence++, null));
+    }
+
+    /**
+     * Fires all scheduled events in order of time.
+     * The run stops early when the abort condition holds after an event has been fired.
+     * @return true if all events have been fired, false if the run has been aborted
+     */
+    public boolean run() {
+        SimulationEvent event;
+        while ((event = this.events.poll()) != null) {
+            fire(event);
+            if (this.abortCondition != null && this.abortCondition.getAsBoolean()) {
+                this.aborted = true;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets a condition which is checked after every event of run(),
+     * e.g. to stop a simulation that can no longer meet its service level.
+     * @param abortCondition BooleanSupplier, null to always run all events
+     */
+    public void setAbortCondition(BooleanSupplier abortCondition) {
+        this.abortCondition = abortCondition;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Fires the earliest scheduled event, if any.
+     * Used when arrivals are streamed in and the pending events act as a reorder buffer.
+     * @return true if an event has been fired
+     */
+    public boolean fireNext() {
+        SimulationEvent event = this.events.poll();
+        if (event == null) {
+            return false;
+        }
+        fire(event);
+        return true;
+    }
+
+    /**
+     * Handles a single event and advances the clock to its time.
+     * An event that is fired after a later event has already been fired is handled at the current clock,
+     * a late customer is replaced by a copy that queues at the current clock, such that its waiting time
+     * starts when it is handled.
+     * @param event SimulationEvent
+     */
+    protected void fire(SimulationEvent event) {
+        boolean late = this.firedEvents > 0 && event.getTime() < this.clock;
+        if (late) {
+            this.lateEvents++;
+        } else {
+            this.clock = event.getTime();
+        }
+        this.firedEvents++;
+        LocalTime eventTime = LocalTime.ofSecondOfDay(this.clock);
+
+        switch (event.getType()) {
+            case ARRIVAL:
+                arrive(late ? event.getCustomer().queuedAt(eventTime) : event.getCustomer(), eventTime);
+                break;
+            case CLOSING:
+                for (Cashier c : this.cashiers) {
+                    c.doTheWorkUntil(eventTime);
+                }
+                this.activeCashiers.clear();
+                break;
+        }
+    }
+
+    /**
+     * Advances the clock and the active cashiers without an event, e.g. when a live clock ticks between arrivals.
+     * The clock never moves backwards.
+     * @param second int second of the day
+     */
+    public void advanceTo(int second) {
+        if (second <= this.clock) {
+            return;
+        }
+        this.clock = second;
+        advanceActiveCashiers(LocalTime.ofSecondOfDay(second));
+    }
+
+    private void advanceActiveCashiers(LocalTime time) {
+        Iterator<Cashier> active = this.activeCashiers.iterator();
+        while (active.hasNext()) {
+            Cashier c = active.next();
+            c.doTheWorkUntil(time);
+            if (c.isIdle()) {
+                active.remove();
+            }
+        }
+    }
+
+    /**
+     * Advances the active cashiers until the arrival time and routes the customer to the fastest queue.
+     * @param customer Customer
+     * @param arrivalTime LocalTime
+     */
+    private void arrive(Customer customer, LocalTime arrivalTime) {
+        CustomerArrivalEvent event = new CustomerArrivalEvent();
+        event.begin();
+
+        //Let active cashiers work until the customer arrives, cashiers that run out of work become idle.
+        advanceActiveCashiers(arrivalTime);
+
+        //Select fastest queue, an idle cashier first catches up with the clock before taking the customer.
+        Cashier selectedCashier = customer.selectCashier(this.cashiers);
+        if (selectedCashier == null) {
+            return;
+        }
+        if (!this.activeCashiers.contains(selectedCashier)) {
+            selectedCashier.doTheWorkUntil(arrivalTime);
+        }
+        selectedCashier.add(customer);
+        this.routedCustomers++;
+        if (event.shouldCommit()) {
+            event.simulatedTime = arrivalTime.toString();
+            event.cashier = selectedCashier.getName();
+            event.zipCode = customer.getZipCode();
+            event.numberOfItems = customer.getNumberOfItems();
+            event.commit();
+        }
+        if (!selectedCashier.isIdle()) {
+            this.activeCashiers.add(selectedCashier);
+        }
+    }
+
+    public int getClock() {
+        return clock;
+    }
+
+    public int getPendingEvents() {
+        return this.events.size();
+    }
+
+    public int getLateEvents() {
+        return lateEvents;
+    }
+
+    public int getRoutedCustomers() {
+        return routedCustomers;
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches for the cheapest mix of FIFO and priority cashiers that meets a waiting time SLA.
+ *
+ * Candidate mixes are ranked by cost, then by number of cashiers and then by number of FIFO cashiers,
+ * and the first candidate in that ranking that meets the SLA is the optimum.
+ * Candidates are evaluated in parallel in waves of WAVE_SIZE candidates. Within a wave:
+ *  - a simulation is aborted as soon as it can no longer meet the SLA,
+ *  - a simulation is aborted as soon as a better ranked candidate is known to meet the SLA.
+ * No more waves are started once a candidate meets the SLA, as all remaining candidates rank lower.
+ * Waves have a fixed size, so the result does not depend on the number of threads.
+ *
+ * The search is exhaustive in order of rank: when no candidate meets the SLA, all
+ * (maxFifoCashiers + 1) * (maxPriorityCashiers + 1) - 1 candidates are simulated, 44 with the default bounds.
+ * Pruning by monotonicity would not skip any of them: a mix with at most as many cashiers of each type
+ * never ranks lower, so it has been evaluated before any mix that contains it.
+ */
+public class StaffingOptimizer {
+    public static final int WAVE_SIZE = 16;     // number of candidates that are evaluated together
+
+    private final Supermarket supermarket;
+    private final WaitingTimeSLA sla;
+    private final double fifoCost;              // cost of opening a FIFO lane
+    private final double priorityCost;          // cost of opening a priority lane
+    private int maxFifoCashiers = 8;
+    private int maxPriorityCashiers = 4;
+    private int maxNumPriorityItems = 5;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private int simulated;                      // number of candidates that have been simulated completely
+    private int aborted;                        // number of simulations that have been aborted
+
+    /**
+     * @param supermarket Supermarket with the customers to be handled
+     * @param sla WaitingTimeSLA
+     * @param fifoCost double cost per FIFO lane
+     * @param priorityCost double cost per priority lane
+     */
+    public StaffingOptimizer(Supermarket supermarket, WaitingTimeSLA sla, double fifoCost, double priorityCost) {
+        this.supermarket = supermarket;
+        this.sla = sla;
+        this.fifoCost = fifoCost;
+        this.priorityCost = priorityCost;
+    }
+
+    /**
+     * Finds the cheapest scenario within the configured bounds that meets the SLA
+     * @return result ScenarioResult of the cheapest scenario, or null if no scenario meets the SLA
+     */
+    public ScenarioResult optimize() {
+        List<CashierScenario> candidates = this.candidates();
+        int totalCustomers = 0;
+        for (Customer c : this.supermarket.getCustomers()) {
+            if (c.getNumberOfItems() > 0) {
+                totalCustomers++;
+            }
+        }
+        this.simulated = this.aborted = 0;
+
+        AtomicInteger bestIndex = new AtomicInteger(Integer.MAX_VALUE);    // rank of the best known candidate
+        ScenarioResult[] results = new ScenarioResult[candidates.size()];
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            int next = 0;
+            while (next < candidates.size() && bestIndex.get() == Integer.MAX_VALUE) {
+                List<Callable<Boolean>> wave = new ArrayList<>(WAVE_SIZE);
+                for (; next < candidates.size() && wave.size() < WAVE_SIZE; next++) {
+                    final int index = next;
+                    final int customers = totalCustomers;
+                    wave.add(() -> evaluate(candidates.get(index), index, customers, bestIndex, results));
+                }
+
+                List<Future<Boolean>> outcomes = executor.invokeAll(wave);
+                for (Future<Boolean> outcome : outcomes) {
+                    if (outcome.get()) {
+                        this.simulated++;
+                    } else {
+                        this.aborted++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Staffing optimization has been interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Staffing optimization failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int best = bestIndex.get();
+        return (best < candidates.size()) ? results[best] : null;
+    }
+
+    /**
+     * Simulates a candidate and stores its result if it meets the SLA
+     * @return true if the simulation has completed, false if it has been aborted
+     */
+    private boolean evaluate(CashierScenario scenario, int index, int totalCustomers,
+                             AtomicInteger bestIndex, ScenarioResult[] results) {
+        List<Cashier> cashiers = scenario.createCashiers();
+        boolean completed = this.supermarket.simulateCashiers(cashiers,
+                () -> bestIndex.get() < index || this.sla.isViolated(cashiers, totalCustomers));
+        if (completed) {
+            ScenarioResult result = new ScenarioResult(scenario, cashiers);
+            if (this.sla.isMetBy(result)) {
+                results[index] = result;
+                bestIndex.accumulateAndGet(index, Math::min);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * @return all scenarios within the bounds, ranked by cost
+     */
+    private List<CashierScenario> candidates() {
+        List<CashierScenario> candidates = new ArrayList<>();
+        for (int fifo = 0; fifo <= this.maxFifoCashiers; fifo++) {
+            for (int priority = 0; priority <= this.maxPriorityCashiers; priority++) {
+                if (fifo + priority > 0) {
+                    candidates.add(new CashierScenario(fifo, priority, this.maxNumPriorityItems));
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(this::costOf)
+                .thenComparingInt(s -> s.getFifoCashiers() + s.getPriorityCashiers())
+                .thenComparingInt(CashierScenario::getFifoCashiers));
+        return candidates;
+    }
+
+    /**
+     * Calculates the cost of opening the lanes of a scenario
+     * @param scenario CashierScenario
+     * @return cost double
+     */
+    public double costOf(CashierScenario scenario) {
+        return scenario.getFifoCashiers() * this.fifoCost + scenario.getPriorityCashiers() * this.priorityCost;
+    }
+
+    /**
+     * Sets the largest numbers of cashiers of each type that may be opened
+     * @param maxFifoCashiers int
+     * @param maxPriorityCashiers int
+     */
+    public void setMaxCashiers(int maxFifoCashiers, int maxPriorityCashiers) {
+        this.maxFifoCashiers = maxFifoCashiers;
+        this.maxPriorityCashiers = maxPriorityCashiers;
+    }
+
+    public void setMaxNumPriorityItems(int maxNumPriorityItems) {
+        this.maxNumPriorityItems = maxNumPriorityItems;
+    }
+
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, not " + threads);
+        }
+        this.threads = threads;
+    }
+
+    public int getSimulated() {
+        return simulated;
+    }
+
+    public int getAborted() {
+        return aborted;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The cashier statistics and the zip code aggregation of a single simulated store of a chain.
+ * The customers and cashiers of the store are not kept, such that a chain result stays small.
+ */
+public class StoreResult {
+    private final String name;                      // name of the dataset of the store
+    private final int numberOfCustomers;
+    private final CashierScenario scenario;         // the cashiers that have been simulated
+    private final List<CashierStatistics> cashiers; // statistics of the cashiers after the simulation
+    private final ZipCodeAggregation aggregation;   // purchases of the customers of the store per zip code
+
+    public StoreResult(String name, int numberOfCustomers, CashierScenario scenario, List<CashierStatistics> cashiers,
+                       ZipCodeAggregation aggregation) {
+        this.name = name;
+        this.numberOfCustomers = numberOfCustomers;
+        this.scenario = scenario;
+        this.cashiers = cashiers;
+        this.aggregation = aggregation;
+    }
+
+    /**
+     * Returns the highest waiting time of any customer at any cashier of the store
+     * @return maxWaitingTime int
+     */
+    public int getMaxWaitingTime() {
+        int maxWaitingTime = 0;
+        for (CashierStatistics c : this.cashiers) {
+            maxWaitingTime = Math.max(maxWaitingTime, c.getMaxWaitingTime());
+        }
+        return maxWaitingTime;
+    }
+
+    /**
+     * Returns the average waiting time over all customers of all cashiers of the store
+     * @return averageWaitingTime double
+     */
+    public double getAverageWaitingTime() {
+        long totalWaitingTime = 0;
+        int totalCustomers = 0;
+        for (CashierStatistics c : this.cashiers) {
+            totalWaitingTime += c.getTotalWaitingTime();
+            totalCustomers += c.getTotalCustomers();
+        }
+        return totalCustomers > 0 ? (double) totalWaitingTime / totalCustomers : 0.0;
+    }
+
+    /**
+     * Merges the longest waiting times of all cashiers of the store
+     * @return waitingTimes List of at most Cashier.WORST_WAITS waiting times, longest first
+     */
+    public List<Integer> getWorstWaitingTimes() {
+        List<Integer> worst = new ArrayList<>();
+        for (CashierStatistics c : this.cashiers) {
+            for (int waitingTime : c.getWorstWaitingTimes()) {
+                worst.add(waitingTime);
+            }
+        }
+        worst.sort(Collections.reverseOrder());
+        return worst.subList(0, Math.min(worst.size(), Cashier.WORST_WAITS));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getNumberOfCustomers() {
+        return numberOfCustomers;
+    }
+
+    public CashierScenario getScenario() {
+        return scenario;
+    }
+
+    public List<CashierStatistics> getCashiers() {
+        return cashiers;
+    }
+
+    public ZipCodeAggregation getAggregation() {
+        return aggregation;
+    }
+}
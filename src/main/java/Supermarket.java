@@ -2,24 +2,47 @@
  * Supermarket Customer check-out and Cashier simulation
  * @author  hbo-ict@hva.nl
  */
+import utils.Metrics;
 import utils.SLF4J;
 import utils.XMLParser;
 import utils.XMLWriter;
 import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.*;
-
-import static java.util.stream.Collectors.toMap;
+import java.util.function.BooleanSupplier;
 
 public class Supermarket {
+    private static final Metrics.Counter IMPORTED_CUSTOMERS = Metrics.REGISTRY.counter(
+            "supermarket_customers_imported_total", "Number of customers imported from XML");
+    private static final Metrics.Timer IMPORT_TIME = Metrics.REGISTRY.timer(
+            "supermarket_xml_import_seconds", "Time spent importing supermarkets from XML");
+    private static final Metrics.Counter ROUTED_CUSTOMERS = Metrics.REGISTRY.counter(
+            "supermarket_customers_routed_total", "Number of customers routed to a cashier by the simulation");
+    private static final Metrics.Timer SIMULATION_TIME = Metrics.REGISTRY.timer(
+            "supermarket_simulation_seconds", "Time spent simulating cashiers");
+    private static final Metrics.Timer TOTAL_ITEMS_TIME = analyticsTimer("getTotalNumberOfItems");
+    private static final Metrics.Timer AGGREGATION_TIME = analyticsTimer("aggregateByZipCode");
+    private static final Metrics.Timer REVENUE_TIME = analyticsTimer("revenueByZipCode");
+    private static final Metrics.Timer MOST_BOUGHT_TIME = analyticsTimer("mostBoughtProductByZipCode");
+    private static final Metrics.Timer TIME_SERIES_TIME = analyticsTimer("timeSeries");
+
     public String name;                 // name of the case for reporting purposes
-    private Set<Product> products;      // a set of products that is being sold in the supermarket
-    private List<Customer> customers;   // a list of customers that have visited the supermarket
+    private Set<Product> products;      // a catalog of products that is being sold in the supermarket
+    private CustomerList customers;     // a list of customers that have visited the supermarket
+    private CustomerTable customerTable;    // columnar storage of the customers, null if not loaded
     private List<Cashier> cashiers;     // the cashiers which have been configured to handle the customers
 
     private LocalTime openTime;         // start time of the simulation
     private LocalTime closingTime;      // end time of the simulation
 
+    private boolean parallelAnalytics = true;   // whether analytics may use the common fork/join pool
+    private int parallelThreshold = 2 * ZipCodeAggregationTask.LEAF_SIZE;  // minimum customers to go parallel
+    private ZipCodeAnalytics analytics;         // aggregates of the customers, kept up to date as customers are added
+    private ArrivalIndex arrivalIndex;          // customers in order of arrival, rebuilt when the customers change
+
     private final int MINUTE = 60;
 
     public Supermarket(String name, LocalTime openTime, LocalTime closingTime) {
@@ -29,14 +52,52 @@ public class Supermarket {
         this.cashiers = new ArrayList<>();
     }
 
+    /**
+     * Creates a supermarket without customers that sells the given products
+     * @param name String
+     * @param openTime LocalTime
+     * @param closingTime LocalTime
+     * @param products Set of products, which is shared and not copied
+     */
+    public Supermarket(String name, LocalTime openTime, LocalTime closingTime, Set<Product> products) {
+        this(name, openTime, closingTime);
+        this.products = products;
+        this.customers = new CustomerList(new ArrayList<>());
+    }
+
+    /**
+     * Converts the customers into a columnar customer table.
+     * From then on the customers of the supermarket are views on the rows of the table,
+     * and the simulation and analytics run against the table.
+     * @return table CustomerTable
+     */
+    public CustomerTable loadCustomerTable() {
+        if (this.customerTable == null && this.customers != null && this.products != null) {
+            this.customerTable = CustomerTable.of(this.customers, this.products);
+            this.customers = new CustomerList(this.customerTable.asList(), this.customerTable.isReadOnly());
+        }
+        return this.customerTable;
+    }
+
+    /**
+     * the total number of items bought by all customers, which is maintained while customers are added
+     * @return totalNumberOfItems int
+     */
     public int getTotalNumberOfItems() {
-        int totalItems = 0;
-        for (Customer c: this.customers) {
-            for (Purchase p: c.getItems()) {
-                totalItems += p.getAmount();
+        long start = TOTAL_ITEMS_TIME.start();
+        try {
+            if (this.products == null && this.customerTable == null) {
+                // without products there is no catalog to aggregate on
+                int totalItems = 0;
+                for (Customer c : this.customers) {
+                    totalItems += c.getNumberOfItems();
+                }
+                return totalItems;
             }
+            return this.analytics().getAggregation(this.analyticsThreshold()).getTotalNumberOfItems();
+        } finally {
+            TOTAL_ITEMS_TIME.stop(start);
         }
-        return totalItems;
     }
 
     /**
@@ -51,6 +112,7 @@ public class Supermarket {
             return;
         }
 
+        // revenues and most bought products are answered from a single aggregation of the customers
         System.out.printf("%d customers have shopped %d items out of %d different products\n",
                 this.customers.size(), this.getTotalNumberOfItems(), this.products.size());
 
@@ -80,185 +142,217 @@ public class Supermarket {
      * reports results of the cashier simulation
      */
     public void printSimulationResults() {
+        printSimulationResults(this.cashiers);
+    }
+
+    /**
+     * reports results of a simulation of the given cashiers
+     * @param cashiers List
+     */
+    public static void printSimulationResults(List<Cashier> cashiers) {
         System.out.print("\nSimulation scenario results:\n");
         System.out.print("Cashiers: \tn-customers: \tavg-wait-time: \tmax-wait-time: \tmax-queue-length: \tavg-check-out-time: \tidle-time:\n");
         System.out.print("-------------------------------------------------------------------------------------------------------------------\n");
 
-        for (Cashier c : this.cashiers) {
-            double totalCheckoutTime = 0.0;
-            for (Customer customer : c.history) {
-                totalCheckoutTime = totalCheckoutTime + c.expectedCheckOutTime(customer.getNumberOfItems());
-            }
-            double averageCheckOutTime = (totalCheckoutTime / c.history.size());
-            averageCheckOutTime = Math.round(averageCheckOutTime * 100.0) / 100.0;
+        for (Cashier c : cashiers) {
+            double averageCheckOutTime = c.getAverageCheckOutTime();
             System.out.printf("%s\t\t\t %s\t\t\t\t %s\t\t\t\t %s\t\t\t\t %s\t\t\t\t %s\t\t\t\t\t %s\n",
                     c.getName(), c.getTotalCustomers(), c.getAverageWaitingTime(), c.getMaxWaitingTime(),
                     c.getMaxQueueLength(),  averageCheckOutTime, c.getTotalIdleTime());
         }
     }
 
+    /**
+     * aggregates the purchases of all customers per zip code in a single pass
+     * large sets of customers are aggregated in parallel, with the same result as the sequential aggregation
+     * customers that are added later are merged into a new aggregation, see ZipCodeAnalytics
+     * @return aggregation ZipCodeAggregation
+     */
+    public ZipCodeAggregation aggregateByZipCode() {
+        long start = AGGREGATION_TIME.start();
+        try {
+            return this.analytics().getAggregation(this.analyticsThreshold());
+        } finally {
+            AGGREGATION_TIME.stop(start);
+        }
+    }
+
+    /**
+     * the analytics of the current customers, which are replaced when the customers are replaced
+     * @return analytics ZipCodeAnalytics
+     */
+    private synchronized ZipCodeAnalytics analytics() {
+        if (this.analytics == null || !this.analytics.isFor(this.customers, this.customerTable)) {
+            ProductCatalog catalog = (this.customerTable != null) ?
+                    this.customerTable.getCatalog() : ProductCatalog.of(this.products);
+            this.analytics = new ZipCodeAnalytics(this.customers, this.customerTable, catalog);
+        }
+        return this.analytics;
+    }
+
+    /**
+     * the customers in order of arrival, which is built once and rebuilt when the customers have changed
+     * @return index ArrivalIndex
+     */
+    public synchronized ArrivalIndex arrivalIndex() {
+        if (this.arrivalIndex == null || !this.arrivalIndex.isFor(this.customers, this.customerTable)) {
+            this.arrivalIndex = ArrivalIndex.of(this.customers, this.customerTable);
+        }
+        return this.arrivalIndex;
+    }
+
+    /**
+     * the customers that arrive from the first up to, but not including, the second time
+     * @param from LocalTime
+     * @param to LocalTime
+     * @return customers List in order of arrival
+     */
+    public List<Customer> getCustomersArrivingBetween(LocalTime from, LocalTime to) {
+        return this.arrivalIndex().between(from, to);
+    }
+
+    /**
+     * the minimum number of customers that the analytics aggregate in parallel
+     * @return threshold int
+     */
+    private int analyticsThreshold() {
+        return this.parallelAnalytics ? this.parallelThreshold : Integer.MAX_VALUE;
+    }
+
     /**
      * calculates a map of aggregated revenues per zip code that is also ordered by zip code
      * @return
      */
     public Map<String, Double> revenueByZipCode() {
-        Map<String, Double> revenues = new HashMap<>();
-
-        //Calculate revenues using data from customers and their purchases
-        for (Customer c: this.customers) {
-            for (Purchase p : c.getItems()) {
-                if (revenues.containsKey(c.getZipCode())) {
-                    Double currentValue = revenues.get(c.getZipCode());
-                    revenues.put(c.getZipCode(), currentValue + (p.getProduct().getPrice() * p.getAmount()));
-                } else {
-                    revenues.put(c.getZipCode(), p.getProduct().getPrice() * p.getAmount());
-                }
-            }
-
-            if (c.getItems().size() == 0) {
-                revenues.put(c.getZipCode(), 0.00);
-            }
+        long start = REVENUE_TIME.start();
+        try {
+            return this.analytics().revenueByZipCode(this.analyticsThreshold());
+        } finally {
+            REVENUE_TIME.stop(start);
         }
-        //Using the TreeMap's natural way of sorting to sort data on zip code
-        revenues = new TreeMap<>(revenues);
-        return revenues;
     }
 
     /**
-     * (DIFFICULT!!!)
      * calculates a map of most bought products per zip code that is also ordered by zip code
-     * if multiple products have the same maximum count, just pick one.
+     * if multiple products have the same maximum count, the product that comes first in the catalog is picked.
      * @return Map
      */
     public Map<String, Product> mostBoughtProductByZipCode() {
-        Map<String, Product> mostBought = new HashMap<>();
-
-        // TODO create an appropriate data structure for the mostBought
-        //  and calculate its contents
-
-        //We made an structure as following: {"zipcode" => {0 => { "product description" => amount} }}
-        // Example:
-        // { 1013MF =>
-        //  { 1 => { Croissant => 2 },
-        //    2 => { Douwe Egberts snelfilter 500g => 1 }
-        //  }
-        // }
-
-        // This is the outermap of the datastructure containing the zipcode as key value
-        HashMap<String, HashMap<Integer, HashMap<Product, Integer>>> outerMap = new HashMap<>();
-        // Count is used as index value for the products
-        int count = 0;
-
-        // Loop through customers
-        for (Customer c: this.customers) {
-            // Loop through bought items of customers
-            for (Purchase p: c.getItems()) {
-                count++;
-                // initialize the variables for the data structure
-                HashMap<Product, Integer> tweedeMap = new HashMap<>();
-                HashMap<Integer, HashMap<Product, Integer>> eersteMap = new HashMap<>();
-                tweedeMap.put(p.getProduct(), p.getAmount());
-                eersteMap.put(count, tweedeMap);
-
-
-                if(outerMap.containsKey(c.getZipCode())) {
-                    boolean productExists = false;
-                    int productKey = 0;
-                    int amount = 0;
-
-                    //Loop through dataset to check if product already exists
-                    for (Map.Entry<Integer, HashMap<Product, Integer>> eersteTest: outerMap.get(c.getZipCode()).entrySet()) {
-                        for (Map.Entry<Product, Integer> tweedeTest: eersteTest.getValue().entrySet()) {
-                            if(p.getProduct().getDescription() == tweedeTest.getKey().getDescription()) {
-                                productExists = true;
-                                productKey = eersteTest.getKey();
-                                amount = tweedeTest.getValue();
-                            }
-                        }
-                    }
-
-                    // If the product exists, increment the amount. If the product doesn't exists add it to the collection
-                    if(productExists) {
-                        outerMap.get(c.getZipCode()).get(productKey).put(p.getProduct(), p.getAmount() + amount);
-                    } else {
-                        outerMap.get(c.getZipCode()).put(count, tweedeMap);
-                    }
-
-                } else {
-                    // This will add a new zipcode with the bought item
-                    outerMap.put(c.getZipCode(), eersteMap);
-                }
-            }
+        long start = MOST_BOUGHT_TIME.start();
+        try {
+            return this.analytics().mostBoughtProductByZipCode(this.analyticsThreshold());
+        } finally {
+            MOST_BOUGHT_TIME.stop(start);
         }
+    }
 
-        //This will loop through all items and calculates the most bought item
-        for (Map.Entry<String, HashMap<Integer, HashMap<Product, Integer>>> outer: outerMap.entrySet()) {
-            Product highestAmountProduct = null;
-            String key = outer.getKey();
-            Integer amount = 0;
-
-            for (Map.Entry<Integer, HashMap<Product, Integer>> innermap: outer.getValue().entrySet())
-            {
-                for(Map.Entry<Product, Integer> innerinner: innermap.getValue().entrySet())
-                {
-                    if(highestAmountProduct == null) {
-                        highestAmountProduct = innerinner.getKey();
-                        amount = innerinner.getValue();
-                        mostBought.put(key, highestAmountProduct);
-                    } else if(innerinner.getValue() > amount) {
-                        highestAmountProduct = innerinner.getKey();
-                        amount = innerinner.getValue();
-                        mostBought.put(key, highestAmountProduct);
-                    }
-                }
-            }
+    /**
+     * the arrivals, items and revenue of the customers over the day, from which the totals of any window of time
+     * are answered in constant time, see ArrivalTimeSeries
+     * the series is kept until the customers change, like the zip code aggregation
+     * @return series ArrivalTimeSeries
+     */
+    public ArrivalTimeSeries timeSeries() {
+        long start = TIME_SERIES_TIME.start();
+        try {
+            return this.analytics().getTimeSeries();
+        } finally {
+            TIME_SERIES_TIME.stop(start);
         }
+    }
 
-        //Copied from internet https://javarevisited.blogspot.com/2017/07/how-to-sort-map-by-keys-in-java-8.html
-        Map<String, Product> sorted = mostBought.entrySet().stream().sorted(Collections.reverseOrder(Map.Entry.comparingByKey())).collect( toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, e2) -> e2, LinkedHashMap::new));
+    /**
+     * the window of the given width with the most arrivals between opening and closing time
+     * @param width Duration
+     * @return window TimeWindow
+     */
+    public ArrivalTimeSeries.TimeWindow peakArrivalWindow(Duration width) {
+        return this.timeSeries().peakWindow(ArrivalTimeSeries.Measure.ARRIVALS, width, this.openTime, this.closingTime);
+    }
 
-        return sorted;
+    private static Metrics.Timer analyticsTimer(String method) {
+        return Metrics.REGISTRY.timer("supermarket_analytics_seconds", "Time spent in the analytics methods",
+                "method", method);
     }
 
     /**
      * simulate the cashiers while handling all customers that enter their queues
      */
     public void simulateCashiers() {
+        this.simulateCashiers(this.cashiers);
+    }
+
+    /**
+     * simulate the given cashiers while handling all customers that enter their queues
+     * the customers are only read, such that multiple sets of cashiers can be simulated concurrently
+     * @param cashiers List
+     */
+    public void simulateCashiers(List<Cashier> cashiers) {
+        this.simulateCashiers(cashiers, null);
+    }
+
+    /**
+     * simulate the given cashiers until all customers have been handled or the abort condition holds
+     * the abort condition is checked after every arrival and at closing time
+     * @param cashiers List
+     * @param abortCondition BooleanSupplier, null to never abort
+     * @return true if the simulation has completed, false if it has been aborted
+     */
+    public boolean simulateCashiers(List<Cashier> cashiers, BooleanSupplier abortCondition) {
+        long start = SIMULATION_TIME.start();
         // all cashiers restart at open time
-        for (Cashier c : this.cashiers) {
-            c.restart(this.openTime);
+        SimulationScheduler scheduler = new SimulationScheduler(cashiers, this.openTime);
+        scheduler.setAbortCondition(abortCondition);
+
+        // customers are streamed through the scheduler in order of arrival,
+        // such that only the customers in the queues are held
+        ArrivalIndex index = this.arrivalIndex();
+        for (int i = 0; i < index.size() && !scheduler.isAborted(); i++) {
+            scheduler.scheduleArrival(index.getArrivalSecond(i), index.get(i));
+            scheduler.run();
         }
 
-        //Sort customer data on arrival time and create a queue of sorted customers
-        ArrayList<Customer> customerList = new ArrayList<>(this.customers);
-        customerList.sort(new SortCustomerByQueuedAt());
-        Queue<Customer> shoppingQueue = new LinkedList<>(customerList);
-
-        //Get first customer in the Queue
-        Customer nextCustomer = shoppingQueue.peek();
-        while (nextCustomer != null) {
-            //Let cashier work until new customer arrives.
-            for (Cashier c : this.cashiers) {
-                c.doTheWorkUntil(nextCustomer.getQueuedAt());
-            }
-
-            //Select fastest Queue and redirect customer to that queue
-            Cashier selectedCashier = nextCustomer.selectCashier(this.cashiers);
-            selectedCashier.add(nextCustomer);
+        boolean completed = finishSimulation(scheduler, cashiers);
+        SIMULATION_TIME.stop(start);
+        return completed;
+    }
 
-            //Remove current customer from queue and get new customer.
-            shoppingQueue.remove();
-            nextCustomer = shoppingQueue.peek();
-        }
-        // all customers have been handled;
+    /**
+     * runs the remaining events of the scheduler and lets the cashiers finish their work
+     * @param scheduler SimulationScheduler
+     * @param cashiers List
+     * @return false if the scheduler has been aborted
+     */
+    private boolean finishSimulation(SimulationScheduler scheduler, List<Cashier> cashiers) {
+        // once all customers have been handled,
         // cashiers finish their work until closing time + 15 minutes of overtime
         final int overtime = 15 * MINUTE;
-        for (Cashier c : this.cashiers) {
-            c.doTheWorkUntil(this.closingTime.plusSeconds(overtime));
+        boolean completed = false;
+        if (!scheduler.isAborted()) {
+            scheduler.scheduleClosing(this.closingTime.plusSeconds(overtime));
+            completed = scheduler.run();
+        }
+        recordSimulationMetrics(scheduler, cashiers);
+        if (!completed) {
+            return false;
+        }
+        for (Cashier c : cashiers) {
             // remove the overtime from the current time and the idle time of the cashier
             c.setCurrentTime(c.getCurrentTime().minusSeconds(overtime));
             c.setTotalIdleTime(c.getTotalIdleTime() - overtime);
         }
+        return true;
+    }
+
+    private static void recordSimulationMetrics(SimulationScheduler scheduler, List<Cashier> cashiers) {
+        ROUTED_CUSTOMERS.add(scheduler.getRoutedCustomers());
+        for (Cashier c : cashiers) {
+            Metrics.REGISTRY.gauge("supermarket_cashier_queue_length",
+                    "Number of customers in the queue of a cashier at the end of its last simulation",
+                    "cashier", c.getName()).set(c.getWaitingQueue().size());
+            Metrics.REGISTRY.gauge("supermarket_cashier_max_queue_length",
+                    "Longest queue of a cashier over all simulations", "cashier", c.getName()).max(c.getMaxQueueLength());
+        }
     }
 
     public List<Cashier> getCashiers() {
@@ -269,10 +363,34 @@ public class Supermarket {
         return products;
     }
 
+    /**
+     * the customers of the supermarket, which cannot be modified when they are read from a customer store
+     * @return customers List
+     */
     public List<Customer> getCustomers() {
         return customers;
     }
 
+    public CustomerTable getCustomerTable() {
+        return customerTable;
+    }
+
+    public boolean isParallelAnalytics() {
+        return parallelAnalytics;
+    }
+
+    public void setParallelAnalytics(boolean parallelAnalytics) {
+        this.parallelAnalytics = parallelAnalytics;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
     public LocalTime getOpenTime() {
         return openTime;
     }
@@ -296,6 +414,34 @@ public class Supermarket {
      */
     public static Supermarket importFromXML(String resourceName) {
         XMLParser xmlParser = new XMLParser(resourceName);
+        try {
+            return importFromXML(xmlParser, resourceName);
+        } finally {
+            closeQuietly(xmlParser, resourceName);
+        }
+    }
+
+    /**
+     * imports a supermarket from an XML parser, e.g. on a generated file
+     * @param xmlParser XMLParser
+     * @param resourceName String name of the supermarket
+     * @return supermarket Supermarket, or null if the XML cannot be imported
+     */
+    public static Supermarket importFromXML(XMLParser xmlParser, String resourceName) {
+        return importFromXML(xmlParser, resourceName, new ProductCatalog());
+    }
+
+    /**
+     * imports a supermarket whose products are held by a catalog that may be shared with other supermarkets
+     * products of the XML that are not in the catalog yet are added, products that are already in the catalog
+     * are not replaced, such that all supermarkets refer to the same product instances
+     * @param xmlParser XMLParser
+     * @param resourceName String name of the supermarket
+     * @param catalog ProductCatalog of the products of the supermarket
+     * @return supermarket Supermarket, or null if the XML cannot be imported
+     */
+    public static Supermarket importFromXML(XMLParser xmlParser, String resourceName, ProductCatalog catalog) {
+        long start = IMPORT_TIME.start();
         try {
             xmlParser.nextTag();
             xmlParser.require(XMLStreamConstants.START_ELEMENT, null, "supermarket");
@@ -305,11 +451,13 @@ public class Supermarket {
 
             Supermarket supermarket = new Supermarket(resourceName, openTime, closingTime);
 
-            supermarket.products = new HashSet<>();
-            supermarket.customers = new ArrayList<>();
+            supermarket.products = catalog;
+            supermarket.customers = new CustomerList(new ArrayList<>());
             Product.importProductsFromXML(xmlParser, supermarket.products);
             Customer.importCustomersFromXML(xmlParser, supermarket.customers, supermarket.products);
 
+            IMPORTED_CUSTOMERS.add(supermarket.customers.size());
+            IMPORT_TIME.stop(start);
             return supermarket;
 
         } catch (Exception ex) {
@@ -319,6 +467,160 @@ public class Supermarket {
         return null;
     }
 
+    private static void closeQuietly(XMLParser xmlParser, String resourceName) {
+        try {
+            xmlParser.close();
+        } catch (XMLStreamException ex) {
+            SLF4J.logException("Cannot close '" + resourceName + "'", ex);
+        }
+    }
+
+    /**
+     * Loads the products of a supermarket configuration from an XML file and simulates the given cashiers
+     * while the customers are read one at a time, without keeping the customers in the supermarket.
+     * Customers which arrive up to reorderWindow positions later than their arrival time in the file
+     * are handled in order of arrival. Customers that arrive even later are handled as if they queued
+     * at the time they were read, their waiting time starts at that time.
+     * The memory used is bounded by the reorder window as long as the cashiers do not keep a full history,
+     * see Cashier.setHistoryRetention.
+     * @param resourceName  the XML file name to be found in the resources folder
+     * @param cashiers  the cashiers to simulate
+     * @param reorderWindow  the maximum number of customers that are buffered to restore the order of arrival
+     * @return
+     */
+    public static Supermarket simulateCashiersFromXML(String resourceName, List<Cashier> cashiers, int reorderWindow) {
+        XMLParser xmlParser = new XMLParser(resourceName);
+        try {
+            return simulateCashiersFromXML(xmlParser, resourceName, cashiers, reorderWindow);
+        } finally {
+            closeQuietly(xmlParser, resourceName);
+        }
+    }
+
+    /**
+     * Loads the products from an XML stream and simulates the given cashiers while streaming in the customers
+     * @param xmlParser  the parser of the XML stream
+     * @param name  the name of the supermarket for reporting purposes
+     * @param cashiers  the cashiers to simulate
+     * @param reorderWindow  the maximum number of customers that are buffered to restore the order of arrival
+     * @return
+     */
+    public static Supermarket simulateCashiersFromXML(XMLParser xmlParser, String name, List<Cashier> cashiers,
+                                                      int reorderWindow) {
+        long start = SIMULATION_TIME.start();
+        try {
+            xmlParser.nextTag();
+            xmlParser.require(XMLStreamConstants.START_ELEMENT, null, "supermarket");
+            LocalTime openTime = LocalTime.parse(xmlParser.getAttributeValue(null, "openTime"));
+            LocalTime closingTime = LocalTime.parse(xmlParser.getAttributeValue(null, "closingTime"));
+            xmlParser.nextTag();
+
+            Supermarket supermarket = new Supermarket(name, openTime, closingTime);
+            supermarket.products = new ProductCatalog();
+            supermarket.customers = new CustomerList(new ArrayList<>());
+            supermarket.cashiers.addAll(cashiers);
+            Product.importProductsFromXML(xmlParser, supermarket.products);
+
+            // the pending arrivals of the scheduler act as the reorder buffer
+            SimulationScheduler scheduler = new SimulationScheduler(supermarket.cashiers, openTime);
+            if (xmlParser.nextBeginTag("customers")) {
+                xmlParser.nextTag();
+                Customer customer;
+                while ((customer = Customer.importFromXML(xmlParser, supermarket.products)) != null) {
+                    scheduler.scheduleArrival(customer);
+                    if (scheduler.getPendingEvents() > reorderWindow) {
+                        scheduler.fireNext();
+                    }
+                }
+                xmlParser.findAndAcceptEndTag("customers");
+            }
+            supermarket.finishSimulation(scheduler, supermarket.cashiers);
+            SIMULATION_TIME.stop(start);
+
+            if (scheduler.getLateEvents() > 0) {
+                SLF4J.LOGGER.warn(scheduler.getLateEvents() + " customers in '" + name +
+                        "' arrived outside the reorder window of " + reorderWindow);
+            }
+            return supermarket;
+
+        } catch (Exception ex) {
+            SLF4J.logException("XML error in '" + name + "'", ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Loads a supermarket from a binary snapshot file
+     * the customers of the supermarket are held by a customer table
+     * @param fileName String
+     * @return supermarket Supermarket, or null if the snapshot cannot be read
+     */
+    public static Supermarket importSnapshot(String fileName) {
+        try {
+            return SupermarketSnapshot.read(Paths.get(fileName));
+        } catch (Exception ex) {
+            SLF4J.logException("Snapshot error in '" + fileName + "'", ex);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the products and customers to a binary snapshot file
+     * @param fileName String
+     */
+    public void exportSnapshot(String fileName) {
+        try {
+            SupermarketSnapshot.write(this, Paths.get(fileName));
+        } catch (Exception ex) {
+            SLF4J.logException("Snapshot writing error in '" + fileName + "'", ex);
+        }
+    }
+
+    /**
+     * Loads a supermarket from a customer store file, see MappedCustomerTable
+     * the customers stay in the memory-mapped file and are never copied onto the heap
+     * @param fileName String
+     * @return supermarket Supermarket, or null if the customer store cannot be read
+     */
+    public static Supermarket importCustomerStore(String fileName) {
+        try {
+            MappedCustomerTable table = MappedCustomerTable.open(Paths.get(fileName));
+            return fromCustomerTable(table.getName(), table.getOpenTime(), table.getClosingTime(), table);
+        } catch (Exception ex) {
+            SLF4J.logException("Customer store error in '" + fileName + "'", ex);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the products and customers to a customer store file
+     * @param fileName String
+     */
+    public void exportCustomerStore(String fileName) {
+        try {
+            MappedCustomerTable.write(this, Paths.get(fileName));
+        } catch (Exception ex) {
+            SLF4J.logException("Customer store writing error in '" + fileName + "'", ex);
+        }
+    }
+
+    /**
+     * Creates a supermarket whose customers are the rows of a customer table
+     * @param name String
+     * @param openTime LocalTime
+     * @param closingTime LocalTime
+     * @param table CustomerTable
+     * @return supermarket Supermarket
+     */
+    static Supermarket fromCustomerTable(String name, LocalTime openTime, LocalTime closingTime, CustomerTable table) {
+        Supermarket supermarket = new Supermarket(name, openTime, closingTime);
+        supermarket.products = table.getCatalog();
+        supermarket.customerTable = table;
+        supermarket.customers = new CustomerList(table.asList(), table.isReadOnly());
+        return supermarket;
+    }
+
     /**
      * Exports the supermarket configuration to an xml configuration file
      * that can be shared and read in by a main
@@ -349,8 +651,15 @@ public class Supermarket {
                 xmlWriter.writeEndElement();
             }
             xmlWriter.writeEndDocument();
+            xmlWriter.flush();
         } catch (Exception ex) {
             SLF4J.logException("XML writing error in '" + resourceName + "'", ex);
+        } finally {
+            try {
+                xmlWriter.close();
+            } catch (XMLStreamException ex) {
+                SLF4J.logException("Cannot close '" + resourceName + "'", ex);
+            }
         }
 
         // update the name of the supermarket
@@ -368,58 +677,30 @@ public class Supermarket {
      * @param averageNrItems
      */
     public void addRandomCustomers(int nCustomers, int averageNrItems) {
+        this.addRandomCustomers(nCustomers, averageNrItems, new SplittableRandom());
+    }
+
+    /**
+     * adds a collection of random customers drawn from the given random stream
+     * the same stream state and products give the same customers
+     * @param nCustomers
+     * @param averageNrItems
+     * @param randomizer SplittableRandom which is used by a single thread
+     * @throws UnsupportedOperationException if the customers are read from a customer store
+     */
+    public void addRandomCustomers(int nCustomers, int averageNrItems, SplittableRandom randomizer) {
         //Check if parameters are initialized.
         if (this.products == null || this.customers == null)   return;
+        if (this.customers.isReadOnly()) {
+            throw new UnsupportedOperationException(
+                    "Supermarket '" + this.name + "' reads its customers from a read-only customer store");
+        }
 
-        // copy the product to an array for easy random selection
-        Product[] prods = new Product[this.products.size()];
-        prods = this.products.toArray(prods);
-
-        // compute an arrival interval range of at least 60 seconds that ends one minute before closing time if possible
-        int maxArrivalSeconds = Math.max(MINUTE, closingTime.toSecondOfDay() - openTime.toSecondOfDay() - MINUTE);
-
+        RandomCustomerGenerator generator =
+                new RandomCustomerGenerator(this.products, this.openTime, this.closingTime, averageNrItems);
         for (int i = 0; i < nCustomers; i++) {
-            // create a random customer with random arrival time and zip code
-            Customer c = new Customer(
-                    this.openTime.plusSeconds(randomizer.nextInt(maxArrivalSeconds)),
-                    generateRandomZIPCode());
-
-            // select a random number of bought items
-            int remainingNumberOfItems = selectRandomNrItems(averageNrItems);
-
-            // build a random distribution of these items across available products
-            int upper = prods.length;
-            while (remainingNumberOfItems > 0) {
-                int count = 1 + randomizer.nextInt(remainingNumberOfItems);
-                // pick a random product that has not been used yet by this customer
-                int pIdx = randomizer.nextInt(upper);
-                Purchase pu = new Purchase(prods[pIdx], count);
-                c.getItems().add(pu);
-                // System.out.println(c.toString() + pu.toString());
-                remainingNumberOfItems -= count;
-                // move the product out of the range of available products for this customer
-                upper--;
-                Product pt = prods[upper];
-                prods[upper] = prods[pIdx];
-                prods[pIdx] = pt;
-            }
-
-            this.customers.add(c);
+            generator.next(randomizer);
+            this.customers.add(generator.toCustomer());
         }
     }
-
-    private static Random randomizer = new Random();
-
-    private static int selectRandomNrItems(int averageNrItems) {
-        return 1 + (int) ((4 * averageNrItems - 1) * randomizer.nextDouble() * randomizer.nextDouble());
-    }
-
-    private static String generateRandomZIPCode() {
-        int randomDigit = randomizer.nextInt(5);
-        int randomChar1 = randomizer.nextInt(2);
-        int randomChar2 = randomizer.nextInt(2);
-        return String.valueOf(1013 + randomDigit) +
-                (char) (randomDigit + 9 * randomChar1 + randomChar2 + 'A') +
-                (char) (randomDigit + 3 * randomChar1 + 7 * randomChar2 + 'D');
-    }
 }
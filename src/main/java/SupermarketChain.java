@@ -0,0 +1,37 @@
+import utils.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class SupermarketChain {
+    public static void main(String[] args) throws IOException {
+        // SupermarketChain <directory of store datasets> [fifo,prio,maxPrioItems] [--workers <n>]
+        // stores can have their own cashiers in <directory>/cashiers.properties
+        // with --workers the stores are simulated in n worker processes instead of threads of this JVM
+        String directory = null;
+        String scenario = "2,1,5";
+        int workers = 0;
+        for (int i = 0; i < args.length; i++) {
+            if ("--workers".equals(args[i]) && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            } else if (directory == null) {
+                directory = args[i];
+            } else {
+                scenario = args[i];
+            }
+        }
+        if (directory == null) {
+            System.out.println("Usage: SupermarketChain <directory> [fifo,prio,maxPrioItems] [--workers <n>]");
+            return;
+        }
+
+        // simulate all stores on a shared product catalog and print the chain report
+        ChainRunner runner = new ChainRunner(CashierScenario.parse(scenario));
+        ChainResult result = (workers > 0) ?
+                new ChainCoordinator(runner, workers).run(Paths.get(directory)) : runner.run(Paths.get(directory));
+        result.printReport();
+
+        // write the metrics of this run if -Dsupermarket.metrics=<file> has been set
+        Metrics.REGISTRY.writeConfiguredSnapshot();
+    }
+}
@@ -1,7 +1,9 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.time.LocalTime;
 
 public class SupermarketGenerate {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
 
         // load a base configuration with products only
         Supermarket supermarket =
@@ -11,6 +13,13 @@ public class SupermarketGenerate {
         supermarket.setOpenTime(LocalTime.NOON);
         supermarket.setClosingTime(LocalTime.NOON.plusMinutes(30));
 
+        if (args.length == 3) {
+            // stream a large dataset straight to disk: SupermarketGenerate <nCustomers> <seed> <file>
+            new DatasetGenerator(supermarket, 8)
+                    .generate(Long.parseLong(args[1]), Integer.parseInt(args[0]), Paths.get(args[2]));
+            return;
+        }
+
         // generate random visiting customers that shop on average 10 items
         supermarket.addRandomCustomers(50, 8);
 
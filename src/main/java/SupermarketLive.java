@@ -0,0 +1,102 @@
+import utils.SLF4J;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SupermarketLive {
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);    // time to report the results on shutdown
+
+    public static void main(String[] args) throws Exception {
+        // SupermarketLive [--tail <file> | --port <port>] [--wall-clock]
+        // arrival lines are read from standard input by default: HH:mm:ss zipCode productCode:amount ...
+        String tailFile = null;
+        int port = -1;
+        boolean wallClock = false;
+        for (int i = 0; i < args.length; i++) {
+            if ("--tail".equals(args[i]) && i + 1 < args.length) {
+                tailFile = args[++i];
+            } else if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--wall-clock".equals(args[i])) {
+                wallClock = true;
+            } else {
+                throw new IllegalArgumentException("Unknown argument '" + args[i] + "'");
+            }
+        }
+
+        // the products of the supermarket and a mixed set of cashiers that do not keep their history
+        Supermarket supermarket = Supermarket.importFromXML("supermarket25.xml");
+        List<Cashier> cashiers = new CashierScenario(2, 1, 5).createCashiers();
+        LiveSimulation simulation = new LiveSimulation(ProductCatalog.of(supermarket.getProducts()), cashiers,
+                1000, Duration.ofSeconds(10), Clock.systemDefaultZone(), wallClock);
+        simulation.setListener(window -> SLF4J.LOGGER.info(window.toString()));
+
+        Thread consumer = new Thread(simulation, "live-simulation");
+        consumer.start();
+
+        // on shutdown the input is closed to end a blocked accept or read, such that the results are still reported
+        Thread main = Thread.currentThread();
+        AtomicReference<Closeable> input = new AtomicReference<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            simulation.close();
+            closeQuietly(input.get());
+            try {
+                main.join(SHUTDOWN_TIMEOUT.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        try {
+            if (tailFile != null) {
+                simulation.tail(Paths.get(tailFile), Duration.ofMillis(200));
+            } else if (port >= 0) {
+                // a local socket stands in for the till feed, connections are served one after another
+                try (ServerSocket server = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+                    input.set(server);
+                    while (simulation.isRunning()) {
+                        try (Socket socket = server.accept()) {
+                            input.set(socket);
+                            simulation.feed(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                        } finally {
+                            input.set(server);
+                        }
+                    }
+                }
+            } else {
+                input.set(System.in);
+                simulation.feed(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            }
+        } catch (IOException ex) {
+            // the input has been closed by the shutdown hook
+            if (simulation.isRunning()) {
+                throw ex;
+            }
+        }
+
+        simulation.close();
+        consumer.join();
+        Supermarket.printSimulationResults(cashiers);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            SLF4J.LOGGER.warn("Cannot close the input: " + ex.getMessage());
+        }
+    }
+}
@@ -1,3 +1,7 @@
+import utils.Metrics;
+
+import java.util.List;
+
 public class SupermarketMain {
     public static void main(String[] args) {
 
@@ -9,77 +13,23 @@ public class SupermarketMain {
         supermarket.printCustomerStatistics();
 
         /*
-        Config for base scenario
-        1 FIFO cashier
-         */
-        supermarket.getCashiers().clear();
-        supermarket.getCashiers().add(new FIFOCashier("FIFO"));
-
-        // simulate the configuration and print the result
-        supermarket.simulateCashiers();
-        supermarket.printSimulationResults();
-
-        /*
-        Config for PRIO only scenario
-        1 PRIO
-         */
-        supermarket.getCashiers().clear();
-        supermarket.getCashiers().add(new PriorityCashier("PRIO",5));
-
-        // simulate the configuration and print the result
-        supermarket.simulateCashiers();
-        supermarket.printSimulationResults();
-
-        /*
-        Config for mixed scenario
-        1 FIFO cashier
-        1 PRIO cashier
-         */
-        supermarket.getCashiers().clear();
-        supermarket.getCashiers().add(new FIFOCashier("FIFO"));
-        supermarket.getCashiers().add(new PriorityCashier("PRIO", 5));
-
-        // simulate the configuration and print the result
-        supermarket.simulateCashiers();
-        supermarket.printSimulationResults();
-
-        /*
-        Config for custom scenario
-        2 FIFO cashiers
-        1 PRIO cashiers
-         */
-        supermarket.getCashiers().clear();
-        supermarket.getCashiers().add(new FIFOCashier("FIFO-1"));
-        supermarket.getCashiers().add(new FIFOCashier("FIFO-2"));
-        supermarket.getCashiers().add(new PriorityCashier("PRIO", 5));
-
-        // simulate the configuration and print the result
-        supermarket.simulateCashiers();
-        supermarket.printSimulationResults();
-
-        /*
-        Config for custom scenario
-        2 FIFO cashiers
+        Cashier configurations, all PRIO cashiers serve customers with at most 5 items
          */
-        supermarket.getCashiers().clear();
-        supermarket.getCashiers().add(new FIFOCashier("FIFO-1"));
-        supermarket.getCashiers().add(new FIFOCashier("FIFO-2"));
-
-        // simulate the configuration and print the result
-        supermarket.simulateCashiers();
-        supermarket.printSimulationResults();
-
-        /*
-        Config for custom scenario
-        2 PRIO cashiers
-         */
-        supermarket.getCashiers().clear();
-        supermarket.getCashiers().add(new PriorityCashier("PRIO-1", 5));
-        supermarket.getCashiers().add(new PriorityCashier("PRIO-2", 5));
-
-
-        // simulate the configuration and print the result
-        supermarket.simulateCashiers();
-        supermarket.printSimulationResults();
+        List<CashierScenario> scenarios = List.of(
+                new CashierScenario(1, 0, 5),   // base scenario: 1 FIFO cashier
+                new CashierScenario(0, 1, 5),   // PRIO only scenario: 1 PRIO
+                new CashierScenario(1, 1, 5),   // mixed scenario: 1 FIFO cashier, 1 PRIO cashier
+                new CashierScenario(2, 1, 5),   // custom scenario: 2 FIFO cashiers, 1 PRIO cashier
+                new CashierScenario(2, 0, 5),   // custom scenario: 2 FIFO cashiers
+                new CashierScenario(0, 2, 5)    // custom scenario: 2 PRIO cashiers
+        );
+
+        // simulate the configurations concurrently and print the results in order
+        for (ScenarioResult result : new ScenarioRunner(supermarket).run(scenarios)) {
+            result.printSimulationResults();
+        }
+
+        // write the metrics of this run if -Dsupermarket.metrics=<file> has been set
+        Metrics.REGISTRY.writeConfiguredSnapshot();
     }
 }
@@ -1,3 +1,5 @@
+import utils.Metrics;
+
 public class SupermarketSmall {
     public static void main(String[] args) {
 
@@ -16,5 +18,8 @@ public class SupermarketSmall {
         // simulate the configuration and print the result
         supermarket.simulateCashiers();
         supermarket.printSimulationResults();
+
+        // write the metrics of this run if -Dsupermarket.metrics=<file> has been set
+        Metrics.REGISTRY.writeConfiguredSnapshot();
     }
 }
@@ -0,0 +1,324 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary snapshot of the products and customers of a supermarket.
+ *
+ * The snapshot holds the columns of a CustomerTable, such that it can be loaded without any text parsing:
+ *  - header: magic, version, name, open and closing second of the day
+ *  - catalog: number of products, then code, description, price and removed flag of every product in order of id
+ *  - zip codes: number of zip codes, then every zip code in order of id
+ *  - customers: number of customers and purchases, then the arrival seconds, zip code ids and purchase offsets
+ *    of all customers, followed by the product ids and amounts of all purchases
+ * Strings are stored as a length (-1 for null) followed by UTF-8 bytes, all numbers are big-endian.
+ * Snapshots are read through a memory-mapped file, the int columns are copied in bulk.
+ */
+public class SupermarketSnapshot {
+    private static final int MAGIC = 0x534d5331;    // "SMS1"
+    private static final int VERSION = 2;
+
+    /**
+     * Writes the products and customers of the supermarket to a snapshot file
+     * @param supermarket Supermarket
+     * @param path Path
+     * @throws IOException when the file cannot be written
+     */
+    public static void write(Supermarket supermarket, Path path) throws IOException {
+        // rows are written from the table if there is one, or else straight from the customers
+        CustomerTable table = supermarket.getCustomerTable();
+        List<Customer> customers = (table != null || supermarket.getCustomers() == null) ?
+                List.of() : supermarket.getCustomers();
+        int size = (table != null) ? table.size() : customers.size();
+        ProductIds productIds = new ProductIds((table != null) ? table.getCatalog() : supermarket.getProducts());
+
+        List<String> zipCodes = new ArrayList<>();
+        Map<String, Integer> zipCodeIds = new HashMap<>();
+        if (table != null) {
+            for (int zipId = 0; zipId < table.getNumberOfZipCodes(); zipId++) {
+                zipCodes.add(table.getZipCodeById(zipId));
+            }
+        }
+        int[] zipIds = new int[size];
+        int[] purchaseOffsets = new int[size + 1];
+        int purchaseCount = 0;
+        for (int row = 0; row < size; row++) {
+            Collection<Purchase> purchases = purchasesOf(table, customers, row);
+            if (purchases != null) {
+                for (Purchase p : purchases) {
+                    productIds.idOf(p.getProduct());
+                }
+                purchaseCount += purchases.size();
+            } else {
+                purchaseCount += table.getPurchaseEnd(row) - table.getPurchaseStart(row);
+            }
+            purchaseOffsets[row + 1] = purchaseCount;
+            if (table != null) {
+                zipIds[row] = table.getZipCodeId(row);
+            } else {
+                zipIds[row] = zipCodeIds.computeIfAbsent(customers.get(row).getZipCode(), zipCode -> {
+                    zipCodes.add(zipCode);
+                    return zipCodes.size() - 1;
+                });
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, supermarket.name);
+            out.writeInt(supermarket.getOpenTime().toSecondOfDay());
+            out.writeInt(supermarket.getClosingTime().toSecondOfDay());
+
+            productIds.write(out);
+
+            out.writeInt(zipCodes.size());
+            for (String zipCode : zipCodes) {
+                writeString(out, zipCode);
+            }
+
+            out.writeInt(size);
+            out.writeInt(purchaseCount);
+            for (int row = 0; row < size; row++) {
+                out.writeInt((table != null) ?
+                        table.getArrivalSecond(row) : customers.get(row).getQueuedAt().toSecondOfDay());
+            }
+            for (int zipId : zipIds) {
+                out.writeInt(zipId);
+            }
+            for (int offset : purchaseOffsets) {
+                out.writeInt(offset);
+            }
+            writePurchases(out, table, customers, size, productIds, true);
+            writePurchases(out, table, customers, size, productIds, false);
+        }
+    }
+
+    /**
+     * Reads a snapshot file into a supermarket whose customers are held by a customer table
+     * @param path Path
+     * @return supermarket Supermarket
+     * @throws IOException when the file cannot be read or is not a snapshot
+     */
+    public static Supermarket read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot '" + path + "' exceeds the size of a single mapped buffer");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+                throw new IOException("'" + path + "' is not a supermarket snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in '" + path + "'");
+            }
+            String name = readString(buffer);
+            LocalTime openTime = LocalTime.ofSecondOfDay(buffer.getInt());
+            LocalTime closingTime = LocalTime.ofSecondOfDay(buffer.getInt());
+
+            ProductCatalog catalog = readCatalog(buffer);
+
+            int numberOfZipCodes = buffer.getInt();
+            List<String> zipCodes = new ArrayList<>(numberOfZipCodes);
+            for (int i = 0; i < numberOfZipCodes; i++) {
+                zipCodes.add(readString(buffer));
+            }
+
+            int size = buffer.getInt();
+            int purchaseCount = buffer.getInt();
+            int[] arrivalSeconds = readInts(buffer, size);
+            int[] zipIds = readInts(buffer, size);
+            int[] purchaseOffsets = readInts(buffer, size + 1);
+            int[] purchaseProducts = readInts(buffer, purchaseCount);
+            int[] purchaseAmounts = readInts(buffer, purchaseCount);
+
+            CustomerTable table = new CustomerTable(catalog, zipCodes, size,
+                    arrivalSeconds, zipIds, purchaseOffsets, purchaseProducts, purchaseAmounts);
+            return Supermarket.fromCustomerTable(name, openTime, closingTime, table);
+        }
+    }
+
+    /**
+     * Converts a supermarket XML resource into a snapshot file
+     * @param resourceName String XML resource
+     * @param snapshotFile String
+     * @throws IOException when the XML cannot be imported or the snapshot cannot be written
+     */
+    public static void convert(String resourceName, String snapshotFile) throws IOException {
+        Supermarket supermarket = Supermarket.importFromXML(resourceName);
+        if (supermarket == null) {
+            throw new IOException("Cannot import '" + resourceName + "'");
+        }
+        write(supermarket, Paths.get(snapshotFile));
+    }
+
+    /**
+     * Converts an XML resource into a snapshot: SupermarketSnapshot resourceName snapshotFile
+     * @param args String[]
+     * @throws IOException when the conversion fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: SupermarketSnapshot <xml resource> <snapshot file>");
+            return;
+        }
+        convert(args[0], args[1]);
+    }
+
+    private static void writePurchases(DataOutputStream out, CustomerTable table, List<Customer> customers, int size,
+                                       ProductIds productIds, boolean ids) throws IOException {
+        for (int row = 0; row < size; row++) {
+            Collection<Purchase> purchases = purchasesOf(table, customers, row);
+            if (purchases != null) {
+                for (Purchase p : purchases) {
+                    out.writeInt(ids ? productIds.idOf(p.getProduct()) : p.getAmount());
+                }
+            } else {
+                for (int i = table.getPurchaseStart(row); i < table.getPurchaseEnd(row); i++) {
+                    out.writeInt(ids ? table.getPurchaseProductId(i) : table.getPurchaseAmount(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the current purchases of a customer, or null if they are the purchases in the columns of the table
+     */
+    private static Collection<Purchase> purchasesOf(CustomerTable table, List<Customer> customers, int row) {
+        return (table != null) ? table.detachedItems(row) : customers.get(row).getPurchases();
+    }
+
+    /**
+     * Writes the products of a catalog by id, including removed products that purchases may still refer to
+     * @param out DataOutputStream
+     * @param catalog ProductCatalog
+     * @throws IOException
+     */
+    static void writeCatalog(DataOutputStream out, ProductCatalog catalog) throws IOException {
+        int idCount = catalog.getIdCount();
+        out.writeInt(idCount);
+        for (int id = 0; id < idCount; id++) {
+            writeProduct(out, catalog.get(id), catalog.isRemoved(id));
+        }
+    }
+
+    private static void writeProduct(DataOutputStream out, Product product, boolean removed) throws IOException {
+        writeString(out, product.getCode());
+        writeString(out, product.getDescription());
+        out.writeDouble(product.getPrice());
+        out.writeBoolean(removed);
+    }
+
+    /**
+     * Reads a catalog in which every product gets its written id back.
+     * A removed product is removed right away, such that a later product with the same code can be added.
+     * @param buffer ByteBuffer
+     * @return catalog ProductCatalog
+     */
+    static ProductCatalog readCatalog(ByteBuffer buffer) {
+        ProductCatalog catalog = new ProductCatalog();
+        int numberOfProducts = buffer.getInt();
+        for (int i = 0; i < numberOfProducts; i++) {
+            String code = catalog.intern(readString(buffer));
+            String description = catalog.intern(readString(buffer));
+            Product product = new Product(code, description, buffer.getDouble());
+            catalog.add(product);
+            if (buffer.get() != 0) {
+                catalog.remove(product);
+            }
+        }
+        return catalog;
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    /**
+     * The product ids of a snapshot: the ids of the catalog of the supermarket, followed by ids for
+     * purchased products that are not in that catalog. Products are not registered in the catalog,
+     * such that writing a snapshot leaves the supermarket as it is.
+     */
+    private static class ProductIds {
+        private final ProductCatalog catalog;                            // catalog of the supermarket, or null
+        private final int catalogIds;                                    // number of ids of the catalog
+        private final List<Product> added = new ArrayList<>();           // products that are not in the catalog
+        private final Map<String, Integer> addedIds = new HashMap<>();   // id of an added product by code
+
+        ProductIds(Set<Product> products) {
+            this.catalog = (products instanceof ProductCatalog) ? (ProductCatalog) products : null;
+            this.catalogIds = (this.catalog != null) ? this.catalog.getIdCount() : 0;
+            if (this.catalog == null && products != null) {
+                for (Product p : products) {
+                    this.idOf(p);
+                }
+            }
+        }
+
+        int idOf(Product product) {
+            int id = (this.catalog != null) ? this.catalog.idOf(product) : -1;
+            if (id >= 0 && id < this.catalogIds) {
+                return id;
+            }
+            return this.addedIds.computeIfAbsent(product.getCode(), code -> {
+                this.added.add(product);
+                return this.catalogIds + this.added.size() - 1;
+            });
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(this.catalogIds + this.added.size());
+            for (int id = 0; id < this.catalogIds; id++) {
+                writeProduct(out, this.catalog.get(id), this.catalog.isRemoved(id));
+            }
+            for (Product p : this.added) {
+                writeProduct(out, p, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fixed-size histogram of waiting times in seconds with logarithmic buckets.
+ *
+ * Waiting times below 64 seconds have a bucket of their own. Every higher power-of-two range is divided
+ * into 32 buckets, so a percentile is reported with an error of at most 1/32 of its value.
+ * Recording a waiting time does not allocate, and histograms of cashiers and simulation runs can be merged.
+ * The count, total, minimum and maximum are kept exactly.
+ */
+public class WaitTimeHistogram {
+    private static final int LINEAR_BUCKETS = 64;      // waiting times below this value are counted exactly
+    private static final int SUB_BUCKETS = 32;         // buckets per power-of-two range above LINEAR_BUCKETS
+    private static final int LINEAR_BITS = 6;          // log2(LINEAR_BUCKETS)
+    private static final int SUB_BITS = 5;             // log2(SUB_BUCKETS)
+    private static final int BUCKETS = LINEAR_BUCKETS + (31 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private int min = Integer.MAX_VALUE;
+    private int max;
+
+    /**
+     * Counts a waiting time, negative waiting times are counted as 0
+     * @param waitingTime int seconds
+     */
+    public void record(int waitingTime) {
+        int value = Math.max(0, waitingTime);
+        this.counts[bucketOf(value)]++;
+        this.count++;
+        this.total += value;
+        if (value < this.min) {
+            this.min = value;
+        }
+        if (value > this.max) {
+            this.max = value;
+        }
+    }
+
+    /**
+     * Adds all waiting times that have been counted by another histogram
+     * @param other WaitTimeHistogram
+     */
+    public void merge(WaitTimeHistogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            this.counts[bucket] += other.counts[bucket];
+        }
+        this.count += other.count;
+        this.total += other.total;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Returns the waiting time below or at which the given fraction of the waiting times lie.
+     * The upper bound of the bucket holding that waiting time is returned, capped by the maximum.
+     * @param percentile double between 0.0 and 100.0
+     * @return waitingTime int seconds, 0 if no waiting times have been counted
+     */
+    public int getPercentile(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile " + percentile + " is not between 0 and 100");
+        }
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * this.count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.counts[bucket];
+            if (seen >= rank) {
+                return Math.max(this.min, Math.min(this.max, upperBoundOf(bucket)));
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Writes the histogram, only buckets that hold waiting times are written
+     * @param out DataOutput
+     * @throws IOException
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int used = 0;
+        for (long bucketCount : this.counts) {
+            used += (bucketCount > 0) ? 1 : 0;
+        }
+        out.writeLong(this.count);
+        out.writeLong(this.total);
+        out.writeInt(this.min);
+        out.writeInt(this.max);
+        out.writeInt(used);
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (this.counts[bucket] > 0) {
+                out.writeShort(bucket);
+                out.writeLong(this.counts[bucket]);
+            }
+        }
+    }
+
+    /**
+     * Reads a histogram that has been written by writeTo
+     * @param in DataInput
+     * @return histogram WaitTimeHistogram
+     * @throws IOException
+     */
+    static WaitTimeHistogram readFrom(DataInput in) throws IOException {
+        WaitTimeHistogram histogram = new WaitTimeHistogram();
+        histogram.count = in.readLong();
+        histogram.total = in.readLong();
+        histogram.min = in.readInt();
+        histogram.max = in.readInt();
+        int used = in.readInt();
+        for (int i = 0; i < used; i++) {
+            int bucket = in.readShort();
+            histogram.counts[bucket] = in.readLong();
+        }
+        return histogram;
+    }
+
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.total = 0;
+        this.min = Integer.MAX_VALUE;
+        this.max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getMin() {
+        return (this.count > 0) ? this.min : 0;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return (this.count > 0) ? (double) this.total / this.count : 0.0;
+    }
+
+    private static int bucketOf(int value) {
+        if (value < LINEAR_BUCKETS) {
+            return value;
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(value);    // at least LINEAR_BITS
+        int shift = exponent - SUB_BITS;
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + ((value >> shift) - SUB_BUCKETS);
+    }
+
+    private static int upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        int shift = exponent - SUB_BITS;
+        long lowerBound = (long) ((bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return (int) Math.min(Integer.MAX_VALUE, lowerBound + (1L << shift) - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2f p50=%d p90=%d p99=%d max=%d",
+                this.count, this.getMean(), this.getPercentile(50), this.getPercentile(90), this.getPercentile(99), this.max);
+    }
+}
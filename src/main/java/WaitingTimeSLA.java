@@ -0,0 +1,83 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.List;
+
+/**
+ * A service level agreement on the waiting time of customers:
+ * either the maximum or the average waiting time over all cashiers may not exceed a limit.
+ */
+public class WaitingTimeSLA {
+    public enum Measure { MAX, AVERAGE }
+
+    private final Measure measure;
+    private final double limit;         // seconds
+
+    /**
+     * @param measure Measure
+     * @param limit double seconds
+     */
+    public WaitingTimeSLA(Measure measure, double limit) {
+        this.measure = measure;
+        this.limit = limit;
+    }
+
+    public static WaitingTimeSLA maxWaitingTime(int seconds) {
+        return new WaitingTimeSLA(Measure.MAX, seconds);
+    }
+
+    public static WaitingTimeSLA averageWaitingTime(double seconds) {
+        return new WaitingTimeSLA(Measure.AVERAGE, seconds);
+    }
+
+    /**
+     * Checks the results of a completed simulation
+     * @param result ScenarioResult
+     * @return true if the waiting times are within the limit
+     */
+    public boolean isMetBy(ScenarioResult result) {
+        double value = (this.measure == Measure.MAX) ? result.getMaxWaitingTime() : result.getAverageWaitingTime();
+        return value <= this.limit;
+    }
+
+    /**
+     * Checks whether a running simulation can no longer meet the agreement.
+     * Waiting times that have been recorded never decrease the maximum or the total, so once the maximum
+     * exceeds the limit, or the total exceeds the limit times the number of customers, the final result
+     * is bound to exceed the limit as well.
+     * @param cashiers List cashiers that are being simulated
+     * @param totalCustomers int number of customers that will have been handled at the end of the simulation
+     * @return true if the agreement is violated whatever happens next
+     */
+    public boolean isViolated(List<Cashier> cashiers, int totalCustomers) {
+        if (this.measure == Measure.MAX) {
+            for (Cashier c : cashiers) {
+                if (c.getMaxWaitingTime() > this.limit) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long totalWaitingTime = 0;
+        for (Cashier c : cashiers) {
+            totalWaitingTime += c.getTotalWaitingTime();
+        }
+        return totalWaitingTime > this.limit * totalCustomers;
+    }
+
+    public Measure getMeasure() {
+        return measure;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s waiting time <= %.2f", this.measure, this.limit);
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The K customers that had to wait longest, kept in a fixed-size min-heap on waiting time.
+ * Recording a waiting time does not allocate. Of customers with equal waiting times the earliest recorded are kept.
+ */
+public class WorstWaits {
+    private final int[] waitingTimes;       // heap of waiting times, the shortest of the worst K at index 0
+    private final long[] sequences;         // order of recording, to break ties
+    private final Customer[] customers;
+    private int size;
+    private long recorded;                  // number of waiting times that have been offered
+
+    /**
+     * @param capacity int number of customers that are kept
+     */
+    public WorstWaits(int capacity) {
+        this.waitingTimes = new int[capacity];
+        this.sequences = new long[capacity];
+        this.customers = new Customer[capacity];
+    }
+
+    /**
+     * Offers the waiting time of a customer
+     * @param waitingTime int
+     * @param customer Customer
+     */
+    public void record(int waitingTime, Customer customer) {
+        long sequence = this.recorded++;
+        if (this.size < this.waitingTimes.length) {
+            int i = this.size++;
+            set(i, waitingTime, sequence, customer);
+            siftUp(i);
+        } else if (this.size > 0 && waitingTime > this.waitingTimes[0]) {
+            set(0, waitingTime, sequence, customer);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Offers all customers kept by another instance, longest waiting first
+     * @param other WorstWaits
+     */
+    public void merge(WorstWaits other) {
+        for (int i : other.sortedIndices()) {
+            record(other.waitingTimes[i], other.customers[i]);
+        }
+    }
+
+    /**
+     * @return the customers that had to wait longest, longest first
+     */
+    public List<Customer> getCustomers() {
+        List<Integer> order = sortedIndices();
+        List<Customer> worst = new ArrayList<>(order.size());
+        for (int i : order) {
+            worst.add(this.customers[i]);
+        }
+        return worst;
+    }
+
+    /**
+     * @return the longest waiting times, longest first
+     */
+    public List<Integer> getWaitingTimes() {
+        List<Integer> order = sortedIndices();
+        List<Integer> worst = new ArrayList<>(order.size());
+        for (int i : order) {
+            worst.add(this.waitingTimes[i]);
+        }
+        return worst;
+    }
+
+    public void reset() {
+        Arrays.fill(this.customers, null);
+        this.size = 0;
+        this.recorded = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private List<Integer> sortedIndices() {
+        List<Integer> order = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> isLess(b, a) ? -1 : isLess(a, b) ? 1 : 0);
+        return order;
+    }
+
+    /**
+     * @return true if entry a would be dropped before entry b: a shorter wait, or an equal wait recorded later
+     */
+    private boolean isLess(int a, int b) {
+        return this.waitingTimes[a] < this.waitingTimes[b]
+                || (this.waitingTimes[a] == this.waitingTimes[b] && this.sequences[a] > this.sequences[b]);
+    }
+
+    private void set(int i, int waitingTime, long sequence, Customer customer) {
+        this.waitingTimes[i] = waitingTime;
+        this.sequences[i] = sequence;
+        this.customers[i] = customer;
+    }
+
+    private void swap(int i, int j) {
+        int w = this.waitingTimes[i];
+        long s = this.sequences[i];
+        Customer c = this.customers[i];
+        set(i, this.waitingTimes[j], this.sequences[j], this.customers[j]);
+        set(j, w, s, c);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0 && isLess(i, (i - 1) / 2)) {
+            swap(i, (i - 1) / 2);
+            i = (i - 1) / 2;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < this.size && isLess(left, smallest)) {
+                smallest = left;
+            }
+            if (right < this.size && isLess(right, smallest)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+}
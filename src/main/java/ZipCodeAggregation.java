@@ -0,0 +1,380 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates the purchases of customers per zip code in a single pass.
+ *
+ * For every zip code the amount bought of every product is counted in a small hash table keyed by product id,
+ * which only holds the products that have been bought in that zip code,
+ * and the revenue is accumulated in the order in which the purchases are visited.
+ * Partial aggregations over consecutive ranges of customers can be merged, see ZipCodeAggregationTask.
+ * The most bought product, the top-K products and the revenue per zip code are all answered from these counters.
+ * When products have the same count, the product with the lowest id in the catalog is ranked first.
+ */
+public class ZipCodeAggregation {
+    private final ProductCatalog catalog;
+    private final List<String> zipCodes;            // zip code by id
+    private final Map<String, Integer> zipCodeIds;  // id by zip code
+    private ProductCounts[] counts;                 // amount bought per zip code id per product id
+    private double[] revenues;                      // revenue per zip code id
+    private int totalNumberOfItems;
+
+    public ZipCodeAggregation(ProductCatalog catalog) {
+        this.catalog = catalog;
+        this.zipCodes = new ArrayList<>();
+        this.zipCodeIds = new HashMap<>();
+        this.counts = new ProductCounts[16];
+        this.revenues = new double[16];
+    }
+
+    /**
+     * Aggregates a list of customer objects
+     * @param customers List
+     * @param catalog ProductCatalog
+     * @return aggregation ZipCodeAggregation
+     */
+    public static ZipCodeAggregation of(List<Customer> customers, ProductCatalog catalog) {
+        return ZipCodeAggregationTask.aggregate(customers, catalog, false);
+    }
+
+    /**
+     * Aggregates the columns of a customer table
+     * @param table CustomerTable
+     * @return aggregation ZipCodeAggregation
+     */
+    public static ZipCodeAggregation of(CustomerTable table) {
+        return ZipCodeAggregationTask.aggregate(table, false);
+    }
+
+    /**
+     * Adds the purchases of a customer to the counters of its zip code
+     * @param customer Customer
+     */
+    public void add(Customer customer) {
+        int zipId = zipCodeId(customer.getZipCode());
+        for (Purchase p : customer.getPurchases()) {
+            count(zipId, productId(p), p.getAmount(), p.getProduct().getPrice());
+        }
+    }
+
+    /**
+     * Adds the purchases of a range of rows of a customer table
+     * @param table CustomerTable
+     * @param fromRow int first row, inclusive
+     * @param toRow int last row, exclusive
+     */
+    public void addRows(CustomerTable table, int fromRow, int toRow) {
+        // translate the zip code ids of the table once per zip code
+        int[] zipIds = new int[table.getNumberOfZipCodes()];
+        Arrays.fill(zipIds, -1);
+
+        for (int row = fromRow; row < toRow; row++) {
+            int tableZipId = table.getZipCodeId(row);
+            if (zipIds[tableZipId] < 0) {
+                zipIds[tableZipId] = zipCodeId(table.getZipCodeById(tableZipId));
+            }
+            int zipId = zipIds[tableZipId];
+            if (table.detachedItems(row) != null) {
+                for (Purchase p : table.detachedItems(row)) {
+                    count(zipId, productId(p), p.getAmount(), p.getProduct().getPrice());
+                }
+            } else {
+                for (int i = table.getPurchaseStart(row); i < table.getPurchaseEnd(row); i++) {
+                    int productId = table.getPurchaseProductId(i);
+                    count(zipId, productId, table.getPurchaseAmount(i), this.catalog.getPrice(productId));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the counters of an aggregation of the customers that follow the customers of this aggregation.
+     * Zip codes that are new to this aggregation are appended in the order of the other aggregation.
+     * @param other ZipCodeAggregation over the same catalog
+     */
+    public void merge(ZipCodeAggregation other) {
+        if (other.catalog != this.catalog) {
+            throw new IllegalArgumentException("Aggregations over different product catalogs cannot be merged");
+        }
+        for (int otherZipId = 0; otherZipId < other.zipCodes.size(); otherZipId++) {
+            int zipId = zipCodeId(other.zipCodes.get(otherZipId));
+            ProductCounts otherCounts = other.counts[otherZipId];
+            if (otherCounts != null) {
+                ProductCounts zipCounts = this.zipCounts(zipId);
+                for (int productId : otherCounts.productIds()) {
+                    zipCounts.add(productId, otherCounts.get(productId));
+                }
+            }
+            this.revenues[zipId] += other.revenues[otherZipId];
+        }
+        this.totalNumberOfItems += other.totalNumberOfItems;
+    }
+
+    /**
+     * calculates a map of aggregated revenues per zip code that is ordered by zip code
+     * zip codes of customers without purchases have a revenue of 0.0
+     * @return Map
+     */
+    public Map<String, Double> revenueByZipCode() {
+        Map<String, Double> result = new TreeMap<>();
+        for (int zipId = 0; zipId < this.zipCodes.size(); zipId++) {
+            result.put(this.zipCodes.get(zipId), this.revenues[zipId]);
+        }
+        return result;
+    }
+
+    /**
+     * calculates a map of most bought products per zip code that is ordered by zip code
+     * zip codes without purchases are left out
+     * @return Map
+     */
+    public Map<String, Product> mostBoughtProductByZipCode() {
+        Map<String, Product> result = new TreeMap<>();
+        for (int zipId = 0; zipId < this.zipCodes.size(); zipId++) {
+            List<Product> top = topProducts(zipId, 1);
+            if (!top.isEmpty()) {
+                result.put(this.zipCodes.get(zipId), top.get(0));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns at most k products that have been bought most in the given zip code, most bought first
+     * @param zipCode String
+     * @param k int
+     * @return products List
+     */
+    public List<Product> topProducts(String zipCode, int k) {
+        Integer zipId = this.zipCodeIds.get(zipCode);
+        return (zipId != null) ? topProducts(zipId, k) : new ArrayList<>();
+    }
+
+    private List<Product> topProducts(int zipId, int k) {
+        ProductCounts zipCounts = this.counts[zipId];
+        int[] top = new int[Math.max(0, k)];    // product ids, ordered by count descending and id ascending
+        int nTop = 0;
+
+        if (zipCounts != null && k > 0) {
+            for (int productId : zipCounts.productIds()) {
+                int count = zipCounts.get(productId);
+                if (count <= 0 || (nTop == k && count <= zipCounts.get(top[k - 1]))) {
+                    continue;
+                }
+                // insert after all products with an equal or higher count, products are visited in order of id
+                int pos = (nTop < k) ? nTop++ : k - 1;
+                while (pos > 0 && zipCounts.get(top[pos - 1]) < count) {
+                    top[pos] = top[pos - 1];
+                    pos--;
+                }
+                top[pos] = productId;
+            }
+        }
+
+        List<Product> products = new ArrayList<>(nTop);
+        for (int i = 0; i < nTop; i++) {
+            products.add(this.catalog.get(top[i]));
+        }
+        return products;
+    }
+
+    /**
+     * Returns the amount bought of a product in a zip code
+     * @param zipCode String
+     * @param product Product
+     * @return count int
+     */
+    public int getCount(String zipCode, Product product) {
+        Integer zipId = this.zipCodeIds.get(zipCode);
+        int productId = this.catalog.idOf(product);
+        if (zipId == null || productId < 0 || this.counts[zipId] == null) {
+            return 0;
+        }
+        return this.counts[zipId].get(productId);
+    }
+
+    /**
+     * Writes the counters and revenues per zip code, products are written as their id in the catalog
+     * @param out DataOutput
+     * @throws IOException
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(this.zipCodes.size());
+        for (int zipId = 0; zipId < this.zipCodes.size(); zipId++) {
+            out.writeUTF(this.zipCodes.get(zipId));
+            out.writeDouble(this.revenues[zipId]);
+            ProductCounts zipCounts = this.counts[zipId];
+            int[] productIds = (zipCounts != null) ? zipCounts.productIds() : new int[0];
+            int used = 0;
+            for (int productId : productIds) {
+                used += (zipCounts.get(productId) != 0) ? 1 : 0;
+            }
+            out.writeInt(used);
+            for (int productId : productIds) {
+                if (zipCounts.get(productId) != 0) {
+                    out.writeInt(productId);
+                    out.writeInt(zipCounts.get(productId));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads an aggregation that has been written by writeTo over another catalog
+     * @param in DataInput
+     * @param catalog ProductCatalog of the aggregation that is read
+     * @param productIds int[] id in the given catalog by product id of the catalog of the writer
+     * @return aggregation ZipCodeAggregation
+     * @throws IOException
+     */
+    static ZipCodeAggregation readFrom(DataInput in, ProductCatalog catalog, int[] productIds) throws IOException {
+        ZipCodeAggregation aggregation = new ZipCodeAggregation(catalog);
+        int zipCodes = in.readInt();
+        for (int i = 0; i < zipCodes; i++) {
+            int zipId = aggregation.zipCodeId(in.readUTF());
+            aggregation.revenues[zipId] = in.readDouble();
+            int used = in.readInt();
+            for (int j = 0; j < used; j++) {
+                int productId = in.readInt();
+                if (productId < 0 || productId >= productIds.length) {
+                    throw new IOException("Aggregation refers to unknown product " + productId);
+                }
+                aggregation.count(zipId, productIds[productId], in.readInt(), 0.0);
+            }
+        }
+        return aggregation;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    public int getTotalNumberOfItems() {
+        return totalNumberOfItems;
+    }
+
+    public List<String> getZipCodes() {
+        return zipCodes;
+    }
+
+    private void count(int zipId, int productId, int amount, double price) {
+        this.zipCounts(zipId).add(productId, amount);
+        this.revenues[zipId] += price * amount;
+        this.totalNumberOfItems += amount;
+    }
+
+    private ProductCounts zipCounts(int zipId) {
+        if (this.counts[zipId] == null) {
+            this.counts[zipId] = new ProductCounts();
+        }
+        return this.counts[zipId];
+    }
+
+    /**
+     * Returns the id of the product of a purchase, products that are not in the catalog yet are added.
+     * ZipCodeAggregationTask registers all products before it forks, such that parallel leaves only look up ids.
+     * @param purchase Purchase
+     * @return id int
+     */
+    private int productId(Purchase purchase) {
+        int id = this.catalog.idOf(purchase.getProduct());
+        return (id >= 0) ? id : this.catalog.register(purchase.getProduct());
+    }
+
+    private int zipCodeId(String zipCode) {
+        Integer id = this.zipCodeIds.get(zipCode);
+        if (id == null) {
+            id = this.zipCodes.size();
+            this.zipCodes.add(zipCode);
+            this.zipCodeIds.put(zipCode, id);
+            if (id >= this.revenues.length) {
+                this.counts = Arrays.copyOf(this.counts, 2 * this.counts.length);
+                this.revenues = Arrays.copyOf(this.revenues, 2 * this.revenues.length);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * The amounts bought per product id of a single zip code, in a hash table with linear probing
+     */
+    private static class ProductCounts {
+        private int[] keys;         // product id + 1 per slot, 0 for a free slot
+        private int[] amounts;      // amount bought per slot
+        private int used;           // number of used slots
+
+        ProductCounts() {
+            this.keys = new int[8];
+            this.amounts = new int[8];
+        }
+
+        void add(int productId, int amount) {
+            int slot = this.slot(productId);
+            if (this.keys[slot] == 0) {
+                if (2 * (this.used + 1) > this.keys.length) {
+                    this.grow();
+                    slot = this.slot(productId);
+                }
+                this.keys[slot] = productId + 1;
+                this.used++;
+            }
+            this.amounts[slot] += amount;
+        }
+
+        int get(int productId) {
+            int slot = this.slot(productId);
+            return (this.keys[slot] != 0) ? this.amounts[slot] : 0;
+        }
+
+        /**
+         * @return productIds int[] of the products that have been counted, in ascending order
+         */
+        int[] productIds() {
+            int[] productIds = new int[this.used];
+            int n = 0;
+            for (int key : this.keys) {
+                if (key != 0) {
+                    productIds[n++] = key - 1;
+                }
+            }
+            Arrays.sort(productIds);
+            return productIds;
+        }
+
+        private int slot(int productId) {
+            int mask = this.keys.length - 1;
+            int slot = productId & mask;    // product ids are dense, such that they rarely collide
+            while (this.keys[slot] != 0 && this.keys[slot] != productId + 1) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = this.keys;
+            int[] oldAmounts = this.amounts;
+            this.keys = new int[2 * oldKeys.length];
+            this.amounts = new int[2 * oldAmounts.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = this.slot(oldKeys[i] - 1);
+                    this.keys[slot] = oldKeys[i];
+                    this.amounts[slot] = oldAmounts[i];
+                }
+            }
+        }
+    }
+}
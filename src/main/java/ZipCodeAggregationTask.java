@@ -0,0 +1,251 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork/join aggregation of customers per zip code.
+ *
+ * The customers are split into blocks of LEAF_SIZE customers, every block is aggregated into its own
+ * ZipCodeAggregation and the partial aggregations are merged pairwise along a split tree that only depends
+ * on the number of customers. The sequential and the parallel run therefore add up the revenues
+ * in exactly the same order and produce bit-for-bit equal results, regardless of the number of threads.
+ * Products that are not in the catalog yet are registered before the task forks,
+ * such that the leaves only look up product ids and never modify the catalog.
+ * The blocks can also be aggregated and kept on their own, merging them with mergeBlocks
+ * gives the same result as aggregating all their customers at once.
+ */
+public class ZipCodeAggregationTask extends RecursiveTask<ZipCodeAggregation> {
+    private static final long serialVersionUID = 1L;
+    public static final int LEAF_SIZE = 4096;   // number of customers that are aggregated by a single leaf
+
+    private final List<Customer> customers;     // source customers, or null when aggregating a table
+    private final CustomerTable table;          // source table, or null when aggregating customers
+    private final ProductCatalog catalog;
+    private final int from;                     // first customer or row, inclusive
+    private final int to;                       // last customer or row, exclusive
+    private final boolean fork;                 // whether sub tasks are forked into the pool
+
+    private ZipCodeAggregationTask(List<Customer> customers, CustomerTable table, ProductCatalog catalog,
+                                   int from, int to, boolean fork) {
+        this.customers = customers;
+        this.table = table;
+        this.catalog = catalog;
+        this.from = from;
+        this.to = to;
+        this.fork = fork;
+    }
+
+    /**
+     * Aggregates a list of customer objects
+     * @param customers List
+     * @param catalog ProductCatalog
+     * @param parallel boolean whether the blocks are aggregated by the common fork/join pool
+     * @return aggregation ZipCodeAggregation
+     */
+    public static ZipCodeAggregation aggregate(List<Customer> customers, ProductCatalog catalog, boolean parallel) {
+        return aggregate(customers, catalog, 0, customers.size(), parallel);
+    }
+
+    /**
+     * Aggregates a range of a list of customer objects
+     * @param customers List
+     * @param catalog ProductCatalog
+     * @param from int first customer, inclusive
+     * @param to int last customer, exclusive
+     * @param parallel boolean whether the blocks are aggregated by the common fork/join pool
+     * @return aggregation ZipCodeAggregation
+     */
+    public static ZipCodeAggregation aggregate(List<Customer> customers, ProductCatalog catalog, int from, int to,
+                                               boolean parallel) {
+        if (!(customers instanceof RandomAccess)) {
+            customers = new ArrayList<>(customers.subList(from, to));
+            to -= from;
+            from = 0;
+        }
+        for (int i = from; i < to; i++) {
+            register(customers.get(i).getPurchases(), catalog);
+        }
+        return run(new ZipCodeAggregationTask(customers, null, catalog, from, to, parallel));
+    }
+
+    /**
+     * Aggregates the rows of a customer table
+     * @param table CustomerTable
+     * @param parallel boolean whether the blocks are aggregated by the common fork/join pool
+     * @return aggregation ZipCodeAggregation
+     */
+    public static ZipCodeAggregation aggregate(CustomerTable table, boolean parallel) {
+        return aggregate(table, 0, table.size(), parallel);
+    }
+
+    /**
+     * Aggregates a range of rows of a customer table
+     * @param table CustomerTable
+     * @param fromRow int first row, inclusive
+     * @param toRow int last row, exclusive
+     * @param parallel boolean whether the blocks are aggregated by the common fork/join pool
+     * @return aggregation ZipCodeAggregation
+     */
+    public static ZipCodeAggregation aggregate(CustomerTable table, int fromRow, int toRow, boolean parallel) {
+        // rows hold ids of the catalog of the table, only handed out items may hold other products
+        for (int row = fromRow; row < toRow; row++) {
+            if (table.detachedItems(row) != null) {
+                register(table.detachedItems(row), table.getCatalog());
+            }
+        }
+        return run(new ZipCodeAggregationTask(null, table, table.getCatalog(), fromRow, toRow, parallel));
+    }
+
+    /**
+     * Aggregates every block of LEAF_SIZE customers of a range on its own, the last block may be partial
+     * @param customers List
+     * @param catalog ProductCatalog
+     * @param from int first customer, inclusive, at a block boundary
+     * @param to int last customer, exclusive
+     * @param parallel boolean whether the blocks are aggregated by the common fork/join pool
+     * @return blocks List of aggregations, one per block
+     */
+    public static List<ZipCodeAggregation> aggregateBlocks(List<Customer> customers, ProductCatalog catalog,
+                                                           int from, int to, boolean parallel) {
+        if (!(customers instanceof RandomAccess)) {
+            customers = new ArrayList<>(customers.subList(from, to));
+            to -= from;
+            from = 0;
+        }
+        for (int i = from; i < to; i++) {
+            register(customers.get(i).getPurchases(), catalog);
+        }
+        return runBlocks(customers, null, catalog, from, to, parallel);
+    }
+
+    /**
+     * Aggregates every block of LEAF_SIZE rows of a range of a customer table on its own,
+     * the last block may be partial
+     * @param table CustomerTable
+     * @param fromRow int first row, inclusive, at a block boundary
+     * @param toRow int last row, exclusive
+     * @param parallel boolean whether the blocks are aggregated by the common fork/join pool
+     * @return blocks List of aggregations, one per block
+     */
+    public static List<ZipCodeAggregation> aggregateBlocks(CustomerTable table, int fromRow, int toRow,
+                                                           boolean parallel) {
+        for (int row = fromRow; row < toRow; row++) {
+            if (table.detachedItems(row) != null) {
+                register(table.detachedItems(row), table.getCatalog());
+            }
+        }
+        return runBlocks(null, table, table.getCatalog(), fromRow, toRow, parallel);
+    }
+
+    /**
+     * Merges the aggregations of consecutive blocks along the split tree of a task over all their customers,
+     * such that the result is bit-for-bit equal to aggregating these customers at once.
+     * The given aggregations are not modified, a single block is returned as it is.
+     * @param blocks List of aggregations of consecutive blocks, at least one
+     * @return aggregation ZipCodeAggregation
+     */
+    public static ZipCodeAggregation mergeBlocks(List<ZipCodeAggregation> blocks) {
+        return mergeBlocks(blocks, 0, blocks.size());
+    }
+
+    private static ZipCodeAggregation mergeBlocks(List<ZipCodeAggregation> blocks, int from, int to) {
+        if (to - from == 1) {
+            return blocks.get(from);
+        }
+        int mid = from + (to - from) / 2;
+        ZipCodeAggregation left = mergeBlocks(blocks, from, mid);
+        ZipCodeAggregation right = mergeBlocks(blocks, mid, to);
+        if (mid - from == 1) {
+            // copy a block instead of modifying it
+            ZipCodeAggregation copy = new ZipCodeAggregation(left.getCatalog());
+            copy.merge(left);
+            left = copy;
+        }
+        left.merge(right);
+        return left;
+    }
+
+    private static List<ZipCodeAggregation> runBlocks(List<Customer> customers, CustomerTable table,
+                                                      ProductCatalog catalog, int from, int to, boolean parallel) {
+        List<ZipCodeAggregationTask> tasks = new ArrayList<>();
+        for (int start = from; start < to; start += LEAF_SIZE) {
+            int end = Math.min(start + LEAF_SIZE, to);
+            tasks.add(new ZipCodeAggregationTask(customers, table, catalog, start, end, false));
+        }
+        List<ZipCodeAggregation> blocks = new ArrayList<>(tasks.size());
+        if (parallel) {
+            for (ZipCodeAggregationTask task : tasks) {
+                ForkJoinPool.commonPool().execute(task);
+            }
+            for (ZipCodeAggregationTask task : tasks) {
+                blocks.add(task.join());
+            }
+        } else {
+            for (ZipCodeAggregationTask task : tasks) {
+                blocks.add(task.compute());
+            }
+        }
+        return blocks;
+    }
+
+    private static void register(Collection<Purchase> purchases, ProductCatalog catalog) {
+        for (Purchase p : purchases) {
+            catalog.register(p.getProduct());
+        }
+    }
+
+    private static ZipCodeAggregation run(ZipCodeAggregationTask task) {
+        return task.fork ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+    }
+
+    @Override
+    protected ZipCodeAggregation compute() {
+        if (this.to - this.from <= LEAF_SIZE) {
+            return aggregateLeaf();
+        }
+
+        // split at a block boundary, such that the tree only depends on the range
+        int blocks = (this.to - this.from + LEAF_SIZE - 1) / LEAF_SIZE;
+        int mid = this.from + (blocks / 2) * LEAF_SIZE;
+        ZipCodeAggregationTask left = subTask(this.from, mid);
+        ZipCodeAggregationTask right = subTask(mid, this.to);
+
+        ZipCodeAggregation leftResult;
+        ZipCodeAggregation rightResult;
+        if (this.fork) {
+            left.fork();
+            rightResult = right.compute();
+            leftResult = left.join();
+        } else {
+            leftResult = left.compute();
+            rightResult = right.compute();
+        }
+        leftResult.merge(rightResult);
+        return leftResult;
+    }
+
+    private ZipCodeAggregation aggregateLeaf() {
+        ZipCodeAggregation aggregation = new ZipCodeAggregation(this.catalog);
+        if (this.table != null) {
+            aggregation.addRows(this.table, this.from, this.to);
+        } else {
+            for (int i = this.from; i < this.to; i++) {
+                aggregation.add(this.customers.get(i));
+            }
+        }
+        return aggregation;
+    }
+
+    private ZipCodeAggregationTask subTask(int from, int to) {
+        return new ZipCodeAggregationTask(this.customers, this.table, this.catalog, from, to, this.fork);
+    }
+}
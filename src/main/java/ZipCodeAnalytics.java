@@ -0,0 +1,173 @@
+/**
+ * Supermarket Customer check-out and Cashier simulation
+ *
+ * @author hbo-ict@hva.nl
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the zip code aggregation of the customers of a supermarket up to date while customers are added.
+ *
+ * The aggregations of the full blocks of ZipCodeAggregationTask.LEAF_SIZE customers are kept, a read only
+ * aggregates the blocks that have been completed since the last read and the trailing partial block,
+ * and merges the blocks along the split tree of ZipCodeAggregationTask. A read therefore costs
+ * O(LEAF_SIZE + appended purchases + blocks * zip codes) instead of O(purchases), and its result is
+ * bit-for-bit equal to aggregating all customers at once, whatever the reads before it.
+ * The revenue and most bought product maps and the time series are memoized until the customers change.
+ * Modifications of the items of the customers are counted by the customer list or table, see getItemsVersion(),
+ * after which the next read aggregates all customers again. The same holds when the customer list reports that
+ * customers have been inserted, removed or replaced anywhere in the list, see CustomerList.
+ *
+ * Aggregations that have been handed out are never modified.
+ */
+public class ZipCodeAnalytics {
+    private final CustomerList customers;       // the customers of the supermarket
+    private final CustomerTable table;          // the table holding the customers, null for customer objects
+    private final ProductCatalog catalog;
+
+    private volatile boolean stale;             // whether the aggregation has been invalidated
+    private volatile boolean seriesStale;       // whether the time series has been invalidated
+    private final List<ZipCodeAggregation> blocks = new ArrayList<>();  // aggregations of the full blocks
+    private ZipCodeAggregation aggregation;     // aggregation of the aggregated customers, null if none
+    private int aggregated;                     // number of customers covered by the aggregation
+    private int aggregatedVersion;              // version of the customer list that has been aggregated
+    private int aggregatedItemsVersion;         // version of the items of the customers that has been aggregated
+    private Map<String, Double> revenues;               // memoized revenues, null until requested
+    private Map<String, Product> mostBoughtProducts;    // memoized most bought products, null until requested
+    private ArrivalTimeSeries timeSeries;               // memoized time series, null until requested
+    private int seriesVersion;                          // version of the customer list of the time series
+    private int seriesSize;                             // number of customers of the time series
+    private int seriesItemsVersion;                     // version of the items of the customers of the time series
+
+    /**
+     * @param customers CustomerList of customers
+     * @param table CustomerTable holding the customers, or null if the customers are objects
+     * @param catalog ProductCatalog of the products that the customers buy
+     */
+    public ZipCodeAnalytics(CustomerList customers, CustomerTable table, ProductCatalog catalog) {
+        this.customers = customers;
+        this.table = table;
+        this.catalog = catalog;
+    }
+
+    /**
+     * Returns whether these analytics are kept for the given customers
+     * @param customers List
+     * @param table CustomerTable
+     * @return boolean
+     */
+    public boolean isFor(List<Customer> customers, CustomerTable table) {
+        return this.customers == customers && this.table == table;
+    }
+
+    /**
+     * Returns the aggregation of all current customers
+     * @param parallelThreshold int minimum number of customers to aggregate in parallel
+     * @return aggregation ZipCodeAggregation
+     */
+    public synchronized ZipCodeAggregation getAggregation(int parallelThreshold) {
+        // modifications during the aggregation below give a newer version, which the next read notices
+        int version = this.customers.getVersion();
+        int itemsVersion = this.itemsVersion();
+        int size = (this.table != null) ? this.table.size() : this.customers.size();
+        if (this.stale || itemsVersion != this.aggregatedItemsVersion || size < this.aggregated
+                || !this.customers.isAppendedSince(this.aggregatedVersion)) {
+            this.stale = false;
+            this.blocks.clear();
+            this.aggregation = null;
+            this.aggregated = 0;
+        }
+
+        if (this.aggregation == null || size > this.aggregated) {
+            int kept = this.blocks.size() * ZipCodeAggregationTask.LEAF_SIZE;
+            int full = size - size % ZipCodeAggregationTask.LEAF_SIZE;
+            if (full > kept) {
+                this.blocks.addAll(this.aggregateBlocks(kept, full, full - kept >= parallelThreshold));
+            }
+            List<ZipCodeAggregation> all = this.blocks;
+            if (size > full) {
+                all = new ArrayList<>(this.blocks);
+                all.addAll(this.aggregateBlocks(full, size, false));
+            }
+            this.aggregation = all.isEmpty() ?
+                    new ZipCodeAggregation(this.catalog) : ZipCodeAggregationTask.mergeBlocks(all);
+            this.aggregated = size;
+            this.aggregatedVersion = version;
+            this.aggregatedItemsVersion = itemsVersion;
+            this.revenues = null;
+            this.mostBoughtProducts = null;
+        }
+        return this.aggregation;
+    }
+
+    /**
+     * @param parallelThreshold int minimum number of customers to aggregate in parallel
+     * @return revenues Map ordered by zip code, which cannot be modified
+     */
+    public synchronized Map<String, Double> revenueByZipCode(int parallelThreshold) {
+        ZipCodeAggregation current = this.getAggregation(parallelThreshold);
+        if (this.revenues == null) {
+            this.revenues = Collections.unmodifiableMap(current.revenueByZipCode());
+        }
+        return this.revenues;
+    }
+
+    /**
+     * @param parallelThreshold int minimum number of customers to aggregate in parallel
+     * @return most bought products Map ordered by zip code, which cannot be modified
+     */
+    public synchronized Map<String, Product> mostBoughtProductByZipCode(int parallelThreshold) {
+        ZipCodeAggregation current = this.getAggregation(parallelThreshold);
+        if (this.mostBoughtProducts == null) {
+            this.mostBoughtProducts = Collections.unmodifiableMap(current.mostBoughtProductByZipCode());
+        }
+        return this.mostBoughtProducts;
+    }
+
+    /**
+     * Returns the arrivals, items and revenue of the customers over the day,
+     * which is calculated again when the customers or their items have changed since the last read
+     * @return series ArrivalTimeSeries
+     */
+    public synchronized ArrivalTimeSeries getTimeSeries() {
+        // modifications while the series is built below give a newer version, which the next read notices
+        int version = this.customers.getVersion();
+        int itemsVersion = this.itemsVersion();
+        int size = (this.table != null) ? this.table.size() : this.customers.size();
+        if (this.timeSeries == null || this.seriesStale || version != this.seriesVersion || size != this.seriesSize
+                || itemsVersion != this.seriesItemsVersion) {
+            this.seriesStale = false;
+            this.timeSeries = ArrivalTimeSeries.of(this.customers, this.table);
+            this.seriesVersion = version;
+            this.seriesSize = size;
+            this.seriesItemsVersion = itemsVersion;
+        }
+        return this.timeSeries;
+    }
+
+    /**
+     * marks the aggregation and the time series as outdated, the next read calculates them from all customers again
+     */
+    public void invalidate() {
+        this.stale = true;
+        this.seriesStale = true;
+    }
+
+    /**
+     * @return version int number of modifications of the items of the customers
+     */
+    private int itemsVersion() {
+        return (this.table != null) ? this.table.getItemsVersion() : this.customers.getItemsVersion();
+    }
+
+    private List<ZipCodeAggregation> aggregateBlocks(int from, int to, boolean parallel) {
+        if (this.table != null) {
+            return ZipCodeAggregationTask.aggregateBlocks(this.table, from, to, parallel);
+        }
+        return ZipCodeAggregationTask.aggregateBlocks(this.customers, this.catalog, from, to, parallel);
+    }
+}
@@ -0,0 +1,260 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Registry of counters, gauges and timers of a run, which can be written as a snapshot in the Prometheus text format.
+ *
+ * Counters and timers are backed by LongAdders, such that concurrent simulations can update them without contention.
+ * Metrics are looked up by name and an optional label, hot code should keep a reference to the metric it updates.
+ */
+public class Metrics {
+    // set VMoption -Dsupermarket.metrics=<file> to write a snapshot at the end of a run
+    public static final String FILE_PROPERTY = "supermarket.metrics";
+    public final static Metrics REGISTRY = new Metrics();
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public Counter counter(String name, String help) {
+        return this.counter(name, help, null, null);
+    }
+
+    /**
+     * finds or registers a counter
+     * @param name String metric name
+     * @param help String description of the metric
+     * @param label String label name, or null
+     * @param value String label value, or null
+     * @return counter Counter
+     */
+    public Counter counter(String name, String help, String label, String value) {
+        return (Counter) this.family(name, help, "counter").metric(label, value, Counter::new);
+    }
+
+    public Gauge gauge(String name, String help) {
+        return this.gauge(name, help, null, null);
+    }
+
+    /**
+     * finds or registers a gauge
+     * @param name String metric name
+     * @param help String description of the metric
+     * @param label String label name, or null
+     * @param value String label value, or null
+     * @return gauge Gauge
+     */
+    public Gauge gauge(String name, String help, String label, String value) {
+        return (Gauge) this.family(name, help, "gauge").metric(label, value, Gauge::new);
+    }
+
+    public Timer timer(String name, String help) {
+        return this.timer(name, help, null, null);
+    }
+
+    /**
+     * finds or registers a timer, which is exported as a summary of seconds with a _count and a _sum
+     * @param name String metric name, ending with _seconds
+     * @param help String description of the metric
+     * @param label String label name, or null
+     * @param value String label value, or null
+     * @return timer Timer
+     */
+    public Timer timer(String name, String help, String label, String value) {
+        return (Timer) this.family(name, help, "summary").metric(label, value, Timer::new);
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = this.families.computeIfAbsent(name, n -> new Family(help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    /**
+     * writes the current values of all metrics in the Prometheus text format, ordered by name
+     * @param writer Writer
+     * @throws IOException
+     */
+    public void write(Writer writer) throws IOException {
+        for (Map.Entry<String, Family> entry : this.families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            writer.write("# HELP " + name + " " + family.help + "\n");
+            writer.write("# TYPE " + name + " " + family.type + "\n");
+            for (Map.Entry<String, Metric> metric : family.metrics.entrySet()) {
+                metric.getValue().write(writer, name, metric.getKey());
+            }
+        }
+    }
+
+    /**
+     * writes a snapshot to a file, the file is replaced at once such that a scraper never reads a partial snapshot
+     * @param path Path
+     * @throws IOException
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                this.write(writer);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * writes a snapshot to the file of the supermarket.metrics system property, if it has been set
+     */
+    public void writeConfiguredSnapshot() {
+        String fileName = System.getProperty(FILE_PROPERTY);
+        if (fileName == null) {
+            return;
+        }
+        try {
+            this.writeSnapshot(Paths.get(fileName));
+        } catch (IOException ex) {
+            SLF4J.logException("Cannot write metrics to '" + fileName + "'", ex);
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.US, "%.9g", value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * metrics that share a name, distinguished by the value of their label
+     */
+    private static class Family {
+        private final String help;
+        private final String type;
+        private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+        private Family(String help, String type) {
+            this.help = help;
+            this.type = type;
+        }
+
+        private Metric metric(String label, String value, Supplier<Metric> factory) {
+            String labels = (label == null) ? "" : "{" + label + "=\"" + escape(value) + "\"}";
+            return this.metrics.computeIfAbsent(labels, l -> factory.get());
+        }
+    }
+
+    private abstract static class Metric {
+        abstract void write(Writer writer, String name, String labels) throws IOException;
+    }
+
+    /**
+     * a value that only increases
+     */
+    public static class Counter extends Metric {
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            this.count.increment();
+        }
+
+        public void add(long amount) {
+            this.count.add(amount);
+        }
+
+        public long get() {
+            return this.count.sum();
+        }
+
+        @Override
+        void write(Writer writer, String name, String labels) throws IOException {
+            writer.write(name + labels + " " + this.get() + "\n");
+        }
+    }
+
+    /**
+     * a value that is set to the latest or the highest observation
+     */
+    public static class Gauge extends Metric {
+        private final AtomicLong value = new AtomicLong();
+
+        public void set(long value) {
+            this.value.set(value);
+        }
+
+        /**
+         * raises the gauge to the given value if that is higher
+         * @param value long
+         */
+        public void max(long value) {
+            this.value.accumulateAndGet(value, Math::max);
+        }
+
+        public long get() {
+            return this.value.get();
+        }
+
+        @Override
+        void write(Writer writer, String name, String labels) throws IOException {
+            writer.write(name + labels + " " + this.get() + "\n");
+        }
+    }
+
+    /**
+     * the number and the total duration of timed events
+     */
+    public static class Timer extends Metric {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        /**
+         * @return start long to be passed to stop
+         */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * records the time since start
+         * @param start long obtained from start()
+         */
+        public void stop(long start) {
+            this.record(System.nanoTime() - start);
+        }
+
+        public void record(long nanos) {
+            this.count.increment();
+            this.nanos.add(nanos);
+        }
+
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        public double getSeconds() {
+            return this.nanos.sum() / 1e9;
+        }
+
+        @Override
+        void write(Writer writer, String name, String labels) throws IOException {
+            writer.write(name + "_count" + labels + " " + this.getCount() + "\n");
+            writer.write(name + "_sum" + labels + " " + format(this.getSeconds()) + "\n");
+        }
+    }
+}
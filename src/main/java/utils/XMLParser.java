@@ -4,10 +4,20 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.util.StreamReaderDelegate;
+import java.io.IOException;
 import java.io.InputStream;
 
 public class XMLParser extends StreamReaderDelegate {
+    private static final Metrics.Counter ELEMENTS = Metrics.REGISTRY.counter("supermarket_xml_elements_total",
+            "Number of XML elements parsed");
+    private static final Metrics.Timer PARSING = Metrics.REGISTRY.timer("supermarket_xml_parse_seconds",
+            "Time from opening an XML document until it has been parsed or closed");
+
     private String sourceName = "";
+    private final long parseStart = PARSING.start();
+    private int elements;           // number of elements parsed, until they are added to the metrics
+    private boolean recorded;       // whether the parse has been added to the metrics
+    private final InputStream inputStream;
 
     public XMLParser(String resourceName) {
         this(XMLParser.class.getClassLoader().getResourceAsStream(resourceName));
@@ -16,6 +26,26 @@ public class XMLParser extends StreamReaderDelegate {
 
     public XMLParser(InputStream inputStream) {
         super(createXMLStreamReader(inputStream));
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * closes the parser and the underlying input stream
+     * @throws XMLStreamException
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        this.record();
+        if (this.getParent() != null) {
+            super.close();
+        }
+        if (this.inputStream != null) {
+            try {
+                this.inputStream.close();
+            } catch (IOException e) {
+                throw new XMLStreamException("Cannot close " + this.sourceName, e);
+            }
+        }
     }
 
     public static XMLStreamReader createXMLStreamReader(InputStream input) {
@@ -29,6 +59,36 @@ public class XMLParser extends StreamReaderDelegate {
         return xmlStreamReader;
     }
 
+    @Override
+    public int next() throws XMLStreamException {
+        return this.count(super.next());
+    }
+
+    @Override
+    public int nextTag() throws XMLStreamException {
+        return this.count(super.nextTag());
+    }
+
+    private int count(int event) {
+        if (event == START_ELEMENT) {
+            this.elements++;
+        } else if (event == END_DOCUMENT) {
+            this.record();
+        }
+        return event;
+    }
+
+    /**
+     * adds the parsed elements and the parse time to the metrics, once
+     */
+    private void record() {
+        if (!this.recorded) {
+            this.recorded = true;
+            ELEMENTS.add(this.elements);
+            PARSING.stop(this.parseStart);
+        }
+    }
+
     public boolean tryNext() throws XMLStreamException {
         if (this.hasNext()) {
             this.next();
@@ -6,10 +6,12 @@ import javanet.staxutils.IndentingXMLStreamWriter;
 
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 
 public class XMLWriter extends IndentingXMLStreamWriter {
     private String sourceName = "";
+    private final OutputStream outputStream;
 
     public XMLWriter(String resourceName) {
         this(FileOutputStreamOrNull(resourceName));
@@ -27,6 +29,25 @@ public class XMLWriter extends IndentingXMLStreamWriter {
 
     public XMLWriter(OutputStream outputStream) {
         super(createXMLStreamWriter(outputStream));
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * closes the writer and the underlying output stream
+     * @throws XMLStreamException
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        if (this.out != null) {
+            super.close();
+        }
+        if (this.outputStream != null) {
+            try {
+                this.outputStream.close();
+            } catch (IOException e) {
+                throw new XMLStreamException("Cannot close " + this.sourceName, e);
+            }
+        }
     }
 
     public static XMLStreamWriter createXMLStreamWriter(OutputStream output) {
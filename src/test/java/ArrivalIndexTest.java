@@ -0,0 +1,78 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ArrivalIndexTest {
+
+    @Test
+    void t201_customersAreIndexedInOrderOfArrival() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        List<Customer> sorted = new ArrayList<>(supermarket.getCustomers());
+        sorted.sort(new SortCustomerByQueuedAt());
+
+        ArrivalIndex index = supermarket.arrivalIndex();
+        assertEquals(sorted.size(), index.size());
+        for (int i = 0; i < index.size(); i++) {
+            assertSame(sorted.get(i), index.get(i));
+            assertEquals(sorted.get(i).getQueuedAt().toSecondOfDay(), index.getArrivalSecond(i));
+        }
+        assertSame(index, supermarket.arrivalIndex());
+
+        LocalTime from = LocalTime.of(10, 0);
+        LocalTime to = LocalTime.of(10, 30);
+        List<Customer> expected = new ArrayList<>();
+        for (Customer c : sorted) {
+            if (!c.getQueuedAt().isBefore(from) && c.getQueuedAt().isBefore(to)) {
+                expected.add(c);
+            }
+        }
+        assertEquals(expected, supermarket.getCustomersArrivingBetween(from, to));
+        assertEquals(expected.size(), index.countBetween(from.toSecondOfDay(), to.toSecondOfDay()));
+        assertTrue(supermarket.getCustomersArrivingBetween(to, from).isEmpty());
+
+        // adding a customer invalidates the index
+        Customer late = new Customer(LocalTime.of(10, 15), "1011AB");
+        supermarket.getCustomers().add(late);
+        assertNotSame(index, supermarket.arrivalIndex());
+        assertTrue(supermarket.getCustomersArrivingBetween(from, to).contains(late));
+        assertEquals(index.size() + 1, supermarket.arrivalIndex().size());
+
+        // replacing or reordering customers anywhere in the list invalidates the index as well
+        ArrivalIndex added = supermarket.arrivalIndex();
+        Customer early = new Customer(LocalTime.of(6, 0), "1011AB");
+        supermarket.getCustomers().set(1, early);
+        assertNotSame(added, supermarket.arrivalIndex());
+        assertSame(early, supermarket.arrivalIndex().get(0));
+        ArrivalIndex replaced = supermarket.arrivalIndex();
+        supermarket.getCustomers().sort(new SortCustomerByQueuedAt());
+        assertNotSame(replaced, supermarket.arrivalIndex());
+        for (int i = 0; i < supermarket.getCustomers().size(); i++) {
+            assertEquals(i, supermarket.arrivalIndex().getPosition(i));
+        }
+    }
+
+    @Test
+    void t202_tableIndexMatchesCustomerIndex() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        ArrivalIndex customerIndex = supermarket.arrivalIndex();
+        List<Integer> arrivals = new ArrayList<>();
+        for (int i = 0; i < customerIndex.size(); i++) {
+            arrivals.add(customerIndex.getArrivalSecond(i));
+        }
+
+        supermarket.loadCustomerTable();
+        ArrivalIndex tableIndex = supermarket.arrivalIndex();
+        assertNotSame(customerIndex, tableIndex);
+        for (int i = 0; i < tableIndex.size(); i++) {
+            assertEquals(customerIndex.getPosition(i), tableIndex.getPosition(i));
+            assertEquals(arrivals.get(i), tableIndex.getArrivalSecond(i));
+        }
+    }
+}
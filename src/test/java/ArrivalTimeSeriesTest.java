@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ArrivalTimeSeriesTest {
+
+    @Test
+    void t211_windowsEqualDirectSums() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        ArrivalTimeSeries series = supermarket.timeSeries();
+        LocalTime from = LocalTime.of(16, 0);
+        LocalTime to = LocalTime.of(17, 30);
+
+        int arrivals = 0;
+        long items = 0;
+        double revenue = 0.0;
+        for (Customer c : supermarket.getCustomers()) {
+            if (!c.getQueuedAt().isBefore(from) && c.getQueuedAt().isBefore(to)) {
+                arrivals++;
+                items += c.getNumberOfItems();
+                revenue += c.calculateTotalCost();
+            }
+        }
+        assertEquals(arrivals, series.getArrivals(from, to));
+        assertEquals(items, series.getItems(from, to));
+        assertEquals(revenue, series.getRevenue(from, to), 0.000001);
+
+        List<ArrivalTimeSeries.TimeWindow> windows = series.windows(LocalTime.MIDNIGHT, LocalTime.MAX, Duration.ofMinutes(5));
+        assertEquals(24 * 12, windows.size());
+        int total = 0;
+        for (ArrivalTimeSeries.TimeWindow window : windows) {
+            total += window.getArrivals();
+        }
+        assertEquals(supermarket.getCustomers().size(), total);
+        assertEquals(LocalTime.MAX, windows.get(windows.size() - 1).getEnd());
+        assertEquals(supermarket.getTotalNumberOfItems(), series.getItems(LocalTime.MIDNIGHT, LocalTime.MAX));
+    }
+
+    @Test
+    void t212_peakWindowIsTheBusiestWindow() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        Duration width = Duration.ofMinutes(15);
+        ArrivalTimeSeries.TimeWindow peak = supermarket.peakArrivalWindow(width);
+
+        int open = supermarket.getOpenTime().toSecondOfDay();
+        int closing = supermarket.getClosingTime().toSecondOfDay();
+        int busiest = 0;
+        for (int start = open; start + width.getSeconds() <= closing; start++) {
+            int count = 0;
+            for (Customer c : supermarket.getCustomers()) {
+                int second = c.getQueuedAt().toSecondOfDay();
+                if (second >= start && second < start + width.getSeconds()) {
+                    count++;
+                }
+            }
+            busiest = Math.max(busiest, count);
+        }
+        assertEquals(busiest, peak.getArrivals());
+        assertEquals(width, Duration.between(peak.getStart(), peak.getEnd()));
+
+        // the series follows modifications of the items
+        ArrivalTimeSeries series = supermarket.timeSeries();
+        Customer customer = supermarket.getCustomers().get(0);
+        customer.getItems().add(new Purchase(new Product("X001", "Extra", 2.0), 4));
+        LocalTime at = customer.getQueuedAt();
+        assertNotSame(series, supermarket.timeSeries());
+        assertEquals(series.getItems(at, at.plusSeconds(1)) + 4, supermarket.timeSeries().getItems(at, at.plusSeconds(1)));
+    }
+
+    @Test
+    void t213_seriesFollowsReplacedCustomers() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        ArrivalTimeSeries series = supermarket.timeSeries();
+        assertSame(series, supermarket.timeSeries());
+
+        Customer replaced = supermarket.getCustomers().get(1);
+        LocalTime at = replaced.getQueuedAt();
+        supermarket.getCustomers().set(1, new Customer(LocalTime.of(6, 0), "1011AB"));
+        assertNotSame(series, supermarket.timeSeries());
+        assertEquals(series.getArrivals(at, at.plusSeconds(1)) - 1, supermarket.timeSeries().getArrivals(at, at.plusSeconds(1)));
+        assertEquals(1, supermarket.timeSeries().getArrivals(LocalTime.of(6, 0), LocalTime.of(6, 1)));
+    }
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ChainCoordinatorTest {
+    private static final List<String> STORES = List.of("jambi1.xml", "jambi2.xml", "jambi250_8.xml", "jambi5.xml",
+            "jambi50_7.xml");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void t181_partitionsAreBalancedBySize() {
+        List<List<Integer>> partitions = ChainCoordinator.partition(new long[]{10, 70, 20, 40, 30}, 2);
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4, 0)), partitions);
+        assertEquals(2, ChainCoordinator.partition(new long[]{5, 5}, 4).size());
+    }
+
+    @Test
+    void t182_crashedWorkersAreRetriedWithTheSameResults() throws Exception {
+        for (String store : STORES) {
+            try (InputStream input = getClass().getClassLoader().getResourceAsStream(store)) {
+                Files.copy(input, directory.resolve(store));
+            }
+        }
+        Files.writeString(directory.resolve(ChainRunner.SCENARIOS_FILE), "jambi50_7.xml=1,1,3\n");
+        ChainResult expected = new ChainRunner(new CashierScenario(2, 1, 5)).run(directory);
+
+        ChainRunner runner = new ChainRunner(new CashierScenario(2, 1, 5));
+        ChainCoordinator coordinator = new ChainCoordinator(runner, 2);
+        coordinator.setWorkerClass("CrashingChainWorker");
+        coordinator.setJvmOptions(List.of("-Dcrash.marker=" + directory.resolve("crashed")));
+        ChainResult result = coordinator.run(directory);
+
+        assertEquals(1, coordinator.getRetries());
+        assertEquals(STORES.size(), result.getStores().size());
+        for (int i = 0; i < STORES.size(); i++) {
+            StoreResult store = result.getStores().get(i);
+            StoreResult local = expected.getStores().get(i);
+            assertEquals(STORES.get(i), store.getName());
+            assertEquals(local.getScenario(), store.getScenario());
+            assertEquals(local.getNumberOfCustomers(), store.getNumberOfCustomers());
+            assertEquals(local.getWorstWaitingTimes(), store.getWorstWaitingTimes());
+            for (int c = 0; c < local.getCashiers().size(); c++) {
+                CashierStatistics cashier = store.getCashiers().get(c);
+                assertEquals(local.getCashiers().get(c).getName(), cashier.getName());
+                assertEquals(local.getCashiers().get(c).getTotalWaitingTime(), cashier.getTotalWaitingTime());
+                assertEquals(local.getCashiers().get(c).getTotalIdleTime(), cashier.getTotalIdleTime());
+                assertEquals(local.getCashiers().get(c).getWaitTimeHistogram().toString(),
+                        cashier.getWaitTimeHistogram().toString());
+            }
+        }
+        Map<String, Double> revenues = result.revenueByZipCode();
+        assertEquals(expected.revenueByZipCode().keySet(), revenues.keySet());
+        expected.revenueByZipCode().forEach((zipCode, revenue) -> assertEquals(revenue, revenues.get(zipCode), 1e-6));
+        ZipCodeAggregation aggregation = result.aggregateByZipCode();
+        for (String zipCode : aggregation.getZipCodes()) {
+            List<String> expectedTop = new ArrayList<>();
+            expected.aggregateByZipCode().topProducts(zipCode, 3).forEach(p -> expectedTop.add(p.getCode()));
+            List<String> top = new ArrayList<>();
+            aggregation.topProducts(zipCode, 3).forEach(p -> top.add(p.getCode()));
+            assertEquals(expectedTop, top);
+        }
+        assertEquals(expected.getCatalog().size(), result.getCatalog().size());
+    }
+}
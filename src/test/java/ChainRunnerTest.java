@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ChainRunnerTest {
+    private static final List<String> STORES = List.of("jambi250_8.xml", "jambi5.xml", "jambi50_7.xml");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void t171_storesShareTheCatalogAndMatchSingleStoreSimulations() throws Exception {
+        for (String store : STORES) {
+            try (InputStream input = getClass().getClassLoader().getResourceAsStream(store)) {
+                Files.copy(input, directory.resolve(store));
+            }
+        }
+        Files.writeString(directory.resolve(ChainRunner.SCENARIOS_FILE), "jambi5.xml = 1, 0, 5\n");
+
+        ProductCatalog catalog = new ProductCatalog();
+        ChainResult chain = new ChainRunner(catalog, new CashierScenario(2, 1, 5), 3).run(directory);
+        assertSame(catalog, chain.getCatalog());
+        assertEquals(STORES.size(), chain.getStores().size());
+
+        Map<String, Double> revenues = new TreeMap<>();
+        Set<String> productCodes = new HashSet<>();
+        int totalCustomers = 0;
+        for (int i = 0; i < STORES.size(); i++) {
+            String name = STORES.get(i);
+            StoreResult store = chain.getStores().get(i);
+            assertEquals(name, store.getName());
+
+            Supermarket supermarket = Supermarket.importFromXML(name);
+            CashierScenario scenario = name.equals("jambi5.xml") ?
+                    new CashierScenario(1, 0, 5) : new CashierScenario(2, 1, 5);
+            ScenarioResult expected = new ScenarioRunner(supermarket, 1).simulate(scenario);
+            assertEquals(scenario, store.getScenario());
+            assertEquals(expected.getMaxWaitingTime(), store.getMaxWaitingTime());
+            assertEquals(expected.getAverageWaitingTime(), store.getAverageWaitingTime(), 1e-9);
+            assertEquals(expected.getMaxWaitingTime(), (int) store.getWorstWaitingTimes().get(0));
+            for (int c = 0; c < expected.getCashiers().size(); c++) {
+                Cashier cashier = expected.getCashiers().get(c);
+                CashierStatistics statistics = store.getCashiers().get(c);
+                assertEquals(cashier.getName(), statistics.getName());
+                assertEquals(cashier.getTotalCustomers(), statistics.getTotalCustomers());
+                assertEquals(cashier.getTotalIdleTime(), statistics.getTotalIdleTime());
+                assertEquals(cashier.getWaitingTimePercentile(90),
+                        statistics.getWaitTimeHistogram().getPercentile(90));
+            }
+            assertEquals(supermarket.getCustomers().size(), store.getNumberOfCustomers());
+            totalCustomers += store.getNumberOfCustomers();
+
+            supermarket.revenueByZipCode().forEach((zipCode, revenue) -> revenues.merge(zipCode, revenue, Double::sum));
+            for (Product product : supermarket.getProducts()) {
+                productCodes.add(product.getCode());
+            }
+        }
+
+        assertEquals(totalCustomers, chain.getTotalCustomers());
+        assertEquals(productCodes.size(), catalog.size());
+        Map<String, Double> chainRevenues = chain.revenueByZipCode();
+        assertEquals(revenues.keySet(), chainRevenues.keySet());
+        for (String zipCode : revenues.keySet()) {
+            assertEquals(revenues.get(zipCode), chainRevenues.get(zipCode), 1e-6);
+        }
+        List<StoreResult> worstFirst = chain.getStoresByMaxWaitingTime();
+        for (int i = 1; i < worstFirst.size(); i++) {
+            assertTrue(worstFirst.get(i - 1).getMaxWaitingTime() >= worstFirst.get(i).getMaxWaitingTime());
+        }
+    }
+
+    @Test
+    void t172_chainCatalogKeepsTheFirstPriceOfAProduct() throws Exception {
+        String store = "<?xml version=\"1.0\" ?>\n<supermarket openTime=\"12:00:00\" closingTime=\"12:05:00\">\n"
+                + "<products><product code=\"BRO001\" description=\"Croissant\" price=\"%s\"></product></products>\n"
+                + "<customers><customer queuedAt=\"12:00:32\" zipCode=\"%s\">"
+                + "<purchase product=\"BRO001\" amount=\"2\"></purchase></customer></customers>\n</supermarket>\n";
+        Files.writeString(directory.resolve("a.xml"), String.format(store, "0.50", "1015DP"));
+        Files.writeString(directory.resolve("b.xml"), String.format(store, "0.75", "1015DK"));
+
+        ProductCatalog catalog = new ProductCatalog();
+        ChainResult chain = new ChainRunner(catalog, new CashierScenario(1, 0, 5), 2).run(directory);
+        assertEquals(1, catalog.size());
+        assertEquals(0.50, catalog.get("BRO001").getPrice());
+        // every store is simulated with the prices of the chain
+        assertEquals(1.0, chain.revenueByZipCode().get("1015DP"), 1e-9);
+        assertEquals(1.0, chain.revenueByZipCode().get("1015DK"), 1e-9);
+        assertEquals(4, chain.aggregateByZipCode().getTotalNumberOfItems());
+        assertSame(catalog.get("BRO001"), chain.aggregateByZipCode().mostBoughtProductByZipCode().get("1015DK"));
+    }
+}
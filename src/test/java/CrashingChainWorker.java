@@ -0,0 +1,25 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Chain worker that crashes on its first task when it is the first worker to create the marker file
+ * of the crash.marker system property, all other workers behave like a ChainWorker
+ */
+public class CrashingChainWorker {
+    public static void main(String[] args) throws IOException {
+        try {
+            Files.createFile(Paths.get(System.getProperty("crash.marker")));
+        } catch (FileAlreadyExistsException ex) {
+            ChainWorker.main(args);
+            return;
+        }
+        ChainProtocol protocol = new ChainProtocol(new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0])));
+        protocol.sendHello();
+        protocol.receiveTask();
+        Runtime.getRuntime().halt(3);
+    }
+}
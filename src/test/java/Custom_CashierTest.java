@@ -5,8 +5,10 @@ import org.junit.jupiter.api.TestMethodOrder;
 
 import java.lang.reflect.InvocationTargetException;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
+import java.util.Random;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -62,11 +64,168 @@ class Custom_CashierTest {
         this.priorityCashier.add(this.customer9);
 
         //Check if customers is in order
-        LinkedList<Customer> queue = (LinkedList<Customer>) this.priorityCashier.getWaitingQueue();
+        List<Customer> queue = new ArrayList<>(this.priorityCashier.getWaitingQueue());
         assertEquals(this.customer1, queue.get(0));
         assertEquals(this.customer2, queue.get(1));
         assertEquals(this.customer9, queue.get(2));
         assertEquals(this.customer9, queue.get(3));
         assertEquals(this.customer9, queue.get(4));
     }
-}
\ No newline at end of file
+
+    @Test
+    void priorityLanesFollowIndexInsertionTest() {
+        Random random = new Random(7);
+        PriorityLaneQueue lanes = new PriorityLaneQueue(new int[]{5});
+        LinkedList<Customer> reference = new LinkedList<>();
+
+        for (int step = 0; step < 5000; step++) {
+            if (random.nextInt(3) > 0) {
+                Customer customer = new Customer(LocalTime.NOON, "1000AA");
+                customer.getItems().add(new Purchase(this.prod1, 1 + random.nextInt(12)));
+                lanes.add(customer);
+
+                //Former rule: insert in front of the first customer with more than 6 items,
+                //if the last customer in line holds more than 6 items.
+                if (reference.isEmpty() || customer.getNumberOfItems() > 5 ||
+                        reference.getLast().getNumberOfItems() <= 6) {
+                    reference.add(customer);
+                } else {
+                    int index = 0;
+                    while (reference.get(index).getNumberOfItems() <= 6) {
+                        index++;
+                    }
+                    reference.add(index, customer);
+                }
+            } else {
+                assertEquals(reference.poll(), lanes.poll());
+            }
+            assertEquals(reference, new ArrayList<>(lanes));
+        }
+    }
+
+    @Test
+    void multiplePriorityTiersTest() {
+        Customer customer3 = new Customer(LocalTime.NOON, "1000AD");
+        customer3.getItems().add(new Purchase(this.prod3, 3));
+        Cashier cashier = new PriorityCashier("PRIO-3", new int[]{1, 2});
+        cashier.restart(LocalTime.NOON);
+
+        //Both tiers skip the customer with 9 items
+        cashier.add(this.customer9);
+        cashier.add(this.customer2);
+        cashier.add(this.customer1);
+        //Only the first tier skips the customer with 3 items
+        cashier.add(customer3);
+        cashier.add(this.customer1);
+        cashier.add(this.customer2);
+
+        List<Customer> queue = new ArrayList<>(cashier.getWaitingQueue());
+        assertEquals(List.of(this.customer2, this.customer1, this.customer1, this.customer9, customer3, this.customer2),
+                queue);
+        assertThrows(IllegalArgumentException.class, () -> new PriorityCashier("PRIO-4", new int[]{3, 3}));
+    }
+
+    @Test
+    void workloadStressTest() {
+        Random random = new Random(42);
+        Product[] products = {this.prod1, this.prod2, this.prod3};
+        FIFOCashier fifo = (FIFOCashier) this.fifoCashier;
+        PriorityCashier prio = (PriorityCashier) this.priorityCashier;
+        fifo.restart(LocalTime.NOON);
+        prio.restart(LocalTime.NOON);
+
+        LocalTime time = LocalTime.NOON;
+        for (int step = 0; step < 2000; step++) {
+            //Create a random customer, sometimes without items
+            Customer customer = new Customer(time, "1000AA");
+            int nProducts = random.nextInt(4);
+            for (int p = 0; p < nProducts; p++) {
+                customer.getItems().add(new Purchase(products[p], 1 + random.nextInt(6)));
+            }
+
+            assertEquals(scanFIFOWaitingTime(fifo), fifo.expectedWaitingTime(customer));
+            assertEquals(scanPriorityWaitingTime(prio, 5, customer), prio.expectedWaitingTime(customer));
+
+            //Add bursts of customers with short gaps so queues grow and shrink
+            fifo.add(customer);
+            prio.add(customer);
+            time = time.plusSeconds(random.nextInt(random.nextBoolean() ? 10 : 60));
+            fifo.doTheWorkUntil(time);
+            prio.doTheWorkUntil(time);
+        }
+    }
+
+    /**
+     * Reference waiting time of a FIFO cashier by scanning the whole queue.
+     */
+    private int scanFIFOWaitingTime(Cashier cashier) {
+        int totalTime = 0;
+        for (Customer next : cashier.getWaitingQueue()) {
+            totalTime += 20 + (2 * next.getNumberOfItems());
+        }
+        if (cashier.currentCustomer != null) {
+            totalTime += 20 + (2 * cashier.currentCustomer.getNumberOfItems());
+        }
+        return totalTime - cashier.timeWorked;
+    }
+
+    /**
+     * Reference waiting time of a priority cashier by scanning the whole queue.
+     */
+    private int scanPriorityWaitingTime(Cashier cashier, int maxPriorityItems, Customer customer) {
+        int waitingTime = 0;
+        if (customer.getNumberOfItems() < 1) {
+            return waitingTime;
+        }
+        if (cashier.currentCustomer != null) {
+            waitingTime += 20 + (cashier.currentCustomer.getNumberOfItems() * 2);
+        }
+        LinkedList<Customer> queue = new LinkedList<>(cashier.getWaitingQueue());
+        if (queue.isEmpty()) {
+            return (waitingTime > 0) ? (waitingTime - cashier.timeWorked) : waitingTime;
+        }
+        if (customer.getNumberOfItems() > maxPriorityItems ||
+                queue.getLast().getNumberOfItems() <= (maxPriorityItems + 1)) {
+            for (Customer next : queue) {
+                waitingTime += 20 + (next.getNumberOfItems() * 2);
+            }
+            return (waitingTime - cashier.timeWorked);
+        }
+        for (Customer next : queue) {
+            if (next.getNumberOfItems() <= (maxPriorityItems + 1)) {
+                waitingTime += 20 + (next.getNumberOfItems() * 2);
+            }
+        }
+        return (waitingTime > 0) ? (waitingTime - cashier.timeWorked) : waitingTime;
+    }
+
+    @Test
+    void historyRetentionAndServedStatisticsTest() {
+        this.fifoCashier.restart(LocalTime.NOON);
+        assertEquals(Cashier.HistoryRetention.FULL, this.fifoCashier.getHistoryRetention());
+        this.fifoCashier.setHistoryRetention(Cashier.HistoryRetention.OFF);
+        this.fifoCashier.add(this.customer1);
+        assertTrue(this.fifoCashier.getHistory().isEmpty());
+
+        this.fifoCashier.setHistoryRetention(2);
+        this.fifoCashier.add(this.customer2);
+        this.fifoCashier.add(this.customer9);
+        this.fifoCashier.add(this.customer1);
+        assertEquals(List.of(this.customer9, this.customer1), new ArrayList<>(this.fifoCashier.getHistory()));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> this.fifoCashier.setHistoryRetention(Cashier.HistoryRetention.LAST_N));
+        this.fifoCashier.setHistoryRetention(Cashier.HistoryRetention.FULL);
+        this.fifoCashier.add(this.customer2);
+        assertEquals(3, this.fifoCashier.getHistory().size());
+
+        // 1, 2, 9, 1 and 2 items give checkout times 22, 24, 38, 22 and 24
+        assertEquals(5, this.fifoCashier.getTotalCustomers());
+        assertEquals(26.0, this.fifoCashier.getAverageCheckOutTime());
+
+        this.fifoCashier.doTheWorkUntil(LocalTime.NOON.plusMinutes(10));
+        assertEquals(5, this.fifoCashier.getServedCustomers());
+        assertEquals(15, this.fifoCashier.getServedItems());
+        assertEquals(130, this.fifoCashier.getBusyTime());
+    }
+}
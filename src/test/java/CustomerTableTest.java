@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class CustomerTableTest {
+
+    private Product prod1 = new Product("A001", "Any-1", 1.0);
+    private Product prod2 = new Product("A002", "Any-2", 2.0);
+    private CustomerTable table;
+
+    @BeforeEach
+    void setup() {
+        Customer customer0 = new Customer(LocalTime.NOON, "1000AA");
+        Customer customer3 = new Customer(LocalTime.NOON.plusSeconds(10), "1000AB");
+        customer3.getItems().add(new Purchase(this.prod1, 1));
+        customer3.getItems().add(new Purchase(this.prod2, 2));
+        this.table = CustomerTable.of(List.of(customer0, customer3), Set.of(this.prod1, this.prod2));
+    }
+
+    @Test
+    void t021_tableStoresColumnsOfCustomers() {
+        assertEquals(2, this.table.size());
+        assertEquals(LocalTime.NOON.toSecondOfDay() + 10, this.table.getArrivalSecond(1));
+        assertEquals("1000AB", this.table.getZipCode(1));
+        assertEquals(0, this.table.getItemCount(0));
+        assertEquals(3, this.table.getItemCount(1));
+        assertEquals(5.0, this.table.getTotalCost(1));
+        assertEquals(2, this.table.getPurchaseEnd(1) - this.table.getPurchaseStart(1));
+    }
+
+    @Test
+    void t022_customersAreViewsOnRows() {
+        Customer view = this.table.getCustomer(1);
+        assertEquals(LocalTime.NOON.plusSeconds(10), view.getQueuedAt());
+        assertEquals("1000AB", view.getZipCode());
+        assertEquals(3, view.getNumberOfItems());
+        assertEquals(5.0, view.calculateTotalCost());
+        assertEquals(view, this.table.asList().get(1));
+        assertNotEquals(view, this.table.getCustomer(0));
+    }
+
+    @Test
+    void t023_modifiedItemsOfViewAreUsedByTable() {
+        Customer view = this.table.getCustomer(0);
+        view.getItems().add(new Purchase(this.prod2, 4));
+        assertEquals(4, view.getNumberOfItems());
+        assertEquals(4, this.table.getItemCount(0));
+        assertEquals(8.0, this.table.getCustomer(0).calculateTotalCost());
+    }
+
+    @Test
+    void t024_supermarketRunsAgainstTable() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi5.xml");
+        supermarket.loadCustomerTable();
+        assertEquals(6, supermarket.getCustomers().size());
+        assertEquals(25, supermarket.getTotalNumberOfItems());
+        assertThat(supermarket.revenueByZipCode().get("1014DA"), is(closeTo(56.79, 0.0001)));
+        assertThat(supermarket.revenueByZipCode().get("1016DK"), is(closeTo(0.0, 0.0001)));
+        assertThat(supermarket.mostBoughtProductByZipCode().get("1015DK").toString(), is("Calve Pindakaas 650g"));
+        assertNull(supermarket.mostBoughtProductByZipCode().get("1016DK"));
+
+        Cashier cashier = new FIFOCashier("FIFO-1");
+        supermarket.getCashiers().add(cashier);
+        supermarket.simulateCashiers();
+        assertEquals(150, cashier.getTotalIdleTime());
+        assertEquals(4, cashier.getMaxQueueLength());
+    }
+
+    @Test
+    void t025_concurrentReadersShareTheItemsOfARow() throws Exception {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        CustomerTable table = supermarket.loadCustomerTable();
+        List<Callable<List<Set<Purchase>>>> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(() -> {
+                List<Set<Purchase>> items = new ArrayList<>();
+                for (int row = 0; row < table.size(); row++) {
+                    items.add(table.getItems(row));
+                }
+                return items;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(readers.size());
+        try {
+            List<Future<List<Set<Purchase>>>> results = executor.invokeAll(readers);
+            List<Set<Purchase>> first = results.get(0).get();
+            for (Future<List<Set<Purchase>>> result : results) {
+                for (int row = 0; row < table.size(); row++) {
+                    assertSame(first.get(row), result.get().get(row));
+                    assertSame(first.get(row), table.getItems(row));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
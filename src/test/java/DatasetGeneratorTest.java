@@ -0,0 +1,58 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import utils.XMLParser;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class DatasetGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void t121_layoutEqualsExportXML() throws Exception {
+        Supermarket template = Supermarket.importFromXML("supermarket25.xml");
+        Supermarket empty = new Supermarket("empty", LocalTime.NOON, LocalTime.NOON.plusMinutes(30), template.getProducts());
+        Path exported = this.tempDir.resolve("exported.xml");
+        empty.exportXML(exported.toString());
+
+        Path generated = this.tempDir.resolve("generated.xml");
+        new DatasetGenerator(empty, 8).generate(1L, 0, generated);
+        assertArrayEquals(Files.readAllBytes(exported), Files.readAllBytes(generated));
+    }
+
+    @Test
+    void t122_seedGivesIdenticalFilesOnAnyNumberOfThreads() throws Exception {
+        Supermarket template = Supermarket.importFromXML("supermarket25.xml");
+        int nCustomers = 3 * DatasetGenerator.CHUNK_SIZE + 5;
+        DatasetGenerator generator = new DatasetGenerator(template, 6);
+
+        Path sequential = this.tempDir.resolve("sequential.xml");
+        generator.setThreads(1);
+        generator.generate(2020L, nCustomers, sequential);
+        Path parallel = this.tempDir.resolve("parallel.xml");
+        generator.setThreads(4);
+        generator.generate(2020L, nCustomers, parallel);
+        Path otherSeed = this.tempDir.resolve("other.xml");
+        generator.generate(2021L, nCustomers, otherSeed);
+
+        byte[] expected = Files.readAllBytes(sequential);
+        assertArrayEquals(expected, Files.readAllBytes(parallel));
+        assertFalse(Arrays.equals(expected, Files.readAllBytes(otherSeed)));
+
+        Supermarket loaded = Supermarket.importFromXML(new XMLParser(Files.newInputStream(parallel)), "parallel");
+        assertEquals(nCustomers, loaded.getCustomers().size());
+        for (Customer c : loaded.getCustomers()) {
+            assertTrue(c.getNumberOfItems() >= 1 && c.getNumberOfItems() < 4 * 6);
+            assertFalse(c.getQueuedAt().isBefore(template.getOpenTime()));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class LiveSimulationTest {
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private Supermarket supermarket;
+    private ProductCatalog catalog;
+
+    @BeforeEach
+    void setup() {
+        supermarket = Supermarket.importFromXML("supermarket25.xml");
+        supermarket.setOpenTime(LocalTime.of(8, 0));
+        supermarket.setClosingTime(LocalTime.of(9, 0));
+        supermarket.addRandomCustomers(400, 8);
+        catalog = ProductCatalog.of(supermarket.getProducts());
+    }
+
+    @Test
+    void t161_streamedArrivalsMatchTheScheduler() throws Exception {
+        List<Customer> arrivals = new ArrayList<>(supermarket.getCustomers());
+        arrivals.sort(new SortCustomerByQueuedAt());
+        StringBuilder lines = new StringBuilder("# arrivals of the test\n\n");
+        for (Customer customer : arrivals) {
+            lines.append(TIME.format(customer.getQueuedAt())).append(' ').append(customer.getZipCode());
+            for (Purchase purchase : customer.getItems()) {
+                lines.append(' ').append(purchase.getProduct().getCode()).append(':').append(purchase.getAmount());
+            }
+            lines.append('\n');
+        }
+        lines.append("08:30:00 1013AD UNKNOWN:1\n");
+
+        List<Cashier> streamed = new CashierScenario(2, 1, 5).createCashiers();
+        List<LiveWindow> windows = new ArrayList<>();
+        LiveSimulation simulation = new LiveSimulation(catalog, streamed, 16, Duration.ofMillis(5));
+        simulation.setListener(windows::add);
+        Thread consumer = new Thread(simulation);
+        consumer.start();
+        int submitted = simulation.feed(new StringReader(lines.toString()));
+        simulation.close();
+        consumer.join();
+
+        List<Cashier> scheduled = new CashierScenario(2, 1, 5).createCashiers();
+        SimulationScheduler scheduler = new SimulationScheduler(scheduled, arrivals.get(0).getQueuedAt());
+        for (Customer customer : arrivals) {
+            scheduler.scheduleArrival(customer);
+        }
+        scheduler.run();
+
+        assertEquals(arrivals.size(), submitted);
+        for (int i = 0; i < scheduled.size(); i++) {
+            assertEquals(scheduled.get(i).getTotalCustomers(), streamed.get(i).getTotalCustomers());
+            assertEquals(scheduled.get(i).getTotalWaitingTime(), streamed.get(i).getTotalWaitingTime());
+            assertEquals(scheduled.get(i).getWaitingQueue().size(), streamed.get(i).getWaitingQueue().size());
+        }
+        assertEquals(arrivals.size(), windows.stream().mapToInt(LiveWindow::getArrivals).sum());
+        assertSame(simulation.getLastWindow(), windows.get(windows.size() - 1));
+        assertEquals(0, simulation.getLastWindow().getBacklog());
+    }
+
+    @Test
+    void t162_fullQueueAppliesBackpressureAndNewDayRestarts() throws Exception {
+        List<Cashier> cashiers = new CashierScenario(1, 0, 5).createCashiers();
+        LiveSimulation simulation = new LiveSimulation(catalog, cashiers, 2, Duration.ofSeconds(1));
+        String purchase = " " + catalog.get(0).getCode() + ":1";
+        Customer first = simulation.parseArrival("23:59:00 1013AD" + purchase);
+        Customer second = simulation.parseArrival("23:59:30 1013AD" + purchase);
+        assertNull(simulation.parseArrival("   "));
+        assertThrows(IllegalArgumentException.class, () -> simulation.parseArrival("25:00:00 1013AD"));
+
+        assertTrue(simulation.offer(first, Duration.ZERO));
+        assertTrue(simulation.offer(second, Duration.ZERO));
+        assertFalse(simulation.offer(simulation.parseArrival("00:00:10 1013AD" + purchase), Duration.ofMillis(10)));
+        assertEquals(2, simulation.getBacklog());
+
+        simulation.process(first);
+        simulation.process(second);
+        assertEquals(2, cashiers.get(0).getTotalCustomers());
+        LiveWindow window = simulation.publish();
+        assertEquals(2, window.getArrivals());
+        assertEquals(LocalTime.of(23, 59, 30), window.getSimulatedTime());
+
+        // the clock wraps around midnight: the day is finished and the cashiers start over
+        simulation.process(simulation.parseArrival("00:00:10 1013AD" + purchase));
+        assertEquals(2, simulation.getLastWindow().getTakenCustomers() + window.getTakenCustomers());
+        assertEquals(1, cashiers.get(0).getTotalCustomers());
+        assertEquals(1, simulation.publish().getArrivals());
+    }
+
+    @Test
+    void t163_unfinishedCustomersAreCarriedOverToTheNewDay() {
+        List<Cashier> cashiers = new CashierScenario(1, 0, 5).createCashiers();
+        LiveSimulation simulation = new LiveSimulation(catalog, cashiers, 4, Duration.ofSeconds(1));
+        String purchase = " " + catalog.get(0).getCode() + ":10";
+        simulation.process(simulation.parseArrival("23:59:40 1013AD" + purchase));
+        simulation.process(simulation.parseArrival("23:59:50 1013AD" + purchase));
+        simulation.process(simulation.parseArrival("23:59:55 1013AD" + purchase));
+
+        // the first customer is being served and two are waiting at the end of the day
+        simulation.process(simulation.parseArrival("00:00:10 1013AD" + purchase));
+        assertEquals(2, simulation.getLastWindow().getQueuedCustomers());
+        assertEquals(4, cashiers.get(0).getTotalCustomers());
+        assertEquals(3, cashiers.get(0).getWaitingQueue().size());
+        assertEquals(LocalTime.MIDNIGHT, cashiers.get(0).getWaitingQueue().peek().getQueuedAt());
+        assertEquals(1, simulation.publish().getArrivals());
+    }
+}
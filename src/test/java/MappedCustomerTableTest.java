@@ -0,0 +1,118 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import utils.XMLParser;
+
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class MappedCustomerTableTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void t191_mappedStoreEqualsXML() throws Exception {
+        Path store = this.tempDir.resolve("jambi250_8.customers");
+        XMLParser xmlParser = new XMLParser("jambi250_8.xml");
+        MappedCustomerTable.convert(xmlParser, "jambi250_8.xml", store);
+        xmlParser.close();
+        Supermarket original = Supermarket.importFromXML("jambi250_8.xml");
+        Supermarket mapped = Supermarket.importCustomerStore(store.toString());
+
+        assertNotNull(mapped);
+        assertEquals(original.getOpenTime(), mapped.getOpenTime());
+        assertEquals(original.getClosingTime(), mapped.getClosingTime());
+        assertEquals(original.getCustomers().size(), mapped.getCustomers().size());
+        for (int i = 0; i < original.getCustomers().size(); i++) {
+            Customer c = original.getCustomers().get(i);
+            Customer d = mapped.getCustomers().get(i);
+            assertEquals(c.getQueuedAt(), d.getQueuedAt());
+            assertEquals(c.getZipCode(), d.getZipCode());
+            assertEquals(c.getNumberOfItems(), d.getNumberOfItems());
+            assertEquals(c.calculateTotalCost(), d.calculateTotalCost(), 0.000001);
+        }
+        assertEquals(original.getTotalNumberOfItems(), mapped.getTotalNumberOfItems());
+        assertEquals(original.mostBoughtProductByZipCode(), mapped.mostBoughtProductByZipCode());
+
+        CashierScenario scenario = new CashierScenario(2, 1, 5);
+        ScenarioResult expected = new ScenarioRunner(original).simulate(scenario);
+        ScenarioResult actual = new ScenarioRunner(mapped).simulate(scenario);
+        assertEquals(expected.getMaxWaitingTime(), actual.getMaxWaitingTime());
+        assertEquals(expected.getAverageWaitingTime(), actual.getAverageWaitingTime());
+
+        // the customers of a store are read-only
+        assertThrows(UnsupportedOperationException.class, () -> mapped.addRandomCustomers(10, 3));
+        assertThrows(UnsupportedOperationException.class,
+                () -> mapped.getCustomers().add(new Customer(LocalTime.NOON, "1011AB")));
+        assertThrows(UnsupportedOperationException.class, () -> mapped.getCustomers().set(0, original.getCustomers().get(0)));
+        assertEquals(original.getCustomers().size(), mapped.getCustomers().size());
+    }
+
+    @Test
+    void t192_cursorAndUnsortedRows() throws Exception {
+        Product apple = new Product("A001", "Apple", 0.5);
+        Supermarket supermarket = new Supermarket("unsorted", LocalTime.of(8, 0), LocalTime.of(9, 0),
+                new ProductCatalog(List.of(apple)));
+        int[] arrivals = {600, 120, 120, 1800};
+        for (int arrival : arrivals) {
+            Customer customer = new Customer(LocalTime.of(8, 0).plusSeconds(arrival), "1011AB");
+            customer.getItems().add(new Purchase(apple, 2));
+            supermarket.getCustomers().add(customer);
+        }
+        Path store = this.tempDir.resolve("unsorted.customers");
+        supermarket.exportCustomerStore(store.toString());
+        MappedCustomerTable table = MappedCustomerTable.open(store);
+
+        assertFalse(table.isSortedByArrival());
+        MappedCustomerTable.Cursor cursor = table.cursor();
+        for (int row = 0; row < arrivals.length; row++) {
+            assertTrue(cursor.next());
+            assertEquals(row, cursor.getRow());
+            assertEquals(LocalTime.of(8, 0).plusSeconds(arrivals[row]).toSecondOfDay(), cursor.getArrivalSecond());
+            assertEquals(2, cursor.getItemCount());
+        }
+        assertFalse(cursor.next());
+        cursor.seek(1);
+        assertTrue(cursor.next());
+        assertEquals(2, cursor.getRow());
+        assertThrows(IllegalStateException.class, () -> cursor.seekArrival(0));
+        assertThrows(UnsupportedOperationException.class,
+                () -> table.add(0, "1011AB", List.of(new Purchase(apple, 1))));
+
+        // unsorted rows are still simulated in order of arrival
+        Supermarket mapped = Supermarket.importCustomerStore(store.toString());
+        CashierScenario scenario = new CashierScenario(1, 0, 5);
+        assertEquals(new ScenarioRunner(supermarket).simulate(scenario).getAverageWaitingTime(),
+                new ScenarioRunner(mapped).simulate(scenario).getAverageWaitingTime());
+
+        // items that are handed out take precedence over the mapped purchases
+        mapped.getCustomers().get(3).getItems().add(new Purchase(apple, 3));
+        assertEquals(11, mapped.getTotalNumberOfItems());
+    }
+
+    @Test
+    void t193_removedProductsStayRemoved() throws Exception {
+        Product apple = new Product("A001", "Apple", 0.5);
+        Product pear = new Product("P001", "Pear", 0.75);
+        ProductCatalog catalog = new ProductCatalog(List.of(apple, pear));
+        Supermarket supermarket = new Supermarket("removed", LocalTime.of(8, 0), LocalTime.of(9, 0), catalog);
+        Customer customer = new Customer(LocalTime.of(8, 10), "1011AB");
+        customer.getItems().add(new Purchase(pear, 2));
+        supermarket.getCustomers().add(customer);
+        catalog.remove(pear);
+
+        Path store = this.tempDir.resolve("removed.customers");
+        supermarket.exportCustomerStore(store.toString());
+        MappedCustomerTable table = MappedCustomerTable.open(store);
+
+        assertEquals(1, table.getCatalog().size());
+        assertNull(table.getCatalog().get("P001"));
+        assertEquals(1.5, table.getCustomer(0).calculateTotalCost(), 0.000001);
+    }
+}
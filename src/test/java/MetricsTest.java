@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import utils.Metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class MetricsTest {
+
+    @Test
+    void t141_snapshotIsWrittenInPrometheusTextFormat(@TempDir Path directory) throws IOException {
+        Metrics metrics = new Metrics();
+        metrics.counter("test_events_total", "Events").add(3);
+        metrics.gauge("test_queue_length", "Queue length", "cashier", "FIFO-1").max(7);
+        metrics.gauge("test_queue_length", "Queue length", "cashier", "FIFO-1").max(4);
+        Metrics.Timer timer = metrics.timer("test_seconds", "Time");
+        timer.record(1_500_000_000L);
+        assertSame(timer, metrics.timer("test_seconds", "Time"));
+        assertThrows(IllegalArgumentException.class, () -> metrics.gauge("test_seconds", "Time"));
+
+        StringWriter text = new StringWriter();
+        metrics.write(text);
+        assertEquals("# HELP test_events_total Events\n" +
+                "# TYPE test_events_total counter\n" +
+                "test_events_total 3\n" +
+                "# HELP test_queue_length Queue length\n" +
+                "# TYPE test_queue_length gauge\n" +
+                "test_queue_length{cashier=\"FIFO-1\"} 7\n" +
+                "# HELP test_seconds Time\n" +
+                "# TYPE test_seconds summary\n" +
+                "test_seconds_count 1\n" +
+                "test_seconds_sum 1.50000000\n", text.toString());
+
+        Path file = directory.resolve("supermarket.prom");
+        metrics.writeSnapshot(file);
+        assertEquals(text.toString(), Files.readString(file));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void t142_simulationAndImportUpdateTheRegistry() {
+        Metrics.Counter routed = Metrics.REGISTRY.counter("supermarket_customers_routed_total", "");
+        Metrics.Counter elements = Metrics.REGISTRY.counter("supermarket_xml_elements_total", "");
+        long routedBefore = routed.get();
+        long elementsBefore = elements.get();
+
+        Supermarket supermarket = Supermarket.importFromXML("jambi5.xml");
+        assertThat(elements.get() - elementsBefore, greaterThan((long) supermarket.getCustomers().size()));
+
+        supermarket.getCashiers().add(new FIFOCashier("FIFO-1"));
+        supermarket.simulateCashiers();
+        assertEquals(supermarket.getCustomers().size(), routed.get() - routedBefore);
+        // other simulations may have raised the gauge of FIFO-1 further
+        assertThat(Metrics.REGISTRY.gauge("supermarket_cashier_max_queue_length", "", "cashier", "FIFO-1").get(),
+                greaterThanOrEqualTo((long) supermarket.getCashiers().get(0).getMaxQueueLength()));
+    }
+}
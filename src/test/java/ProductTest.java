@@ -5,6 +5,8 @@ import org.junit.jupiter.api.TestMethodOrder;
 
 
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
@@ -47,4 +49,62 @@ class ProductTest {
         assertEquals(5, supermarket.getProducts().size(),
                 "A duplicate product code should not have been added to the set");
     }
-}
\ No newline at end of file
+
+    @Test
+    void t004_catalogAssignsDenseIdsAndResolvesCodes() {
+        ProductCatalog catalog = new ProductCatalog();
+        Product p1 = new Product("ABC", "XXX", 1.0);
+        Product p2 = new Product("ABC", "YYY", 2.0);
+        Product p3 = new Product("DEF", "XXX", 3.0);
+        assertTrue(catalog.add(p1));
+        assertFalse(catalog.add(p2), "A duplicate product code should not have been added to the catalog");
+        assertTrue(catalog.add(p3));
+        assertEquals(2, catalog.size());
+        assertEquals(0, p1.getId());
+        assertEquals(1, catalog.idOf(p3));
+        assertEquals(0, catalog.idOf(p2));
+        assertSame(p3, catalog.get("DEF"));
+        assertSame(p3, catalog.get(1));
+        assertNull(catalog.get("GHI"));
+        assertEquals(3.0, catalog.getPrice(1));
+        assertSame(catalog.intern(new String("XXX")), catalog.intern(new String("XXX")));
+    }
+
+    @Test
+    void t005_supermarketImportsProductsIntoCatalog() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi5.xml");
+        assertTrue(supermarket.getProducts() instanceof ProductCatalog);
+        ProductCatalog catalog = (ProductCatalog) supermarket.getProducts();
+        for (Customer c : supermarket.getCustomers()) {
+            for (Purchase p : c.getItems()) {
+                assertSame(p.getProduct(), catalog.get(p.getProductId()));
+            }
+        }
+    }
+
+    @Test
+    void t006_removedProductsKeepTheirIds() {
+        ProductCatalog catalog = new ProductCatalog();
+        Product p1 = new Product("ABC", "XXX", 1.0);
+        Product p2 = new Product("DEF", "YYY", 2.0);
+        Product p3 = new Product("GHI", "ZZZ", 3.0);
+        catalog.addAll(List.of(p1, p2, p3));
+
+        assertTrue(catalog.remove(p2));
+        assertFalse(catalog.remove(p2));
+        assertEquals(2, catalog.size());
+        assertEquals(3, catalog.getIdCount());
+        assertFalse(catalog.contains(p2));
+        assertNull(catalog.get("DEF"));
+        assertSame(p2, catalog.get(1));
+        assertEquals(2.0, catalog.getPrice(1));
+        assertThat(new ArrayList<>(catalog), contains(p1, p3));
+
+        catalog.removeIf(p -> p.getCode().equals("ABC"));
+        assertThat(new ArrayList<>(catalog), contains(p3));
+        assertTrue(catalog.add(p2));
+        assertEquals(1, p2.getId());
+        assertEquals(3, catalog.getIdCount());
+        assertSame(p2, catalog.get("DEF"));
+    }
+}
@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ReplicationRunnerTest {
+
+    @Test
+    void t101_metricSummary() {
+        MetricSummary summary = new MetricSummary(new double[]{1.0, 2.0, 3.0, 4.0});
+        assertEquals(4, summary.getCount());
+        assertEquals(2.5, summary.getMean());
+        assertThat(summary.getStandardDeviation(), is(closeTo(1.2910, 0.0001)));
+        assertThat(summary.getUpperBound() - summary.getMean(), is(closeTo(1.2652, 0.0001)));
+        assertEquals(0.0, new MetricSummary(new double[]{7.0}).getStandardDeviation());
+    }
+
+    @Test
+    void t102_seedReproducesRandomCustomers() {
+        Supermarket template = Supermarket.importFromXML("jambi5.xml");
+        Supermarket day1 = new Supermarket("day1", template.getOpenTime(), template.getClosingTime(), template.getProducts());
+        Supermarket day2 = new Supermarket("day2", template.getOpenTime(), template.getClosingTime(), template.getProducts());
+        day1.addRandomCustomers(50, 4, new SplittableRandom(42));
+        day2.addRandomCustomers(50, 4, new SplittableRandom(42));
+        assertEquals(day1.getCustomers().toString(), day2.getCustomers().toString());
+        assertEquals(day1.getTotalNumberOfItems(), day2.getTotalNumberOfItems());
+        assertEquals(day1.revenueByZipCode().keySet(), day2.revenueByZipCode().keySet());
+        for (String zipCode : day1.revenueByZipCode().keySet()) {
+            // purchases are summed in set order, so revenues may differ in the last bits
+            assertThat(day2.revenueByZipCode().get(zipCode), is(closeTo(day1.revenueByZipCode().get(zipCode), 0.0001)));
+        }
+    }
+
+    @Test
+    void t103_sameSeedGivesSameResultsOnAnyNumberOfThreads() {
+        Supermarket template = Supermarket.importFromXML("jambi250_8.xml");
+        ReplicationRunner runner = new ReplicationRunner(template, new CashierScenario(2, 1, 5), 200, 6);
+
+        runner.setThreads(1);
+        ReplicationResult sequential = runner.run(2020L, 24);
+        runner.setThreads(4);
+        ReplicationResult parallel = runner.run(2020L, 24);
+        ReplicationResult otherSeed = runner.run(2021L, 24);
+
+        assertEquals(24, parallel.getReplications());
+        boolean differs = false;
+        for (int cashier = 0; cashier < 3; cashier++) {
+            for (CashierMetric metric : CashierMetric.values()) {
+                for (int r = 0; r < 24; r++) {
+                    assertEquals(sequential.getSample(cashier, metric, r), parallel.getSample(cashier, metric, r));
+                    differs |= sequential.getSample(cashier, metric, r) != otherSeed.getSample(cashier, metric, r);
+                }
+                assertEquals(sequential.getSummary(cashier, metric).getMean(),
+                        parallel.getSummary(cashier, metric).getMean());
+            }
+        }
+        assertTrue(differs);
+
+        double customers = 0.0;
+        for (int cashier = 0; cashier < 3; cashier++) {
+            customers += parallel.getSummary(cashier, CashierMetric.CUSTOMERS).getMean();
+        }
+        assertThat(customers, is(closeTo(200.0, 0.0001)));
+    }
+}
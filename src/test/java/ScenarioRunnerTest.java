@@ -0,0 +1,55 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ScenarioRunnerTest {
+
+    @Test
+    void t081_scenariosAreNamedLikeTheManualSetup() {
+        List<Cashier> cashiers = new CashierScenario(2, 1, 5).createCashiers();
+        assertEquals(3, cashiers.size());
+        assertEquals("FIFO-1", cashiers.get(0).getName());
+        assertEquals("FIFO-2", cashiers.get(1).getName());
+        assertEquals("PRIO", cashiers.get(2).getName());
+        assertTrue(cashiers.get(2) instanceof PriorityCashier);
+        assertThrows(IllegalArgumentException.class, () -> new CashierScenario(0, 0, 5));
+    }
+
+    @Test
+    void t082_concurrentResultsMatchSequentialSimulationInInputOrder() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        List<CashierScenario> scenarios = new ArrayList<>();
+        for (int fifo = 0; fifo <= 3; fifo++) {
+            for (int prio = 0; prio <= 2; prio++) {
+                if (fifo + prio > 0) {
+                    scenarios.add(new CashierScenario(fifo, prio, 2 + fifo));
+                }
+            }
+        }
+
+        List<ScenarioResult> results = new ScenarioRunner(supermarket, 4).run(scenarios);
+        assertEquals(scenarios.size(), results.size());
+        for (int i = 0; i < scenarios.size(); i++) {
+            ScenarioResult result = results.get(i);
+            assertSame(scenarios.get(i), result.getScenario());
+
+            List<Cashier> expected = scenarios.get(i).createCashiers();
+            supermarket.simulateCashiers(expected);
+            for (int c = 0; c < expected.size(); c++) {
+                Cashier actual = result.getCashiers().get(c);
+                assertEquals(expected.get(c).getName(), actual.getName());
+                assertEquals(expected.get(c).getTotalCustomers(), actual.getTotalCustomers());
+                assertEquals(expected.get(c).getAverageWaitingTime(), actual.getAverageWaitingTime());
+                assertEquals(expected.get(c).getMaxWaitingTime(), actual.getMaxWaitingTime());
+                assertEquals(expected.get(c).getTotalIdleTime(), actual.getTotalIdleTime());
+            }
+            assertEquals(supermarket.getCustomers().size(), result.getTotalCustomers());
+        }
+    }
+}
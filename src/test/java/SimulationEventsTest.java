@@ -0,0 +1,65 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SimulationEventsTest {
+
+    @Test
+    void t151_simulationEmitsFlightRecorderEvents(@TempDir Path directory) throws IOException {
+        Supermarket supermarket = Supermarket.importFromXML("jambi50_7.xml");
+        List<Cashier> cashiers = new CashierScenario(1, 1, 5).createCashiers();
+        cashiers.get(0).setQueueOverflowLength(0);
+
+        Path file = directory.resolve("simulation.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : List.of("CustomerArrival", "RoutingDecision", "ServiceStart", "ServiceEnd", "QueueOverflow")) {
+                recording.enable("supermarket." + name);
+            }
+            recording.start();
+            supermarket.simulateCashiers(cashiers);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        int customers = supermarket.getCustomers().size();
+        int served = cashiers.get(0).getServedCustomers() + cashiers.get(1).getServedCustomers();
+        assertEquals(customers, count(events, "CustomerArrival"));
+        assertEquals(customers, count(events, "RoutingDecision"));
+        assertEquals(served, count(events, "ServiceEnd"));
+        assertThat(count(events, "ServiceStart"), greaterThanOrEqualTo((long) served));
+        assertEquals(cashiers.get(0).getTotalCustomers(), count(events, "QueueOverflow"));
+
+        RecordedEvent routing = events.stream()
+                .filter(e -> e.getEventType().getName().equals("supermarket.RoutingDecision")).findFirst().get();
+        assertTrue(routing.getString("candidateWaits").matches("FIFO=\\d+ PRIO=\\d+"));
+        assertThat(routing.getString("cashier"), isOneOf("FIFO", "PRIO"));
+        LocalTime simulatedTime = LocalTime.parse(routing.getString("simulatedTime"));
+        assertFalse(simulatedTime.isBefore(supermarket.getOpenTime()));
+        for (RecordedEvent end : events) {
+            if (end.getEventType().getName().equals("supermarket.ServiceEnd")) {
+                assertThat(end.getString("cashier"), isOneOf("FIFO", "PRIO"));
+                assertThat(end.getInt("checkOutTime"), greaterThan(0));
+            }
+        }
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals("supermarket." + name))
+                .count();
+    }
+}
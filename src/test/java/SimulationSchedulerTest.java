@@ -0,0 +1,103 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SimulationSchedulerTest {
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        supermarket = Supermarket.importFromXML("supermarket25.xml");
+        supermarket.setOpenTime(LocalTime.of(8, 0));
+        supermarket.setClosingTime(LocalTime.of(9, 0));
+        supermarket.addRandomCustomers(400, 8);
+    }
+
+    @Test
+    void t071_eventsAreOrderedByTimeAndSchedulingOrder() {
+        SimulationEvent e1 = new SimulationEvent(SimulationEvent.Type.ARRIVAL, 100, 1, null);
+        SimulationEvent e2 = new SimulationEvent(SimulationEvent.Type.ARRIVAL, 100, 2, null);
+        SimulationEvent e3 = new SimulationEvent(SimulationEvent.Type.CLOSING, 50, 3, null);
+        assertTrue(e1.compareTo(e2) < 0);
+        assertTrue(e3.compareTo(e1) < 0);
+    }
+
+    @Test
+    void t072_schedulerMatchesStepwiseSimulation() {
+        List<Cashier> stepped = createCashiers();
+        List<Cashier> scheduled = createCashiers();
+
+        // reference: advance every cashier on every arrival
+        List<Customer> arrivals = new ArrayList<>(supermarket.getCustomers());
+        arrivals.sort(new SortCustomerByQueuedAt());
+        for (Cashier c : stepped) {
+            c.restart(supermarket.getOpenTime());
+        }
+        for (Customer customer : arrivals) {
+            for (Cashier c : stepped) {
+                c.doTheWorkUntil(customer.getQueuedAt());
+            }
+            customer.selectCashier(stepped).add(customer);
+        }
+        for (Cashier c : stepped) {
+            c.doTheWorkUntil(supermarket.getClosingTime());
+        }
+
+        SimulationScheduler scheduler = new SimulationScheduler(scheduled, supermarket.getOpenTime());
+        for (Customer customer : supermarket.getCustomers()) {
+            scheduler.scheduleArrival(customer);
+        }
+        scheduler.scheduleClosing(supermarket.getClosingTime());
+        scheduler.run();
+
+        for (int i = 0; i < stepped.size(); i++) {
+            assertEquals(stepped.get(i).getTotalCustomers(), scheduled.get(i).getTotalCustomers());
+            assertEquals(stepped.get(i).getTotalIdleTime(), scheduled.get(i).getTotalIdleTime());
+            assertEquals(stepped.get(i).getMaxQueueLength(), scheduled.get(i).getMaxQueueLength());
+            assertEquals(stepped.get(i).getMaxWaitingTime(), scheduled.get(i).getMaxWaitingTime());
+            assertEquals(stepped.get(i).getAverageWaitingTime(), scheduled.get(i).getAverageWaitingTime());
+        }
+        assertEquals(0, scheduler.getPendingEvents());
+    }
+
+    @Test
+    void t073_lateCustomersWaitFromTheClock() {
+        Product product = supermarket.getProducts().iterator().next();
+        Customer first = new Customer(LocalTime.of(9, 0), "1011AB");
+        first.getItems().add(new Purchase(product, 1));
+        Customer late = new Customer(LocalTime.of(8, 0), "1011AB");
+        late.getItems().add(new Purchase(product, 1));
+
+        List<Cashier> cashiers = List.of(new FIFOCashier("FIFO-1"));
+        SimulationScheduler scheduler = new SimulationScheduler(cashiers, LocalTime.of(8, 0));
+        scheduler.scheduleArrival(first);
+        scheduler.fireNext();
+        scheduler.scheduleArrival(late);
+        scheduler.fireNext();
+        scheduler.scheduleClosing(LocalTime.of(10, 0));
+        scheduler.run();
+
+        // the late customer only waits for the checkout of the first customer
+        assertEquals(1, scheduler.getLateEvents());
+        assertEquals(2, cashiers.get(0).getTotalCustomers());
+        assertTrue(cashiers.get(0).getMaxWaitingTime() < 60);
+    }
+
+    private List<Cashier> createCashiers() {
+        List<Cashier> cashiers = new ArrayList<>();
+        cashiers.add(new FIFOCashier("FIFO-1"));
+        cashiers.add(new PriorityCashier("PRIO-1", 5));
+        cashiers.add(new FIFOCashier("FIFO-2"));
+        cashiers.add(new PriorityCashier("PRIO-2", 3));
+        return cashiers;
+    }
+}
@@ -0,0 +1,68 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class StaffingOptimizerTest {
+
+    private Supermarket supermarket;
+
+    @BeforeEach
+    void setup() {
+        this.supermarket = Supermarket.importFromXML("jambi250_8.xml");
+    }
+
+    @Test
+    void t091_optimumEqualsExhaustiveSearch() {
+        for (WaitingTimeSLA sla : List.of(WaitingTimeSLA.maxWaitingTime(400), WaitingTimeSLA.averageWaitingTime(28.0))) {
+            StaffingOptimizer optimizer = new StaffingOptimizer(this.supermarket, sla, 10.0, 12.0);
+            optimizer.setMaxCashiers(4, 3);
+            ScenarioResult optimum = optimizer.optimize();
+            assertNotNull(optimum);
+            assertTrue(sla.isMetBy(optimum));
+            assertTrue(optimizer.getAborted() > 0);
+
+            assertEquals(exhaustiveSearch(optimizer, sla, 4, 3), optimum.getScenario());
+
+            optimizer.setThreads(1);
+            assertEquals(optimum.getScenario(), optimizer.optimize().getScenario());
+        }
+    }
+
+    @Test
+    void t092_unreachableSlaGivesNoScenario() {
+        StaffingOptimizer optimizer =
+                new StaffingOptimizer(this.supermarket, WaitingTimeSLA.maxWaitingTime(10), 10.0, 12.0);
+        optimizer.setMaxCashiers(2, 1);
+        assertNull(optimizer.optimize());
+        assertEquals(5, optimizer.getSimulated() + optimizer.getAborted());
+    }
+
+    private CashierScenario exhaustiveSearch(StaffingOptimizer optimizer, WaitingTimeSLA sla, int maxFifo, int maxPrio) {
+        List<CashierScenario> scenarios = new ArrayList<>();
+        for (int fifo = 0; fifo <= maxFifo; fifo++) {
+            for (int prio = 0; prio <= maxPrio; prio++) {
+                if (fifo + prio > 0) {
+                    scenarios.add(new CashierScenario(fifo, prio, 5));
+                }
+            }
+        }
+        scenarios.sort(Comparator.comparingDouble(optimizer::costOf)
+                .thenComparingInt(s -> s.getFifoCashiers() + s.getPriorityCashiers())
+                .thenComparingInt(CashierScenario::getFifoCashiers));
+        ScenarioRunner runner = new ScenarioRunner(this.supermarket);
+        for (ScenarioResult result : runner.run(scenarios)) {
+            if (sla.isMetBy(result)) {
+                return result.getScenario();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class SupermarketSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void t111_snapshotRoundTripEqualsXML() throws Exception {
+        String snapshot = this.tempDir.resolve("jambi250_8.snapshot").toString();
+        SupermarketSnapshot.convert("jambi250_8.xml", snapshot);
+        Supermarket original = Supermarket.importFromXML("jambi250_8.xml");
+        Supermarket loaded = Supermarket.importSnapshot(snapshot);
+
+        assertNotNull(loaded);
+        assertEquals(original.name, loaded.name);
+        assertEquals(original.getOpenTime(), loaded.getOpenTime());
+        assertEquals(original.getClosingTime(), loaded.getClosingTime());
+        assertEquals(new ArrayList<>(original.getProducts()), new ArrayList<>(loaded.getProducts()));
+        for (Product p : original.getProducts()) {
+            Product q = ((ProductCatalog) loaded.getProducts()).get(p.getCode());
+            assertEquals(p.getDescription(), q.getDescription());
+            assertEquals(p.getPrice(), q.getPrice());
+        }
+
+        assertEquals(original.getCustomers().size(), loaded.getCustomers().size());
+        for (int i = 0; i < original.getCustomers().size(); i++) {
+            Customer c = original.getCustomers().get(i);
+            Customer d = loaded.getCustomers().get(i);
+            assertEquals(c.getQueuedAt(), d.getQueuedAt());
+            assertEquals(c.getZipCode(), d.getZipCode());
+            assertEquals(c.getNumberOfItems(), d.getNumberOfItems());
+            assertEquals(c.calculateTotalCost(), d.calculateTotalCost(), 0.000001);
+        }
+        assertEquals(original.getTotalNumberOfItems(), loaded.getTotalNumberOfItems());
+        assertEquals(original.mostBoughtProductByZipCode(), loaded.mostBoughtProductByZipCode());
+
+        CashierScenario scenario = new CashierScenario(2, 1, 5);
+        ScenarioResult expected = new ScenarioRunner(original).simulate(scenario);
+        ScenarioResult actual = new ScenarioRunner(loaded).simulate(scenario);
+        assertEquals(expected.getMaxWaitingTime(), actual.getMaxWaitingTime());
+        assertEquals(expected.getAverageWaitingTime(), actual.getAverageWaitingTime());
+    }
+
+    @Test
+    void t112_modifiedItemsAreWritten() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi5.xml");
+        supermarket.loadCustomerTable();
+        Product extra = new Product("X001", "Extra", 1.25);
+        supermarket.getCustomers().get(1).getItems().add(new Purchase(extra, 3));
+        int totalItems = supermarket.getTotalNumberOfItems();
+
+        String snapshot = this.tempDir.resolve("jambi5.snapshot").toString();
+        supermarket.exportSnapshot(snapshot);
+        Supermarket loaded = Supermarket.importSnapshot(snapshot);
+
+        assertEquals(totalItems, loaded.getTotalNumberOfItems());
+        assertEquals(supermarket.getCustomers().get(1).getNumberOfItems(), loaded.getCustomers().get(1).getNumberOfItems());
+        assertNotNull(((ProductCatalog) loaded.getProducts()).get("X001"));
+    }
+
+    @Test
+    void t114_removedProductsStayRemoved() {
+        Product apple = new Product("A001", "Apple", 0.5);
+        Product pear = new Product("P001", "Pear", 0.75);
+        ProductCatalog catalog = new ProductCatalog(List.of(apple, pear));
+        Supermarket supermarket = new Supermarket("removed", LocalTime.of(8, 0), LocalTime.of(9, 0), catalog);
+        Customer customer = new Customer(LocalTime.of(8, 10), "1011AB");
+        customer.getItems().add(new Purchase(pear, 2));
+        supermarket.getCustomers().add(customer);
+        catalog.remove(pear);
+        catalog.add(new Product("P001", "Pear", 0.80));
+
+        String snapshot = this.tempDir.resolve("removed.snapshot").toString();
+        supermarket.exportSnapshot(snapshot);
+        Supermarket loaded = Supermarket.importSnapshot(snapshot);
+        ProductCatalog loadedCatalog = (ProductCatalog) loaded.getProducts();
+
+        assertEquals(catalog.size(), loadedCatalog.size());
+        assertEquals(catalog.getIdCount(), loadedCatalog.getIdCount());
+        assertTrue(loadedCatalog.isRemoved(1));
+        assertEquals(0.80, loadedCatalog.get("P001").getPrice());
+        assertEquals(1.5, loaded.getCustomers().get(0).calculateTotalCost(), 0.000001);
+    }
+
+    @Test
+    void t115_writingLeavesTheSupermarketAsItIs() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi5.xml");
+        ProductCatalog catalog = (ProductCatalog) supermarket.getProducts();
+        int idCount = catalog.getIdCount();
+        Product extra = new Product("X001", "Extra", 1.25);
+        supermarket.getCustomers().get(1).getItems().add(new Purchase(extra, 3));
+
+        String snapshot = this.tempDir.resolve("jambi5.snapshot").toString();
+        supermarket.exportSnapshot(snapshot);
+        assertEquals(idCount, catalog.getIdCount());
+        assertNull(catalog.get("X001"));
+        assertNull(supermarket.getCustomerTable());
+        assertNotNull(((ProductCatalog) Supermarket.importSnapshot(snapshot).getProducts()).get("X001"));
+
+        // a supermarket without customers gives an empty snapshot
+        Supermarket empty = new Supermarket("empty", LocalTime.of(8, 0), LocalTime.of(9, 0));
+        String emptySnapshot = this.tempDir.resolve("empty.snapshot").toString();
+        empty.exportSnapshot(emptySnapshot);
+        Supermarket loaded = Supermarket.importSnapshot(emptySnapshot);
+        assertNotNull(loaded);
+        assertEquals(0, loaded.getCustomers().size());
+    }
+
+    @Test
+    void t113_otherFilesAreRejected() throws Exception {
+        Path file = this.tempDir.resolve("not-a-snapshot");
+        Files.write(file, List.of("<supermarket/>"));
+        assertNull(Supermarket.importSnapshot(file.toString()));
+    }
+}
@@ -6,6 +6,7 @@ import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -109,6 +110,25 @@ class SupermarketTest {
         t060_twoCashierSimulation(this.supermarket5, this.fifoCashier1, this.priorityCashier, 450, 202, 248, 2, 2);
     }
 
+    @Test
+    void t065_streamingSimulationMatchesBatchSimulation() {
+        if (this.fifoCashier1 == null || this.priorityCashier == null) return;
+        supermarket5.getCashiers().add(this.fifoCashier1);
+        supermarket5.getCashiers().add(this.priorityCashier);
+        supermarket5.simulateCashiers();
+
+        Cashier fifo = new FIFOCashier("FIFO-S");
+        Cashier prio = new PriorityCashier("PRIO-S", 5);
+        // customers in jambi5.xml arrive up to 3 positions out of order
+        Supermarket streamed = Supermarket.simulateCashiersFromXML("jambi5.xml", List.of(fifo, prio), 3);
+        assertEquals(0, streamed.getCustomers().size());
+        assertEquals(5, streamed.getProducts().size());
+        assertEquals(this.fifoCashier1.getTotalIdleTime(), fifo.getTotalIdleTime());
+        assertEquals(this.priorityCashier.getTotalIdleTime(), prio.getTotalIdleTime());
+        assertEquals(this.fifoCashier1.getMaxWaitingTime(), fifo.getMaxWaitingTime());
+        assertEquals(this.priorityCashier.getAverageWaitingTime(), prio.getAverageWaitingTime());
+    }
+
     private void t060_oneCashierSimulation(Supermarket supermarket, Cashier cashier,
                                                int totalIdleTime, int maxQueueLength) {
         if (cashier == null) return;
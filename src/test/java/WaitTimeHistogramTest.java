@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class WaitTimeHistogramTest {
+
+    @Test
+    void t131_smallWaitingTimesAreExact() {
+        WaitTimeHistogram histogram = new WaitTimeHistogram();
+        for (int w = 1; w <= 10; w++) {
+            histogram.record(w);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(55, histogram.getTotal());
+        assertEquals(1, histogram.getMin());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(9, histogram.getPercentile(90));
+        assertEquals(10, histogram.getPercentile(99));
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(0, new WaitTimeHistogram().getPercentile(50));
+    }
+
+    @Test
+    void t132_percentilesAreWithinBucketErrorAndMergeable() {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] waits = new int[20000];
+        WaitTimeHistogram first = new WaitTimeHistogram();
+        WaitTimeHistogram second = new WaitTimeHistogram();
+        for (int i = 0; i < waits.length; i++) {
+            waits[i] = (int) (3600 * random.nextDouble() * random.nextDouble());
+            (i % 2 == 0 ? first : second).record(waits[i]);
+        }
+        first.merge(second);
+        Arrays.sort(waits);
+
+        assertEquals(waits.length, first.getCount());
+        assertEquals(waits[waits.length - 1], first.getMax());
+        for (double p : new double[]{50.0, 90.0, 99.0, 99.9}) {
+            int exact = waits[(int) Math.ceil(p / 100.0 * waits.length) - 1];
+            assertThat(first.getPercentile(p), is(both(greaterThanOrEqualTo(exact)).and(lessThanOrEqualTo(exact + exact / 32 + 1))));
+        }
+    }
+
+    @Test
+    void t133_worstWaitsKeepsTheLongestWaitingCustomers() {
+        WorstWaits worstWaits = new WorstWaits(3);
+        List<Customer> customers = new ArrayList<>();
+        int[] waits = {5, 40, 12, 40, 3, 99, 12};
+        for (int wait : waits) {
+            Customer c = new Customer(LocalTime.NOON, "1000AA");
+            customers.add(c);
+            worstWaits.record(wait, c);
+        }
+        assertEquals(List.of(99, 40, 40), worstWaits.getWaitingTimes());
+        assertEquals(List.of(customers.get(5), customers.get(1), customers.get(3)), worstWaits.getCustomers());
+
+        WorstWaits merged = new WorstWaits(2);
+        merged.record(50, customers.get(0));
+        merged.merge(worstWaits);
+        assertEquals(List.of(99, 50), merged.getWaitingTimes());
+    }
+
+    @Test
+    void t134_cashiersRecordPercentilesWhileSimulating() {
+        Supermarket supermarket = Supermarket.importFromXML("jambi250_8.xml");
+        ScenarioResult result = new ScenarioRunner(supermarket).simulate(new CashierScenario(1, 1, 5));
+        for (Cashier c : result.getCashiers()) {
+            assertEquals(c.getMaxWaitingTime(), c.getWaitingTimePercentile(100));
+            assertEquals(c.getMaxWaitingTime(), (int) c.getWorstWaits().getWaitingTimes().get(0));
+            assertThat(c.getWaitingTimePercentile(50), is(lessThanOrEqualTo(c.getWaitingTimePercentile(90))));
+        }
+        assertEquals(result.getTotalCustomers(), result.getWaitTimeHistogram().getCount());
+        assertEquals(result.getMaxWaitingTime(), result.getWaitTimeHistogram().getMax());
+    }
+}
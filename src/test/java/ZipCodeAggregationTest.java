@@ -0,0 +1,194 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.Alphanumeric.class)
+class ZipCodeAggregationTest {
+
+    private Product prod1 = new Product("A001", "Any-1", 1.0);
+    private Product prod2 = new Product("A002", "Any-2", 2.0);
+    private Product prod3 = new Product("A003", "Any-3", 3.0);
+    private ProductCatalog catalog;
+    private List<Customer> customers;
+
+    @BeforeEach
+    void setup() {
+        this.catalog = new ProductCatalog(List.of(this.prod1, this.prod2, this.prod3));
+        this.customers = new ArrayList<>();
+
+        Customer customer1 = new Customer(LocalTime.NOON, "1000AA");
+        customer1.getItems().add(new Purchase(this.prod2, 2));
+        customer1.getItems().add(new Purchase(this.prod3, 1));
+        Customer customer2 = new Customer(LocalTime.NOON, "1000AA");
+        customer2.getItems().add(new Purchase(this.prod3, 1));
+        customer2.getItems().add(new Purchase(this.prod1, 1));
+        Customer customer0 = new Customer(LocalTime.NOON, "1000AA");
+        Customer customer3 = new Customer(LocalTime.NOON, "1000AB");
+        this.customers.add(customer1);
+        this.customers.add(customer2);
+        this.customers.add(customer0);
+        this.customers.add(customer3);
+    }
+
+    @Test
+    void t031_revenuesAndCountsAreAggregatedPerZipCode() {
+        ZipCodeAggregation aggregation = ZipCodeAggregation.of(this.customers, this.catalog);
+        assertEquals(5, aggregation.getTotalNumberOfItems());
+        assertEquals(2, aggregation.getCount("1000AA", this.prod3));
+        // a customer without purchases does not reset the revenue of its zip code
+        assertThat(aggregation.revenueByZipCode().get("1000AA"), is(closeTo(11.0, 0.0001)));
+        assertThat(aggregation.revenueByZipCode().get("1000AB"), is(closeTo(0.0, 0.0001)));
+        assertEquals("[1000AA, 1000AB]", aggregation.revenueByZipCode().keySet().toString());
+    }
+
+    @Test
+    void t032_tiesArePickedByProductId() {
+        ZipCodeAggregation aggregation = ZipCodeAggregation.of(this.customers, this.catalog);
+        assertSame(this.prod2, aggregation.mostBoughtProductByZipCode().get("1000AA"));
+        assertNull(aggregation.mostBoughtProductByZipCode().get("1000AB"));
+        assertEquals(List.of(this.prod2, this.prod3, this.prod1), aggregation.topProducts("1000AA", 5));
+        assertEquals(List.of(this.prod2, this.prod3), aggregation.topProducts("1000AA", 2));
+        assertEquals(List.of(), aggregation.topProducts("1000AB", 2));
+    }
+
+    @Test
+    void t033_tableAndCustomersGiveSameAggregation() {
+        ZipCodeAggregation fromList = ZipCodeAggregation.of(this.customers, this.catalog);
+        ZipCodeAggregation fromTable = ZipCodeAggregation.of(CustomerTable.of(this.customers, this.catalog));
+        assertEquals(fromList.revenueByZipCode(), fromTable.revenueByZipCode());
+        assertEquals(fromList.mostBoughtProductByZipCode(), fromTable.mostBoughtProductByZipCode());
+        assertEquals(fromList.topProducts("1000AA", 3), fromTable.topProducts("1000AA", 3));
+    }
+
+    @Test
+    void t034_parallelAggregationEqualsSequential() {
+        Supermarket supermarket = Supermarket.importFromXML("supermarket25.xml");
+        supermarket.addRandomCustomers(5 * ZipCodeAggregationTask.LEAF_SIZE + 17, 4);
+        ProductCatalog products = ProductCatalog.of(supermarket.getProducts());
+
+        ZipCodeAggregation sequential = ZipCodeAggregationTask.aggregate(supermarket.getCustomers(), products, false);
+        ZipCodeAggregation parallel = ZipCodeAggregationTask.aggregate(supermarket.getCustomers(), products, true);
+        // revenues are compared exactly, the partial sums are added in the same order
+        assertEquals(sequential.revenueByZipCode(), parallel.revenueByZipCode());
+        assertEquals(sequential.mostBoughtProductByZipCode(), parallel.mostBoughtProductByZipCode());
+        assertEquals(sequential.getTotalNumberOfItems(), parallel.getTotalNumberOfItems());
+
+        supermarket.setParallelAnalytics(false);
+        int totalItems = supermarket.getTotalNumberOfItems();
+        supermarket.setParallelAnalytics(true);
+        supermarket.setParallelThreshold(1);
+        assertEquals(totalItems, supermarket.getTotalNumberOfItems());
+        assertEquals(sequential.revenueByZipCode(), supermarket.revenueByZipCode());
+
+        supermarket.loadCustomerTable();
+        assertEquals(totalItems, supermarket.getTotalNumberOfItems());
+        assertEquals(sequential.revenueByZipCode(), supermarket.revenueByZipCode());
+        assertEquals(sequential.mostBoughtProductByZipCode(), supermarket.mostBoughtProductByZipCode());
+    }
+
+    @Test
+    void t035_analyticsFollowAddedCustomers() {
+        Supermarket supermarket = new Supermarket("incremental", LocalTime.NOON, LocalTime.NOON.plusHours(1), this.catalog);
+        supermarket.getCustomers().addAll(this.customers.subList(0, 2));
+        assertEquals(5, supermarket.getTotalNumberOfItems());
+        Map<String, Double> revenues = supermarket.revenueByZipCode();
+        assertSame(revenues, supermarket.revenueByZipCode());
+        assertThrows(UnsupportedOperationException.class, () -> revenues.put("1000AC", 1.0));
+        ZipCodeAggregation before = supermarket.aggregateByZipCode();
+
+        supermarket.addRandomCustomers(100, 3, new SplittableRandom(3));
+        ZipCodeAggregation expected = ZipCodeAggregation.of(supermarket.getCustomers(), this.catalog);
+        assertEquals(expected.getTotalNumberOfItems(), supermarket.getTotalNumberOfItems());
+        assertEquals(expected.mostBoughtProductByZipCode(), supermarket.mostBoughtProductByZipCode());
+        assertNotSame(revenues, supermarket.revenueByZipCode());
+        for (Map.Entry<String, Double> entry : expected.revenueByZipCode().entrySet()) {
+            assertThat(supermarket.revenueByZipCode().get(entry.getKey()), is(closeTo(entry.getValue(), 0.0001)));
+        }
+        // aggregations that were handed out are not changed by later customers
+        assertEquals(5, before.getTotalNumberOfItems());
+    }
+
+    @Test
+    void t036_modifiedItemsInvalidateTheAnalytics() {
+        Supermarket supermarket = new Supermarket("modified", LocalTime.NOON, LocalTime.NOON.plusHours(1), this.catalog);
+        supermarket.getCustomers().addAll(this.customers);
+        assertEquals(5, supermarket.getTotalNumberOfItems());
+        assertSame(this.prod2, supermarket.mostBoughtProductByZipCode().get("1000AA"));
+
+        this.customers.get(3).getItems().add(new Purchase(this.prod1, 4));
+        assertEquals(9, supermarket.getTotalNumberOfItems());
+        assertSame(this.prod1, supermarket.mostBoughtProductByZipCode().get("1000AB"));
+
+        this.customers.get(0).getItems().removeIf(p -> p.getProduct() == this.prod2);
+        assertEquals(7, supermarket.getTotalNumberOfItems());
+        assertThat(supermarket.revenueByZipCode().get("1000AA"), is(closeTo(7.0, 0.0001)));
+
+        // replacing an aggregated customer is noticed as well
+        supermarket.getCustomers().set(3, new Customer(LocalTime.NOON, "1000AB"));
+        assertEquals(3, supermarket.getTotalNumberOfItems());
+
+        // rows of a customer table report modifications through their views
+        supermarket.loadCustomerTable();
+        assertEquals(3, supermarket.getTotalNumberOfItems());
+        supermarket.getCustomers().get(1).getItems().add(new Purchase(this.prod2, 5));
+        assertEquals(8, supermarket.getTotalNumberOfItems());
+        supermarket.getCustomers().get(1).getItems().clear();
+        assertEquals(1, supermarket.getTotalNumberOfItems());
+    }
+
+    @Test
+    void t037_sharedCustomersInvalidateAllSupermarkets() {
+        Supermarket first = new Supermarket("first", LocalTime.NOON, LocalTime.NOON.plusHours(1), this.catalog);
+        Supermarket second = new Supermarket("second", LocalTime.NOON, LocalTime.NOON.plusHours(1), this.catalog);
+        first.getCustomers().addAll(this.customers);
+        second.getCustomers().addAll(this.customers);
+        assertEquals(5, first.getTotalNumberOfItems());
+        assertEquals(5, second.getTotalNumberOfItems());
+
+        this.customers.get(3).getItems().add(new Purchase(this.prod1, 4));
+        assertEquals(9, first.getTotalNumberOfItems());
+        assertEquals(9, second.getTotalNumberOfItems());
+
+        // replacing, inserting and sorting customers other than the last one is noticed as well
+        first.getCustomers().set(0, new Customer(LocalTime.NOON, "1000AA"));
+        assertEquals(6, first.getTotalNumberOfItems());
+        first.getCustomers().add(1, this.customers.get(0));
+        assertEquals(9, first.getTotalNumberOfItems());
+        Customer last = first.getCustomers().get(first.getCustomers().size() - 1);
+        first.getCustomers().sort((c1, c2) -> c2.getNumberOfItems() - c1.getNumberOfItems());
+        assertSame(last, first.getCustomers().get(0));
+        first.getCustomers().remove(1);
+        assertEquals(6, first.getTotalNumberOfItems());
+        assertEquals(9, second.getTotalNumberOfItems());
+    }
+
+    @Test
+    void t038_incrementalReadsEqualFreshAggregation() {
+        Supermarket supermarket = Supermarket.importFromXML("supermarket25.xml");
+        ProductCatalog products = ProductCatalog.of(supermarket.getProducts());
+        supermarket.setParallelThreshold(1);
+        SplittableRandom random = new SplittableRandom(38);
+
+        // reads after every chunk cross block boundaries at different positions
+        for (int chunk : new int[] { 1500, 3000, 1, 4095, 2600, 5000 }) {
+            supermarket.addRandomCustomers(chunk, 4, random);
+            Map<String, Double> incremental = supermarket.revenueByZipCode();
+            ZipCodeAggregation fresh = ZipCodeAggregationTask.aggregate(supermarket.getCustomers(), products, false);
+            // revenues are compared exactly
+            assertEquals(fresh.revenueByZipCode(), incremental);
+            assertEquals(fresh.mostBoughtProductByZipCode(), supermarket.mostBoughtProductByZipCode());
+            assertEquals(fresh.getTotalNumberOfItems(), supermarket.getTotalNumberOfItems());
+        }
+    }
+}